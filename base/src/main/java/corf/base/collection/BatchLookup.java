@@ -0,0 +1,79 @@
+package corf.base.collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/** Helpers shared by the batch prefix lookup implementations. */
+final class BatchLookup {
+
+    // large enough to amortize task scheduling, small enough to balance the load
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private BatchLookup() {
+        // utility class
+    }
+
+    /** Lookup of the numbers in the range [from, to). */
+    @FunctionalInterface
+    interface RangeTask {
+
+        void run(int from, int to);
+    }
+
+    static void checkBatch(int size, int[] prefixLengths, @Nullable Object[] values) {
+        Objects.requireNonNull(prefixLengths, "prefixLengths");
+        Objects.requireNonNull(values, "values");
+
+        if (prefixLengths.length < size || values.length < size) {
+            throw new IllegalArgumentException(
+                    "Result arrays must have at least " + size + " elements, " +
+                            "actual lengths are " + prefixLengths.length + " and " + values.length
+            );
+        }
+    }
+
+    static void forEachRange(int size, boolean parallel, RangeTask task) {
+        if (!parallel || size <= CHUNK_SIZE) {
+            task.run(0, size);
+            return;
+        }
+
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            task.run(from, Math.min(from + CHUNK_SIZE, size));
+        });
+    }
+
+    /** Returns the number of decimal digits of non-negative number. */
+    static int digitCount(long number) {
+        int count = 1;
+        while (count < POW10.length && number >= POW10[count]) {
+            count++;
+        }
+        return count;
+    }
+
+    /** Returns numeral of the given decimal digit, counting from the most significant one. */
+    static int numeralAt(long number, int digitCount, int index) {
+        return (int) (number / POW10[digitCount - index - 1] % 10);
+    }
+
+    /** Returns numeral value of the given char or -1 if it's not a decimal digit. */
+    static int numeral(char c) {
+        // same as PrefixTrie#getNumeralAt(), any Unicode decimal digit is accepted
+        int numeral = Character.digit(c, 10);
+        return numeral >= 0 && numeral <= 9 ? numeral : -1;
+    }
+}
@@ -0,0 +1,501 @@
+package corf.base.collection;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import corf.base.collection.PrefixTrie.Entry;
+
+import java.nio.IntBuffer;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static corf.base.collection.PrefixTrie.checkPhonePrefixFormat;
+import static corf.base.collection.PrefixTrie.getNumeralAt;
+
+/**
+ * Memory efficient alternative to the {@link PrefixTrie}. Instead of allocating
+ * an object per digit, nodes are identified by int and stored in flat arrays:
+ * <ul>
+ *     <li>each node that has children owns a block of 10 slots in the shared
+ *     child table, leaf nodes (which are the majority) have no block at all;</li>
+ *     <li>leaf flags are stored as a bitset;</li>
+ *     <li>values are stored in a separate array indexed by node.</li>
+ * </ul>
+ * Removed nodes and blocks are recycled by the subsequent insertions.
+ * Unlike {@link PrefixTrie}, adding an existing prefix replaces its value.
+ * The trie is not thread-safe.
+ */
+public final class CompactPrefixTrie<T> implements Iterable<Entry<T>> {
+
+    private static final int RADIX = 10;
+    private static final int ROOT = 0;
+    private static final int NO_BLOCK = -1;
+    private static final int DEFAULT_CAPACITY = 64;
+
+    // per node data
+    private int[] blocks;
+    private @Nullable Object[] values;
+    private long[] leaves;
+
+    // children of the block B are stored in [B * RADIX, B * RADIX + RADIX), 0 means no child,
+    // which is unambiguous, because root can't be a child of another node
+    private int[] childTable;
+
+    private int nodeCount;
+    private int blockCount;
+    private int size;
+
+    // recycled node and block indices
+    private final IntStack freeNodes = new IntStack();
+    private final IntStack freeBlocks = new IntStack();
+
+    public CompactPrefixTrie() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty trie.
+     *
+     * @param expectedNodes the number of nodes to preallocate space for
+     */
+    public CompactPrefixTrie(int expectedNodes) {
+        int capacity = Math.max(expectedNodes, 1);
+        blocks = new int[capacity];
+        values = new Object[capacity];
+        leaves = new long[(capacity >> 6) + 1];
+        childTable = new int[Math.max(capacity / 2, 1) * RADIX];
+
+        nodeCount = 1;
+        blocks[ROOT] = NO_BLOCK;
+    }
+
+    /** Creates compact copy of the given trie. */
+    public static <T> CompactPrefixTrie<T> copyOf(Iterable<Entry<T>> entries) {
+        Objects.requireNonNull(entries, "entries");
+
+        var trie = new CompactPrefixTrie<T>();
+        for (Entry<T> e : entries) {
+            trie.add(e);
+        }
+        return trie;
+    }
+
+    /** See {@link PrefixTrie#findClosest(String)}. */
+    public @Nullable Entry<T> findClosest(String digits) {
+        checkPhonePrefixFormat(digits);
+
+        int node = ROOT, closestNode = -1, closestLength = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            node = getChild(node, getNumeralAt(digits, i));
+            if (node == 0) { break; }
+            if (isLeaf(node)) {
+                closestNode = node;
+                closestLength = i + 1;
+            }
+        }
+
+        if (closestNode < 0) { return null; }
+
+        var prefix = closestLength < digits.length() ? digits.substring(0, closestLength) : digits;
+        return new Entry<>(prefix, getValue(closestNode));
+    }
+
+    /** See {@link PrefixTrie#findExact(String)}. */
+    public @Nullable Entry<T> findExact(String digits) {
+        checkPhonePrefixFormat(digits);
+
+        int node = findExactNode(digits);
+        return node > 0 ? new Entry<>(digits, getValue(node)) : null;
+    }
+
+    /** Inserts new prefix into the trie or replaces the value of the existing one. */
+    public void add(String digits, @Nullable T value) {
+        checkPhonePrefixFormat(digits);
+
+        // root can't be a leaf
+        if (digits.isEmpty()) { return; }
+
+        int node = ROOT;
+        for (int i = 0; i < digits.length(); i++) {
+            int numeral = getNumeralAt(digits, i);
+            int child = getChild(node, numeral);
+            if (child == 0) {
+                child = allocateNode();
+                setChild(node, numeral, child);
+            }
+            node = child;
+        }
+
+        if (!isLeaf(node)) {
+            setLeaf(node, true);
+            size++;
+        }
+        values[node] = value;
+    }
+
+    public void add(Entry<T> e) {
+        add(e.prefix(), e.value());
+    }
+
+    /** Updates value that corresponds to existing prefix. */
+    public void update(String digits, @Nullable T value) {
+        checkPhonePrefixFormat(digits);
+
+        int node = findExactNode(digits);
+        if (node > 0) { values[node] = value; }
+    }
+
+    public void update(Entry<T> e) {
+        update(e.prefix(), e.value());
+    }
+
+    /** Removes existing prefix from trie. */
+    public void remove(String digits) {
+        checkPhonePrefixFormat(digits);
+
+        // path[i] is the node that corresponds to the first i digits
+        int[] path = new int[digits.length() + 1];
+        int node = ROOT;
+        for (int i = 0; i < digits.length(); i++) {
+            node = getChild(node, getNumeralAt(digits, i));
+            if (node == 0) { return; }
+            path[i + 1] = node;
+        }
+
+        if (node == ROOT || !isLeaf(node)) { return; }
+
+        setLeaf(node, false);
+        values[node] = null;
+        size--;
+
+        // remove dead branches, the ones which have no leaves
+        for (int depth = digits.length(); depth > 0; depth--) {
+            int current = path[depth];
+            if (isLeaf(current) || hasChildren(current)) { break; }
+
+            int parent = path[depth - 1];
+            setChild(parent, getNumeralAt(digits, depth - 1), 0);
+            releaseNode(current);
+        }
+    }
+
+    public boolean contains(String digits) {
+        checkPhonePrefixFormat(digits);
+        return findExactNode(digits) > 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns the number of prefixes in the trie. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of nodes in use, including root. */
+    public int nodeCount() {
+        return nodeCount - freeNodes.size();
+    }
+
+    /**
+     * Returns estimated heap size (in bytes) occupied by the trie structure,
+     * including allocated, but unused capacity. Values themselves aren't
+     * included, only references to them.
+     */
+    public long memoryFootprint() {
+        return arraySize(blocks.length, Integer.BYTES)
+                + arraySize(values.length, Integer.BYTES) // assuming compressed oops
+                + arraySize(leaves.length, Long.BYTES)
+                + arraySize(childTable.length, Integer.BYTES)
+                + arraySize(freeNodes.capacity(), Integer.BYTES)
+                + arraySize(freeBlocks.capacity(), Integer.BYTES);
+    }
+
+    /** Shrinks internal arrays to the size of the data stored. */
+    public void trimToSize() {
+        blocks = Arrays.copyOf(blocks, nodeCount);
+        values = Arrays.copyOf(values, nodeCount);
+        leaves = Arrays.copyOf(leaves, (nodeCount >> 6) + 1);
+        childTable = Arrays.copyOf(childTable, Math.max(blockCount, 1) * RADIX);
+    }
+
+    /**
+     * Returns immutable snapshot of the current trie state. Subsequent
+     * modifications of this trie don't affect the snapshot.
+     */
+    public FrozenPrefixTrie<T> freeze() {
+        int usedNodes = nodeCount();
+        var frozen = new Freezer(usedNodes, blockCount - freeBlocks.size());
+        frozen.copy(ROOT, ROOT);
+
+        return new FrozenPrefixTrie<>(
+                IntBuffer.wrap(frozen.blocks),
+                IntBuffer.wrap(frozen.valueIndices),
+                IntBuffer.wrap(frozen.childTable),
+                frozen.valueTable.toArray(),
+                size
+        );
+    }
+
+    @Override
+    public @NotNull Iterator<Entry<T>> iterator() {
+        return new CompactPrefixTrieIterator();
+    }
+
+    @Override
+    public Spliterator<Entry<T>> spliterator() {
+        return Spliterators.spliterator(iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    public Stream<Entry<T>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactPrefixTrie{" +
+                "size=" + size +
+                ", nodes=" + nodeCount() +
+                ", footprint=" + memoryFootprint() +
+                '}';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private int findExactNode(String digits) {
+        int node = ROOT;
+        for (int i = 0; i < digits.length(); i++) {
+            node = getChild(node, getNumeralAt(digits, i));
+            if (node == 0) { return -1; }
+        }
+        return node != ROOT && isLeaf(node) ? node : -1;
+    }
+
+    private int getChild(int node, int numeral) {
+        int block = blocks[node];
+        return block != NO_BLOCK ? childTable[block * RADIX + numeral] : 0;
+    }
+
+    private void setChild(int node, int numeral, int child) {
+        int block = blocks[node];
+        if (block == NO_BLOCK) {
+            if (child == 0) { return; }
+            block = allocateBlock();
+            blocks[node] = block;
+        }
+
+        childTable[block * RADIX + numeral] = child;
+
+        // release block as soon as the last child removed
+        if (child == 0 && !hasChildren(node)) {
+            blocks[node] = NO_BLOCK;
+            freeBlocks.push(block);
+        }
+    }
+
+    private boolean hasChildren(int node) {
+        int block = blocks[node];
+        if (block == NO_BLOCK) { return false; }
+
+        int offset = block * RADIX;
+        for (int i = 0; i < RADIX; i++) {
+            if (childTable[offset + i] != 0) { return true; }
+        }
+        return false;
+    }
+
+    private boolean isLeaf(int node) {
+        return (leaves[node >> 6] & (1L << node)) != 0;
+    }
+
+    private void setLeaf(int node, boolean leaf) {
+        if (leaf) {
+            leaves[node >> 6] |= (1L << node);
+        } else {
+            leaves[node >> 6] &= ~(1L << node);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable T getValue(int node) {
+        return (T) values[node];
+    }
+
+    private int allocateNode() {
+        int node;
+        if (!freeNodes.isEmpty()) {
+            node = freeNodes.pop();
+        } else {
+            if (nodeCount == blocks.length) {
+                int capacity = blocks.length * 2;
+                blocks = Arrays.copyOf(blocks, capacity);
+                values = Arrays.copyOf(values, capacity);
+                leaves = Arrays.copyOf(leaves, (capacity >> 6) + 1);
+            }
+            node = nodeCount++;
+        }
+
+        blocks[node] = NO_BLOCK;
+        values[node] = null;
+        setLeaf(node, false);
+        return node;
+    }
+
+    private void releaseNode(int node) {
+        // node is released only when it has no children, so it has no block
+        values[node] = null;
+        setLeaf(node, false);
+        freeNodes.push(node);
+    }
+
+    private int allocateBlock() {
+        if (!freeBlocks.isEmpty()) {
+            // released blocks are always zeroed
+            return freeBlocks.pop();
+        }
+
+        if ((blockCount + 1) * RADIX > childTable.length) {
+            childTable = Arrays.copyOf(childTable, childTable.length * 2);
+        }
+        return blockCount++;
+    }
+
+    private static long arraySize(int length, int elementSize) {
+        // 16 bytes array header, aligned to 8 bytes
+        return (16L + (long) length * elementSize + 7) & ~7L;
+    }
+
+    // renumbers nodes and blocks in depth-first order dropping the released ones
+    private final class Freezer {
+
+        private final int[] blocks;
+        private final int[] valueIndices;
+        private final int[] childTable;
+        private final List<@Nullable Object> valueTable = new ArrayList<>();
+        // values are deduplicated by identity, equal, but distinct instances are kept as is
+        private final Map<@Nullable Object, Integer> valueTableIndex = new IdentityHashMap<>();
+        private int nextNode = 1;
+        private int nextBlock = 0;
+
+        public Freezer(int nodeCount, int blockCount) {
+            this.blocks = new int[nodeCount];
+            this.valueIndices = new int[nodeCount];
+            this.childTable = new int[blockCount * RADIX];
+        }
+
+        public void copy(int src, int dst) {
+            valueIndices[dst] = isLeaf(src)
+                    ? valueTableIndex.computeIfAbsent(values[src], this::addValue)
+                    : FrozenPrefixTrie.NO_VALUE;
+
+            if (CompactPrefixTrie.this.blocks[src] == NO_BLOCK) {
+                blocks[dst] = NO_BLOCK;
+                return;
+            }
+
+            int block = nextBlock++;
+            blocks[dst] = block;
+
+            for (int numeral = 0; numeral < RADIX; numeral++) {
+                int child = getChild(src, numeral);
+                if (child != 0) {
+                    int id = nextNode++;
+                    childTable[block * RADIX + numeral] = id;
+                    copy(child, id);
+                }
+            }
+        }
+
+        private Integer addValue(@Nullable Object value) {
+            valueTable.add(value);
+            return valueTable.size() - 1;
+        }
+    }
+
+    private static final class IntStack {
+
+        private int[] data = new int[16];
+        private int size;
+
+        public void push(int value) {
+            if (size == data.length) { data = Arrays.copyOf(data, size * 2); }
+            data[size++] = value;
+        }
+
+        public int pop() {
+            return data[--size];
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int capacity() {
+            return data.length;
+        }
+    }
+
+    // pre-order depth-first traversal, same order as PrefixTrie iterator
+    private final class CompactPrefixTrieIterator implements Iterator<Entry<T>> {
+
+        private final IntStack nodes = new IntStack();
+        private final IntStack depths = new IntStack();
+        private final StringBuilder prefix = new StringBuilder();
+        private @Nullable Entry<T> next;
+
+        public CompactPrefixTrieIterator() {
+            pushChildren(ROOT, 0);
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<T> next() {
+            if (next == null) { throw new NoSuchElementException(); }
+
+            Entry<T> result = next;
+            next = advance();
+            return result;
+        }
+
+        private @Nullable Entry<T> advance() {
+            while (!nodes.isEmpty()) {
+                int node = nodes.pop();
+                int depth = depths.pop();
+
+                // stack stores numeral in the lower bits to restore the prefix
+                int numeral = node % RADIX;
+                node = node / RADIX;
+
+                prefix.setLength(depth);
+                prefix.append((char) ('0' + numeral));
+                pushChildren(node, depth + 1);
+
+                if (isLeaf(node)) {
+                    return new Entry<>(prefix.toString(), getValue(node));
+                }
+            }
+            return null;
+        }
+
+        private void pushChildren(int node, int depth) {
+            // push in reverse order, so that the smallest numeral is popped first
+            for (int numeral = RADIX - 1; numeral >= 0; numeral--) {
+                int child = getChild(node, numeral);
+                if (child != 0) {
+                    nodes.push(child * RADIX + numeral);
+                    depths.push(depth);
+                }
+            }
+        }
+    }
+}
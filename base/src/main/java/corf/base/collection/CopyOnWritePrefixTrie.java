@@ -0,0 +1,99 @@
+package corf.base.collection;
+
+import org.jetbrains.annotations.Nullable;
+import corf.base.collection.PrefixTrie.Entry;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe prefix trie for the read-mostly workloads. All lookups are
+ * performed against the current immutable {@link FrozenPrefixTrie} snapshot
+ * without any locking. Writers create a modified copy of the current snapshot
+ * and publish it atomically, so readers never observe partial updates and
+ * never block, even while the trie is being reloaded.
+ */
+public final class CopyOnWritePrefixTrie<T> {
+
+    private final Object writeLock = new Object();
+    private volatile FrozenPrefixTrie<T> snapshot;
+
+    public CopyOnWritePrefixTrie() {
+        this(FrozenPrefixTrie.empty());
+    }
+
+    public CopyOnWritePrefixTrie(FrozenPrefixTrie<T> snapshot) {
+        this.snapshot = Objects.requireNonNull(snapshot, "snapshot");
+    }
+
+    /**
+     * Returns current snapshot. Use it for consistent reads, when multiple
+     * lookups have to see the same trie version.
+     */
+    public FrozenPrefixTrie<T> snapshot() {
+        return snapshot;
+    }
+
+    /** See {@link PrefixTrie#findClosest(String)}. */
+    public @Nullable Entry<T> findClosest(String digits) {
+        return snapshot.findClosest(digits);
+    }
+
+    /** See {@link PrefixTrie#findExact(String)}. */
+    public @Nullable Entry<T> findExact(String digits) {
+        return snapshot.findExact(digits);
+    }
+
+    public boolean contains(String digits) {
+        return snapshot.contains(digits);
+    }
+
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Atomically replaces current snapshot with the new one,
+     * e.g. when the whole table has been reloaded.
+     *
+     * @return the previous snapshot
+     */
+    public FrozenPrefixTrie<T> replace(FrozenPrefixTrie<T> newSnapshot) {
+        Objects.requireNonNull(newSnapshot, "newSnapshot");
+        synchronized (writeLock) {
+            FrozenPrefixTrie<T> previous = snapshot;
+            snapshot = newSnapshot;
+            return previous;
+        }
+    }
+
+    /**
+     * Applies modifications to the mutable copy of the current snapshot and
+     * publishes the result. Concurrent updates are serialized, so that none
+     * of them is lost. Readers continue to use the previous snapshot until
+     * update is completed. If modifier throws, current snapshot is left intact.
+     *
+     * @return the new snapshot
+     */
+    public FrozenPrefixTrie<T> update(Consumer<CompactPrefixTrie<T>> modifier) {
+        Objects.requireNonNull(modifier, "modifier");
+        synchronized (writeLock) {
+            CompactPrefixTrie<T> copy = snapshot.toCompactPrefixTrie();
+            modifier.accept(copy);
+            FrozenPrefixTrie<T> newSnapshot = copy.freeze();
+            snapshot = newSnapshot;
+            return newSnapshot;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CopyOnWritePrefixTrie{" +
+                "snapshot=" + snapshot +
+                '}';
+    }
+}
@@ -0,0 +1,387 @@
+package corf.base.collection;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import corf.base.collection.PrefixTrie.Entry;
+
+import java.nio.IntBuffer;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static corf.base.collection.PrefixTrie.checkPhonePrefixFormat;
+import static corf.base.collection.PrefixTrie.getNumeralAt;
+
+/**
+ * Immutable read-optimised prefix trie, see {@link PrefixTrie#freeze()} and
+ * {@link CompactPrefixTrie#freeze()}. The trie is safe to be queried from
+ * any number of threads without synchronization.
+ * <p>
+ * Nodes are numbered in depth-first order. Each node is described by two ints:
+ * the index of its children block (or -1 for the nodes without children) and
+ * the index of its value in the value table (or -1 for intermediate nodes).
+ * Values are deduplicated, so that prefixes sharing the same value instance
+ * reference the same value table entry.
+ */
+public final class FrozenPrefixTrie<T> implements Iterable<Entry<T>> {
+
+    static final int RADIX = 10;
+    static final int ROOT = 0;
+    static final int NO_BLOCK = -1;
+    static final int NO_VALUE = -1;
+
+    @SuppressWarnings("rawtypes")
+    private static final FrozenPrefixTrie EMPTY = new FrozenPrefixTrie<>(
+            IntBuffer.wrap(new int[] { NO_BLOCK }),
+            IntBuffer.wrap(new int[] { NO_VALUE }),
+            IntBuffer.wrap(new int[0]),
+            new Object[0],
+            0
+    );
+
+    private final IntBuffer blocks;
+    private final IntBuffer valueIndices;
+    private final IntBuffer childTable;
+    private final @Nullable Object[] values;
+    private final int size;
+
+    FrozenPrefixTrie(IntBuffer blocks,
+                     IntBuffer valueIndices,
+                     IntBuffer childTable,
+                     @Nullable Object[] values,
+                     int size) {
+        this.blocks = blocks;
+        this.valueIndices = valueIndices;
+        this.childTable = childTable;
+        this.values = values;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> FrozenPrefixTrie<T> empty() {
+        return (FrozenPrefixTrie<T>) EMPTY;
+    }
+
+    public static <T> FrozenPrefixTrie<T> copyOf(Iterable<Entry<T>> entries) {
+        if (entries instanceof FrozenPrefixTrie<T> frozen) { return frozen; }
+        if (entries instanceof CompactPrefixTrie<T> compact) { return compact.freeze(); }
+        return CompactPrefixTrie.copyOf(entries).freeze();
+    }
+
+    /** See {@link PrefixTrie#findClosest(String)}. */
+    public @Nullable Entry<T> findClosest(String digits) {
+        checkPhonePrefixFormat(digits);
+
+        int node = ROOT, closestNode = -1, closestLength = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            node = getChild(node, getNumeralAt(digits, i));
+            if (node == 0) { break; }
+            if (isLeaf(node)) {
+                closestNode = node;
+                closestLength = i + 1;
+            }
+        }
+
+        if (closestNode < 0) { return null; }
+
+        var prefix = closestLength < digits.length() ? digits.substring(0, closestLength) : digits;
+        return new Entry<>(prefix, getValue(closestNode));
+    }
+
+    /** See {@link PrefixTrie#findExact(String)}. */
+    public @Nullable Entry<T> findExact(String digits) {
+        checkPhonePrefixFormat(digits);
+
+        int node = findExactNode(digits);
+        return node > 0 ? new Entry<>(digits, getValue(node)) : null;
+    }
+
+    /** See {@link PrefixTrie#findClosest(CharSequence[], int[], Object[], boolean)}. */
+    public void findClosest(CharSequence[] numbers, int[] prefixLengths, @Nullable T[] values) {
+        findClosest(numbers, prefixLengths, values, false);
+    }
+
+    /** See {@link PrefixTrie#findClosest(CharSequence[], int[], Object[], boolean)}. */
+    public void findClosest(CharSequence[] numbers,
+                            int[] prefixLengths,
+                            @Nullable T[] values,
+                            boolean parallel) {
+        Objects.requireNonNull(numbers, "numbers");
+        BatchLookup.checkBatch(numbers.length, prefixLengths, values);
+
+        BatchLookup.forEachRange(numbers.length, parallel, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                long match = match(numbers[i]);
+                prefixLengths[i] = matchLength(match);
+                values[i] = matchValue(match);
+            }
+        });
+    }
+
+    /** See {@link PrefixTrie#findClosest(long[], int[], Object[], boolean)}. */
+    public void findClosest(long[] numbers, int[] prefixLengths, @Nullable T[] values) {
+        findClosest(numbers, prefixLengths, values, false);
+    }
+
+    /** See {@link PrefixTrie#findClosest(long[], int[], Object[], boolean)}. */
+    public void findClosest(long[] numbers,
+                            int[] prefixLengths,
+                            @Nullable T[] values,
+                            boolean parallel) {
+        Objects.requireNonNull(numbers, "numbers");
+        BatchLookup.checkBatch(numbers.length, prefixLengths, values);
+
+        BatchLookup.forEachRange(numbers.length, parallel, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                long match = match(numbers[i]);
+                prefixLengths[i] = matchLength(match);
+                values[i] = matchValue(match);
+            }
+        });
+    }
+
+    /** See {@link PrefixTrie#findClosest(Stream, PrefixTrie.MatchConsumer)}. */
+    public void findClosest(Stream<? extends CharSequence> numbers, PrefixTrie.MatchConsumer<T> consumer) {
+        Objects.requireNonNull(numbers, "numbers");
+        Objects.requireNonNull(consumer, "consumer");
+
+        numbers.forEach(number -> {
+            long match = match(number);
+            consumer.accept(number, matchLength(match), matchValue(match));
+        });
+    }
+
+    public boolean contains(String digits) {
+        checkPhonePrefixFormat(digits);
+        return findExactNode(digits) > 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns the number of prefixes in the trie. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of nodes, including root. */
+    public int nodeCount() {
+        return blocks.limit();
+    }
+
+    /**
+     * Returns estimated heap size (in bytes) occupied by the trie structure.
+     * Values themselves aren't included, only references to them. Memory-mapped
+     * trie structure doesn't occupy heap, see {@link PrefixTrieFile}.
+     */
+    public long memoryFootprint() {
+        return heapSize(blocks)
+                + heapSize(valueIndices)
+                + heapSize(childTable)
+                + arraySize(values.length, Integer.BYTES); // assuming compressed oops
+    }
+
+    /** Returns mutable copy of this trie. */
+    public PrefixTrie<T> toPrefixTrie() {
+        var trie = new PrefixTrie<T>();
+        // entries are iterated in depth-first order, so that the shorter prefixes are always added first
+        for (Entry<T> e : this) {
+            trie.add(e);
+        }
+        return trie;
+    }
+
+    /** Returns mutable compact copy of this trie. */
+    public CompactPrefixTrie<T> toCompactPrefixTrie() {
+        return CompactPrefixTrie.copyOf(this);
+    }
+
+    @Override
+    public @NotNull Iterator<Entry<T>> iterator() {
+        return new FrozenPrefixTrieIterator();
+    }
+
+    @Override
+    public Spliterator<Entry<T>> spliterator() {
+        return Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public Stream<Entry<T>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public String toString() {
+        return "FrozenPrefixTrie{" +
+                "size=" + size +
+                ", nodes=" + nodeCount() +
+                ", values=" + values.length +
+                '}';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Batch lookups return the closest leaf node packed with the prefix length
+    // into a single long, so that no objects are allocated per lookup.
+    // Node is 0 (root) if there's no match.
+
+    private long match(@Nullable CharSequence number) {
+        if (number == null) { return 0; }
+
+        int node = ROOT, closestNode = ROOT, closestLength = 0;
+        for (int i = 0; i < number.length(); i++) {
+            int numeral = BatchLookup.numeral(number.charAt(i));
+            if (numeral < 0) { break; }
+
+            node = getChild(node, numeral);
+            if (node == 0) { break; }
+            if (isLeaf(node)) {
+                closestNode = node;
+                closestLength = i + 1;
+            }
+        }
+        return ((long) closestLength << 32) | closestNode;
+    }
+
+    private long match(long number) {
+        if (number < 0) { return 0; }
+
+        int digitCount = BatchLookup.digitCount(number);
+        int node = ROOT, closestNode = ROOT, closestLength = 0;
+        for (int i = 0; i < digitCount; i++) {
+            node = getChild(node, BatchLookup.numeralAt(number, digitCount, i));
+            if (node == 0) { break; }
+            if (isLeaf(node)) {
+                closestNode = node;
+                closestLength = i + 1;
+            }
+        }
+        return ((long) closestLength << 32) | closestNode;
+    }
+
+    private static int matchLength(long match) {
+        return (int) (match >>> 32);
+    }
+
+    private @Nullable T matchValue(long match) {
+        int node = (int) match;
+        return node != ROOT ? getValue(node) : null;
+    }
+
+    int findExactNode(String digits) {
+        int node = ROOT;
+        for (int i = 0; i < digits.length(); i++) {
+            node = getChild(node, getNumeralAt(digits, i));
+            if (node == 0) { return -1; }
+        }
+        return node != ROOT && isLeaf(node) ? node : -1;
+    }
+
+    int getChild(int node, int numeral) {
+        int block = blocks.get(node);
+        return block != NO_BLOCK ? childTable.get(block * RADIX + numeral) : 0;
+    }
+
+    boolean isLeaf(int node) {
+        return valueIndices.get(node) != NO_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable T getValue(int node) {
+        return (T) values[valueIndices.get(node)];
+    }
+
+    IntBuffer blocks() {
+        return blocks;
+    }
+
+    IntBuffer valueIndices() {
+        return valueIndices;
+    }
+
+    IntBuffer childTable() {
+        return childTable;
+    }
+
+    @Nullable Object[] values() {
+        return values;
+    }
+
+    private static long heapSize(IntBuffer buf) {
+        return buf.isDirect() ? 0 : arraySize(buf.capacity(), Integer.BYTES);
+    }
+
+    private static long arraySize(int length, int elementSize) {
+        // 16 bytes array header, aligned to 8 bytes
+        return (16L + (long) length * elementSize + 7) & ~7L;
+    }
+
+    // pre-order depth-first traversal, same order as PrefixTrie iterator
+    private final class FrozenPrefixTrieIterator implements Iterator<Entry<T>> {
+
+        // current path, numerals[d] is the next numeral to visit at depth d
+        private int[] path = new int[16];
+        private int[] numerals = new int[16];
+        private int depth;
+        private final StringBuilder prefix = new StringBuilder();
+        private @Nullable Entry<T> next;
+
+        public FrozenPrefixTrieIterator() {
+            path[0] = ROOT;
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<T> next() {
+            if (next == null) { throw new NoSuchElementException(); }
+
+            Entry<T> result = next;
+            next = advance();
+            return result;
+        }
+
+        private @Nullable Entry<T> advance() {
+            while (depth >= 0) {
+                int node = path[depth];
+                int numeral = numerals[depth];
+
+                // find the next child of the current node
+                int child = 0;
+                while (numeral < RADIX && (child = getChild(node, numeral)) == 0) {
+                    numeral++;
+                }
+
+                if (numeral == RADIX) {
+                    // all children visited, go up
+                    depth--;
+                    if (depth >= 0) { prefix.setLength(depth); }
+                    continue;
+                }
+
+                numerals[depth] = numeral + 1;
+                prefix.setLength(depth);
+                prefix.append((char) ('0' + numeral));
+
+                depth++;
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                    numerals = Arrays.copyOf(numerals, depth * 2);
+                }
+                path[depth] = child;
+                numerals[depth] = 0;
+
+                if (isLeaf(child)) {
+                    return new Entry<>(prefix.toString(), getValue(child));
+                }
+            }
+            return null;
+        }
+    }
+}
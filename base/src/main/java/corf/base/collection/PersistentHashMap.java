@@ -0,0 +1,390 @@
+package corf.base.collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map with structural sharing (hash array mapped trie).
+ * Modifying operations return the new map, which shares all unchanged nodes
+ * with the original one, so they cost O(log32 N) instead of copying the whole
+ * map. It makes the map a good fit for copy-on-write snapshots: any number of
+ * versions can be kept alive and read from any thread without synchronization,
+ * while keeping the previous version is a matter of keeping the reference.
+ * <p>
+ * Null keys and values aren't supported.
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentHashMap EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final @Nullable Node root;
+    private final int size;
+
+    private PersistentHashMap(@Nullable Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(Object key) {
+        Objects.requireNonNull(key, "key");
+        return root != null ? (V) root.get(0, hash(key), key) : null;
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the map that contains given mapping. If the key is already
+     * mapped to the same value instance, this map is returned.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+
+        var added = new boolean[1];
+        Node newRoot = root != null
+                ? root.put(0, hash(key), key, value, added)
+                : BitmapNode.EMPTY.put(0, hash(key), key, value, added);
+
+        return newRoot != root ? new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size) : this;
+    }
+
+    /**
+     * Returns the map without given key. If there's no such key,
+     * this map is returned.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        Objects.requireNonNull(key, "key");
+        if (root == null) { return this; }
+
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) { return this; }
+        return newRoot != null ? new PersistentHashMap<>(newRoot, size - 1) : empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "action");
+        if (root != null) { root.forEach((BiConsumer<Object, Object>) action); }
+    }
+
+    public List<K> keys() {
+        var result = new ArrayList<K>(size);
+        forEach((k, v) -> result.add(k));
+        return result;
+    }
+
+    public List<V> values() {
+        var result = new ArrayList<V>(size);
+        forEach((k, v) -> result.add(v));
+        return result;
+    }
+
+    /**
+     * Reports all keys which are mapped to different value instances in this
+     * and the other map. Subtrees shared by both maps are skipped, so the cost
+     * is proportional to the number of modifications made since one map has
+     * been derived from the other, rather than to the map size.
+     *
+     * @param consumer accepts the key, this map value and the other map value,
+     *                 where {@code null} value means that key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public void diff(PersistentHashMap<K, V> other, DiffConsumer<? super K, ? super V> consumer) {
+        Objects.requireNonNull(other, "other");
+        Objects.requireNonNull(consumer, "consumer");
+        Node.diff(root, other.root, 0, (DiffConsumer<Object, Object>) consumer);
+    }
+
+    @FunctionalInterface
+    public interface DiffConsumer<K, V> {
+
+        void accept(K key, @Nullable V thisValue, @Nullable V otherValue);
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) { sb.append(", "); }
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private abstract static class Node {
+
+        abstract @Nullable Object get(int shift, int hash, Object key);
+
+        // returns the same node if nothing has changed
+        abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        // returns the same node if key not found or null if node became empty
+        abstract @Nullable Node remove(int shift, int hash, Object key);
+
+        abstract void forEach(BiConsumer<Object, Object> action);
+
+        static void diff(@Nullable Node a, @Nullable Node b, int shift, DiffConsumer<Object, Object> consumer) {
+            if (a == b) { return; }
+
+            if (a instanceof BitmapNode x && b instanceof BitmapNode y) {
+                BitmapNode.diff(x, y, shift, consumer);
+                return;
+            }
+
+            // different node types, compare them entry by entry
+            if (a != null) {
+                a.forEach((k, v) -> {
+                    Object other = b != null ? b.get(shift, hash(k), k) : null;
+                    if (other != v) { consumer.accept(k, v, other); }
+                });
+            }
+            if (b != null) {
+                b.forEach((k, v) -> {
+                    if (a == null || a.get(shift, hash(k), k) == null) { consumer.accept(k, null, v); }
+                });
+            }
+        }
+
+        static Node merge(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+            }
+
+            var added = new boolean[1];
+            return BitmapNode.EMPTY
+                    .put(shift, hash1, key1, value1, added)
+                    .put(shift, hash2, key2, value2, added);
+        }
+    }
+
+    // Each entry occupies two array slots: either [key, value] or [null, child node].
+    private static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final @Nullable Object[] array;
+
+        BitmapNode(int bitmap, @Nullable Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        @Nullable Object get(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) { return null; }
+
+            int i = index(bit);
+            Object k = array[i];
+            Object v = Objects.requireNonNull(array[i + 1]);
+            if (k == null) { return ((Node) v).get(shift + BITS, hash, key); }
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = index(bit);
+
+            if ((bitmap & bit) == 0) {
+                var newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+
+            Object k = array[i];
+            Object v = Objects.requireNonNull(array[i + 1]);
+
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.put(shift + BITS, hash, key, value, added);
+                return newChild != child ? withSlot(i, null, newChild) : this;
+            }
+
+            if (key.equals(k)) {
+                return v != value ? withSlot(i, k, value) : this;
+            }
+
+            added[0] = true;
+            return withSlot(i, null, merge(shift + BITS, k, v, hash, key, value));
+        }
+
+        @Override
+        @Nullable Node remove(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) { return this; }
+
+            int i = index(bit);
+            Object k = array[i];
+            Object v = Objects.requireNonNull(array[i + 1]);
+
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.remove(shift + BITS, hash, key);
+                if (newChild == child) { return this; }
+                if (newChild != null) { return withSlot(i, null, newChild); }
+            } else if (!key.equals(k)) {
+                return this;
+            }
+
+            if (bitmap == bit) { return null; }
+
+            var newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                Object k = array[i];
+                Object v = Objects.requireNonNull(array[i + 1]);
+                if (k != null) {
+                    action.accept(k, v);
+                } else {
+                    ((Node) v).forEach(action);
+                }
+            }
+        }
+
+        static void diff(BitmapNode a, BitmapNode b, int shift, DiffConsumer<Object, Object> consumer) {
+            int bits = a.bitmap | b.bitmap;
+            while (bits != 0) {
+                int bit = Integer.lowestOneBit(bits);
+                bits &= ~bit;
+                Node.diff(a.slot(bit), b.slot(bit), shift + BITS, consumer);
+            }
+        }
+
+        // represents the slot as a node to reuse generic diff
+        private @Nullable Node slot(int bit) {
+            if ((bitmap & bit) == 0) { return null; }
+
+            int i = index(bit);
+            Object k = array[i];
+            Object v = Objects.requireNonNull(array[i + 1]);
+            return k == null ? (Node) v : new CollisionNode(hash(k), new Object[] { k, v });
+        }
+
+        private BitmapNode withSlot(int i, @Nullable Object key, Object value) {
+            Object[] newArray = array.clone();
+            newArray[i] = key;
+            newArray[i + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1)) * 2;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+    }
+
+    // Keys with the same full hash, stored as [key, value] pairs.
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        @Nullable Object get(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return i >= 0 ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // nest this node into the bitmap node, so that it can hold both hashes
+                var node = new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[] { null, this });
+                return node.put(shift, hash, key, value, added);
+            }
+
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) { return this; }
+                Object[] newArray = array.clone();
+                newArray[i + 1] = value;
+                return new CollisionNode(hash, newArray);
+            }
+
+            var newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        @Nullable Node remove(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            if (i < 0) { return this; }
+            if (array.length == 2) { return null; }
+
+            var newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) { return i; }
+            }
+            return -1;
+        }
+    }
+}
@@ -75,6 +75,107 @@ public final class PrefixTrie<T> implements Iterable<PrefixTrie.Entry<T>> {
         return lastLeafNode != null ? ImmutablePair.of(lastLeafIndex, lastLeafNode) : null;
     }
 
+    /** Same as {@link #findClosest(CharSequence[], int[], Object[], boolean)} in sequential mode. */
+    public void findClosest(CharSequence[] numbers, int[] prefixLengths, @Nullable T[] values) {
+        findClosest(numbers, prefixLengths, values, false);
+    }
+
+    /**
+     * Batch version of {@link #findClosest(String)}. For every number writes the
+     * length of the closest prefix and its value to the corresponding element
+     * of the caller-provided arrays, or 0 and null if there's no match. Unlike
+     * the former, it doesn't allocate any objects per lookup and doesn't validate
+     * the input: lookup just stops at the first non-digit character, null
+     * numbers have no match.
+     *
+     * @param parallel whether to split the batch into chunks processed by
+     *                 the common fork-join pool, the trie must not be modified
+     *                 until method returns
+     */
+    public void findClosest(CharSequence[] numbers, int[] prefixLengths, @Nullable T[] values, boolean parallel) {
+        Objects.requireNonNull(numbers, "numbers");
+        BatchLookup.checkBatch(numbers.length, prefixLengths, values);
+
+        BatchLookup.forEachRange(numbers.length, parallel, (from, to) -> {
+            var match = new Match<T>();
+            for (int i = from; i < to; i++) {
+                match(numbers[i], match);
+                prefixLengths[i] = match.length;
+                values[i] = match.value;
+            }
+        });
+    }
+
+    /** Same as {@link #findClosest(long[], int[], Object[], boolean)} in sequential mode. */
+    public void findClosest(long[] numbers, int[] prefixLengths, @Nullable T[] values) {
+        findClosest(numbers, prefixLengths, values, false);
+    }
+
+    /**
+     * Same as {@link #findClosest(CharSequence[], int[], Object[], boolean)}, but
+     * numbers are represented by their decimal digits, e.g. 79161234567L. Note,
+     * that leading zeroes can't be represented this way. Negative numbers have
+     * no match.
+     */
+    public void findClosest(long[] numbers, int[] prefixLengths, @Nullable T[] values, boolean parallel) {
+        Objects.requireNonNull(numbers, "numbers");
+        BatchLookup.checkBatch(numbers.length, prefixLengths, values);
+
+        BatchLookup.forEachRange(numbers.length, parallel, (from, to) -> {
+            var match = new Match<T>();
+            for (int i = from; i < to; i++) {
+                match(numbers[i], match);
+                prefixLengths[i] = match.length;
+                values[i] = match.value;
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #findClosest(CharSequence[], int[], Object[], boolean)}, but
+     * passes lookup results to the consumer. Parallel streams are supported,
+     * the consumer is called concurrently then.
+     */
+    public void findClosest(Stream<? extends CharSequence> numbers, MatchConsumer<T> consumer) {
+        Objects.requireNonNull(numbers, "numbers");
+        Objects.requireNonNull(consumer, "consumer");
+
+        ThreadLocal<Match<T>> matches = ThreadLocal.withInitial(Match::new);
+        numbers.forEach(number -> {
+            Match<T> match = matches.get();
+            match(number, match);
+            consumer.accept(number, match.length, match.value);
+        });
+    }
+
+    private void match(@Nullable CharSequence number, Match<T> match) {
+        match.reset();
+        if (number == null) { return; }
+
+        Node<T> node = root;
+        for (int i = 0; i < number.length(); i++) {
+            int numeral = BatchLookup.numeral(number.charAt(i));
+            if (numeral < 0) { break; }
+
+            node = node.getChild(numeral);
+            if (node == null) { break; }
+            if (node.isLeaf()) { match.set(i + 1, node.getValue()); }
+        }
+    }
+
+    private void match(long number, Match<T> match) {
+        match.reset();
+        if (number < 0) { return; }
+
+        int digitCount = BatchLookup.digitCount(number);
+        Node<T> node = root;
+        for (int i = 0; i < digitCount; i++) {
+            node = node.getChild(BatchLookup.numeralAt(number, digitCount, i));
+            if (node == null) { break; }
+            if (node.isLeaf()) { match.set(i + 1, node.getValue()); }
+        }
+    }
+
     /**
      * Returns trie element that has exact match with the specified
      * string or if no matches found.
@@ -307,6 +408,15 @@ public final class PrefixTrie<T> implements Iterable<PrefixTrie.Entry<T>> {
         return root.isEmpty();
     }
 
+    /**
+     * Returns immutable snapshot of the current trie state, that can be safely
+     * queried from multiple threads. Subsequent modifications of this trie
+     * don't affect the snapshot. See also {@link CopyOnWritePrefixTrie}.
+     */
+    public FrozenPrefixTrie<T> freeze() {
+        return FrozenPrefixTrie.copyOf(this);
+    }
+
     @Override
     public @NotNull Iterator<Entry<T>> iterator() {
         return new PrefixTrieIterator<>(this);
@@ -354,7 +464,7 @@ public final class PrefixTrie<T> implements Iterable<PrefixTrie.Entry<T>> {
         }
     }
 
-    private int getNumeralAt(String digits, int index) {
+    static int getNumeralAt(String digits, int index) {
         int numeral = Character.digit(digits.charAt(index), 10);
         if (numeral < 0 || numeral > 9) {
             throw new IllegalArgumentException("Invalid char: " + "'" + digits.charAt(index) + "' at index " + index);
@@ -406,6 +516,34 @@ public final class PrefixTrie<T> implements Iterable<PrefixTrie.Entry<T>> {
         }
     }
 
+    /** Receives batch lookup results, see {@link #findClosest(Stream, MatchConsumer)}. */
+    @FunctionalInterface
+    public interface MatchConsumer<T> {
+
+        /**
+         * @param number       the number as it was passed to the lookup
+         * @param prefixLength the length of the closest prefix or 0 if there's no match
+         * @param value        the value of the closest prefix or null if there's no match
+         */
+        void accept(@Nullable CharSequence number, int prefixLength, @Nullable T value);
+    }
+
+    // Mutable lookup result, reused by the batch lookups to avoid allocations.
+    private static final class Match<T> {
+
+        int length;
+        @Nullable T value;
+
+        void set(int length, @Nullable T value) {
+            this.length = length;
+            this.value = value;
+        }
+
+        void reset() {
+            set(0, null);
+        }
+    }
+
     // Represent internal trie node.
     private static final class Node<T> {
 
@@ -0,0 +1,275 @@
+package corf.base.collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Binary file format for the {@link FrozenPrefixTrie}. Trie structure is
+ * stored exactly as it's represented in memory, so that a file can be either
+ * loaded without replaying insertions or memory-mapped and queried in place.
+ * <p>
+ * All numbers are little-endian. File layout:
+ * <pre>
+ * header (48 bytes):
+ *   int   magic           "CPTR"
+ *   int   version
+ *   int   size            the number of prefixes
+ *   int   nodeCount
+ *   int   childTableLength
+ *   int   valueCount
+ *   long  valuesLength    the value table length in bytes
+ *   long  checksum        CRC32 of everything after header
+ *   long  reserved
+ * body:
+ *   int[nodeCount]        children block index of each node
+ *   int[nodeCount]        value index of each node
+ *   int[childTableLength] child table
+ *   value table           (int length, byte[length]) per value, length is -1 for null
+ * </pre>
+ * The values are decoded by the {@link ValueCodec} on loading, since trie
+ * values are deduplicated, the value table is usually small.
+ */
+public final class PrefixTrieFile {
+
+    public static final int MAGIC = 0x52545043; // "CPTR" in little-endian
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 48;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NULL_LENGTH = -1;
+
+    private PrefixTrieFile() {
+        // utility class
+    }
+
+    /** Converts trie values to bytes and vice versa. */
+    public interface ValueCodec<T> {
+
+        byte[] encode(T value);
+
+        T decode(byte[] bytes);
+
+        static <T> ValueCodec<T> of(Function<T, byte[]> encoder, Function<byte[], T> decoder) {
+            Objects.requireNonNull(encoder, "encoder");
+            Objects.requireNonNull(decoder, "decoder");
+
+            return new ValueCodec<>() {
+                @Override
+                public byte[] encode(T value) {
+                    return encoder.apply(value);
+                }
+
+                @Override
+                public T decode(byte[] bytes) {
+                    return decoder.apply(bytes);
+                }
+            };
+        }
+
+        static ValueCodec<String> utf8() {
+            return of(s -> s.getBytes(StandardCharsets.UTF_8), b -> new String(b, StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Writes trie to the specified file, existing file will be overwritten. */
+    public static <T> void write(FrozenPrefixTrie<T> trie, Path path, ValueCodec<T> codec) throws IOException {
+        Objects.requireNonNull(trie, "trie");
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(codec, "codec");
+
+        try (var channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            var writer = new BodyWriter(channel);
+            channel.position(HEADER_SIZE);
+
+            writer.writeInts(trie.blocks());
+            writer.writeInts(trie.valueIndices());
+            writer.writeInts(trie.childTable());
+
+            long valuesStart = writer.position();
+            @Nullable Object[] values = trie.values();
+            for (Object value : values) {
+                @SuppressWarnings("unchecked")
+                byte[] bytes = value != null ? codec.encode((T) value) : null;
+                writer.writeInt(bytes != null ? bytes.length : NULL_LENGTH);
+                if (bytes != null) { writer.writeBytes(bytes); }
+            }
+            writer.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(trie.size())
+                    .putInt(trie.blocks().limit())
+                    .putInt(trie.childTable().limit())
+                    .putInt(values.length)
+                    .putLong(writer.position() - valuesStart)
+                    .putLong(writer.crc.getValue())
+                    .putLong(0)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /** Loads trie from the specified file to the heap. */
+    public static <T> FrozenPrefixTrie<T> read(Path path, ValueCodec<T> codec) throws IOException {
+        FrozenPrefixTrie<T> mapped = map(path, codec, true);
+        return new FrozenPrefixTrie<>(
+                copy(mapped.blocks()),
+                copy(mapped.valueIndices()),
+                copy(mapped.childTable()),
+                mapped.values(),
+                mapped.size()
+        );
+    }
+
+    /**
+     * Maps the specified file to memory. The trie is queried directly from the
+     * mapped file, only values are loaded to the heap. The file must not be
+     * modified while the trie is in use.
+     *
+     * @param verifyChecksum whether to read the whole file once to verify its
+     *                       checksum, it's recommended unless the file has
+     *                       been verified before
+     */
+    public static <T> FrozenPrefixTrie<T> map(Path path,
+                                              ValueCodec<T> codec,
+                                              boolean verifyChecksum) throws IOException {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(codec, "codec");
+
+        ByteBuffer buf;
+        try (var channel = FileChannel.open(path, READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) { throw invalidFormat(path, "file is too short"); }
+            if (fileSize > Integer.MAX_VALUE) { throw invalidFormat(path, "file is too large"); }
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int magic = buf.getInt(0);
+        int version = buf.getInt(4);
+        int size = buf.getInt(8);
+        int nodeCount = buf.getInt(12);
+        int childTableLength = buf.getInt(16);
+        int valueCount = buf.getInt(20);
+        long valuesLength = buf.getLong(24);
+        long checksum = buf.getLong(32);
+
+        if (magic != MAGIC) { throw invalidFormat(path, "unknown file type"); }
+        if (version != VERSION) { throw invalidFormat(path, "unsupported version " + version); }
+
+        long blocksStart = HEADER_SIZE;
+        long valueIndicesStart = blocksStart + (long) nodeCount * Integer.BYTES;
+        long childTableStart = valueIndicesStart + (long) nodeCount * Integer.BYTES;
+        long valuesStart = childTableStart + (long) childTableLength * Integer.BYTES;
+
+        if (size < 0 || nodeCount < 1 || childTableLength < 0 || childTableLength % FrozenPrefixTrie.RADIX != 0
+                || valueCount < 0 || valuesLength < 0 || valuesStart + valuesLength != buf.capacity()) {
+            throw invalidFormat(path, "file is truncated or corrupted");
+        }
+
+        if (verifyChecksum) {
+            var crc = new CRC32();
+            crc.update(buf.slice(HEADER_SIZE, buf.capacity() - HEADER_SIZE));
+            if (crc.getValue() != checksum) { throw invalidFormat(path, "checksum mismatch"); }
+        }
+
+        @Nullable Object[] values = new Object[valueCount];
+        ByteBuffer valueTable = buf.slice((int) valuesStart, (int) valuesLength).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < valueCount; i++) {
+            if (valueTable.remaining() < Integer.BYTES) { throw invalidFormat(path, "value table is truncated"); }
+
+            int length = valueTable.getInt();
+            if (length == NULL_LENGTH) { continue; }
+            if (length < 0 || length > valueTable.remaining()) {
+                throw invalidFormat(path, "value table is corrupted");
+            }
+
+            byte[] bytes = new byte[length];
+            valueTable.get(bytes);
+            values[i] = codec.decode(bytes);
+        }
+
+        return new FrozenPrefixTrie<>(
+                ints(buf, blocksStart, nodeCount),
+                ints(buf, valueIndicesStart, nodeCount),
+                ints(buf, childTableStart, childTableLength),
+                values,
+                size
+        );
+    }
+
+    private static IntBuffer ints(ByteBuffer buf, long offset, int length) {
+        return buf.slice((int) offset, length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static IntBuffer copy(IntBuffer src) {
+        int[] dst = new int[src.limit()];
+        src.get(0, dst);
+        return IntBuffer.wrap(dst);
+    }
+
+    private static IOException invalidFormat(Path path, String reason) {
+        return new IOException("Invalid prefix trie file '" + path + "': " + reason);
+    }
+
+    private static final class BodyWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        private long written;
+
+        public BodyWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // the number of bytes written, including buffered ones
+        public long position() {
+            return written + buf.position();
+        }
+
+        public void writeInts(IntBuffer src) throws IOException {
+            for (int i = 0; i < src.limit(); i++) {
+                writeInt(src.get(i));
+            }
+        }
+
+        public void writeInt(int value) throws IOException {
+            if (buf.remaining() < Integer.BYTES) { flush(); }
+            buf.putInt(value);
+        }
+
+        public void writeBytes(byte[] bytes) throws IOException {
+            for (int pos = 0; pos < bytes.length; ) {
+                if (!buf.hasRemaining()) { flush(); }
+                int n = Math.min(buf.remaining(), bytes.length - pos);
+                buf.put(bytes, pos, n);
+                pos += n;
+            }
+        }
+
+        public void flush() throws IOException {
+            buf.flip();
+            crc.update(buf.duplicate());
+            written += buf.remaining();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            buf.clear();
+        }
+    }
+}
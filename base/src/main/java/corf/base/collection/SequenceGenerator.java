@@ -4,6 +4,9 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Generates list of maps each entry of which contains a value calculated
@@ -35,7 +38,7 @@ import java.util.function.BiFunction;
  * ]
  * </pre>
  */
-public class SequenceGenerator<ID, V> {
+public class SequenceGenerator<ID, V> implements Iterable<Map<ID, V>> {
 
     private final List<Rule<ID>> rules;
 
@@ -46,59 +49,202 @@ public class SequenceGenerator<ID, V> {
     // * V - calculated output value
     private final BiFunction<ID, Double, V> converter;
 
-    private final Map<ID, V> valuesAccumulator = new HashMap<>();
-
     public SequenceGenerator(List<Rule<ID>> rules,
                              BiFunction<ID, Double, V> converter) {
-        this.rules = Objects.requireNonNull(rules, "rules");
+        this.rules = List.copyOf(Objects.requireNonNull(rules, "rules"));
         this.converter = Objects.requireNonNull(converter, "converter");
     }
 
+    /**
+     * Generates the whole sequence at once. Prefer {@link #stream()} for
+     * the large sequences, it doesn't hold all values in memory.
+     */
     public List<Map<ID, V>> generate() {
         if (rules.isEmpty()) { return Collections.emptyList(); }
+        return stream().toList();
+    }
 
-        List<Map<ID, V>> sequence = new ArrayList<>();
-        iterate(Objects.requireNonNull(nextRule(null)), sequence);
+    /** Returns the number of elements in the sequence. */
+    public long size() {
+        return getExpectedSize(rules);
+    }
 
-        return Collections.unmodifiableList(sequence);
+    /**
+     * Returns the lazy sequence stream. Elements are computed on demand
+     * using odometer-like counters: the last rule changes the fastest.
+     * The stream can be split for parallel processing, element order
+     * is preserved.
+     *
+     * @throws IllegalStateException if the sequence size exceeds {@link Long#MAX_VALUE}
+     */
+    public Stream<Map<ID, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
+    @Override
+    public Iterator<Map<ID, V>> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Traverses the sequence without allocating anything per element, which
+     * makes it preferable to {@link #stream()} for bulk consumers. Rule values
+     * are passed to the visitor as raw numbers, in the rules order, and the
+     * converter isn't applied. The same values array is reused for every
+     * element, so visitor must not retain it.
+     *
+     * @throws IllegalStateException if the sequence size exceeds {@link Long#MAX_VALUE}
+     */
+    public void visit(ValuesVisitor visitor) {
+        Objects.requireNonNull(visitor, "visitor");
+
+        long size = size();
+        if (rules.isEmpty() || size == 0) { return; }
+        if (size == Long.MAX_VALUE) {
+            throw new IllegalStateException("Sequence is too large");
+        }
+        new SequenceSpliterator(0, size).visitRemaining(visitor);
+    }
+
+    /** Returns the sequence rules. Their order matches the {@link ValuesVisitor} values order. */
+    public List<Rule<ID>> getRules() {
+        return rules;
+    }
+
+    /** See {@link #stream()}. */
+    @Override
+    public Spliterator<Map<ID, V>> spliterator() {
+        long size = size();
+        if (rules.isEmpty() || size == 0) { return Spliterators.emptySpliterator(); }
+        if (size == Long.MAX_VALUE) {
+            throw new IllegalStateException("Sequence is too large");
+        }
+        return new SequenceSpliterator(0, size);
+    }
+
+    /**
+     * Returns the number of elements in the sequence generated by the given rules
+     * or {@link Long#MAX_VALUE} if it's too large to be represented by long.
+     */
     public static <ID> long getExpectedSize(List<Rule<ID>> rules) {
-        return rules.stream()
-                .map(r -> r.count)
-                .reduce(1, (a, b) -> a * b);
+        long size = 1;
+        for (Rule<ID> rule : rules) {
+            if (rule.count <= 0) { return 0; }
+            try {
+                size = Math.multiplyExact(size, rule.count);
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return size;
     }
 
-    private void iterate(Rule<ID> currentRule, List<Map<ID, V>> sequenceAccumulator) {
-        ID id = currentRule.id;
-        double value = currentRule.start;
-        Rule<ID> nextRule = nextRule(currentRule);
-
-        for (int idx = 0; idx < currentRule.count; idx++) {
-            // there's no need to create a new map to accumulate values,
-            // because by the end of the recursion cycle all old values
-            // will be replaced to the new ones anyway
-            valuesAccumulator.put(currentRule.id, converter.apply(id, value));
-
-            // if next rule is not null, go deeper to fill values accumulator
-            if (nextRule != null) {
-                iterate(nextRule, sequenceAccumulator);
-            } else {
-                // otherwise, dump values accumulator to resulting sequence
-                sequenceAccumulator.add(new HashMap<>(valuesAccumulator));
+    // Covers the sequence range [index, end). Each spliterator owns its counters
+    // state, so that split parts can be traversed concurrently.
+    private final class SequenceSpliterator implements Spliterator<Map<ID, V>> {
+
+        private final int[] counters = new int[rules.size()];
+        private long index;
+        private final long end;
+
+        public SequenceSpliterator(long index, long end) {
+            this.index = index;
+            this.end = end;
+            resetCounters();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map<ID, V>> action) {
+            if (index >= end) { return false; }
+
+            action.accept(current());
+            advance();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Map<ID, V>> action) {
+            while (index < end) {
+                action.accept(current());
+                advance();
+            }
+        }
+
+        @Override
+        public @Nullable Spliterator<Map<ID, V>> trySplit() {
+            long mid = index + (end - index) / 2;
+            if (mid <= index) { return null; }
+
+            var prefix = new SequenceSpliterator(index, mid);
+            index = mid;
+            resetCounters();
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+
+        public void visitRemaining(ValuesVisitor visitor) {
+            var values = new double[counters.length];
+            while (index < end) {
+                for (int i = 0; i < counters.length; i++) {
+                    values[i] = valueAt(i);
+                }
+                if (!visitor.visit(values)) { return; }
+                advance();
             }
+        }
 
-            value = value + currentRule.step;
+        private Map<ID, V> current() {
+            var values = new HashMap<ID, V>(counters.length * 2);
+            for (int i = 0; i < counters.length; i++) {
+                Rule<ID> rule = rules.get(i);
+                values.put(rule.id, converter.apply(rule.id, valueAt(i)));
+            }
+            return values;
+        }
+
+        private double valueAt(int ruleIndex) {
+            Rule<ID> rule = rules.get(ruleIndex);
+            return rule.start + (double) rule.step * counters[ruleIndex];
+        }
+
+        private void advance() {
+            index++;
+            for (int i = counters.length - 1; i >= 0; i--) {
+                if (++counters[i] < rules.get(i).count) { return; }
+                counters[i] = 0;
+            }
         }
-    }
 
-    private @Nullable SequenceGenerator.Rule<ID> nextRule(@Nullable Rule<ID> currentRule) {
-        // next rule is current rule + 1 or null if there's no next rule
-        if (currentRule == null) {
-            return rules.get(0);
+        // decomposes the current index to mixed-radix digits
+        private void resetCounters() {
+            long remainder = index;
+            for (int i = counters.length - 1; i >= 0; i--) {
+                int count = rules.get(i).count;
+                counters[i] = (int) (remainder % count);
+                remainder /= count;
+            }
         }
-        int currentIndex = rules.indexOf(currentRule);
-        return currentIndex < rules.size() - 1 ? rules.get(currentIndex + 1) : null;
+    }
+
+    @FunctionalInterface
+    public interface ValuesVisitor {
+
+        /**
+         * Accepts the next sequence element, where {@code values[i]} is the value
+         * of the i-th rule.
+         *
+         * @return {@code false} to stop the traversal
+         */
+        boolean visit(double[] values);
     }
 
     public static class Rule<ID> {
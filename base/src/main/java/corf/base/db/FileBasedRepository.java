@@ -1,34 +1,69 @@
 package corf.base.db;
 
 import org.jetbrains.annotations.Nullable;
+import corf.base.collection.PersistentHashMap;
 import corf.base.exception.AppException;
 import corf.base.i18n.M;
 import corf.base.io.Serializer;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static corf.base.i18n.I18n.t;
-
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * In-memory repository that is loaded from and saved to a file as a whole.
+ * Repository content, including indexes, is an immutable version built on
+ * top of {@link PersistentHashMap}. Writers are serialized, each of them
+ * derives the new version from the current one and publishes it atomically.
+ * Readers never block and each read operation observes a single consistent
+ * version, e.g. {@link #getAll()} never returns half of the batch added with
+ * {@link #addAll(Collection)}. Besides ID lookups, subclasses can declare
+ * secondary indexes via {@link #createIndex(Function)} and query them with
+ * {@link #findAllBy(Index, Object)} or {@link #findAllMatching(Index, Predicate)}
+ * instead of scanning all entities.
+ *
+ * <p>By default, repository is persisted with {@link #save(OutputStream, Serializer)}
+ * as a whole. For the large repositories see {@link #openJournal(Path, Serializer, Executor)}.
+ */
 public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Serializable>
         implements EntityRepository<T, ID> {
 
-    protected Map<ID, T> repository = new HashMap<>();
+    private static final System.Logger LOGGER = System.getLogger(FileBasedRepository.class.getName());
+
+    private final Object writeLock = new Object();
+    private final List<Index<?>> indexes = new ArrayList<>();
+    private volatile State<T, ID> state = new State<>(PersistentHashMap.empty(), List.of());
+    // Transactions begun by each thread, the lists are guarded by the write lock.
+    // Transaction that has been dropped without commit can't be rolled back anymore,
+    // so it's referenced weakly, which releases its version and tracked IDs.
+    private final ThreadLocal<List<WeakReference<Transaction>>> activeTransactions =
+            ThreadLocal.withInitial(ArrayList::new);
 
-    // always use single Transaction object (or pool) to avoid inner class memory leak
-    private @Nullable Transaction transaction;
+    private final Object compactionLock = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile @Nullable Journal<T> journal;
+    private volatile @Nullable Executor compactionExecutor;
 
     @Override
     public List<T> getAll() {
-        return new ArrayList<>(repository.values());
+        return state.entities().values();
     }
 
     @Override
     public long count() {
-        return repository.size();
+        return state.entities().size();
     }
 
     @Override
@@ -43,12 +78,12 @@ public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Se
 
     @Override
     public Optional<T> findById(ID id) {
-        return Optional.ofNullable(repository.get(id));
+        return Optional.ofNullable(state.entities().get(id));
     }
 
     @Override
     public boolean containsId(ID id) {
-        return repository.containsKey(id);
+        return state.entities().containsKey(id);
     }
 
     @Override
@@ -67,32 +102,67 @@ public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Se
     public void addAll(Collection<T> entities) {
         if (entities.isEmpty()) { return; }
 
-        entities.forEach(entity -> {
-            requireNotEmptyFields(entity);
-            requireUniqueFields(entity);
-        });
+        synchronized (writeLock) {
+            entities.forEach(entity -> {
+                requireNotEmptyFields(entity);
+                requireUniqueFields(entity);
+            });
 
-        for (T entity : entities) {
-            repository.putIfAbsent(entity.getId(), entity.copy()); // ignore entities with duplicate ID
+            State<T, ID> newState = state;
+            var added = new ArrayList<T>(entities.size());
+            for (T entity : entities) {
+                if (newState.entities().containsKey(entity.getId())) { continue; } // ignore entities with duplicate ID
+
+                T copy = entity.copy();
+                newState = put(newState, copy);
+                added.add(copy);
+            }
+
+            writeJournal(Journal.OP_PUT, added);
+            recordChanges(added);
+            state = newState;
         }
     }
 
     @Override
     public void update(T entity) {
         requireNotEmptyFields(entity);
-        repository.replace(entity.getId(), entity.copy());
+        synchronized (writeLock) {
+            if (!state.entities().containsKey(entity.getId())) { return; }
+
+            T copy = entity.copy();
+            State<T, ID> newState = put(state, copy);
+            writeJournal(Journal.OP_PUT, List.of(copy));
+            recordChanges(List.of(copy));
+            state = newState;
+        }
     }
 
     @Override
     public void removeById(ID id) {
-        repository.remove(id);
+        removeAllById(List.of(id));
     }
 
     @Override
     public void removeAllById(Collection<ID> ids) {
         if (ids.isEmpty()) { return; }
         ids.forEach(Objects::requireNonNull);
-        repository.keySet().removeAll(ids);
+        synchronized (writeLock) {
+            State<T, ID> newState = state;
+            var removed = new ArrayList<T>();
+            for (ID id : ids) {
+                T entity = newState.entities().get(id);
+                if (entity == null) { continue; }
+
+                newState = remove(newState, entity);
+                removed.add(entity);
+            }
+            if (removed.isEmpty()) { return; }
+
+            writeJournal(Journal.OP_REMOVE, removed);
+            recordChanges(removed);
+            state = newState;
+        }
     }
 
     @Override
@@ -111,7 +181,247 @@ public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Se
 
     @Override
     public void clear() {
-        repository = new HashMap<>();
+        synchronized (writeLock) {
+            writeJournal(Journal.OP_RESET, List.of());
+            recordReset();
+            state = reset(List.of());
+        }
+    }
+
+    /**
+     * Returns all entities which index key is equal to the given one.
+     * Unlike {@link #getAll()} it doesn't touch any other entities.
+     */
+    public <K> List<T> findAllBy(Index<K> index, K key) {
+        Objects.requireNonNull(key, "key");
+        PersistentHashMap<ID, T> entities = index.entries(state).get(key);
+        return entities != null ? entities.values() : new ArrayList<>();
+    }
+
+    /**
+     * Returns all entities which index key matches the predicate. The predicate
+     * is tested once per distinct key, not per entity, e.g. templates with
+     * the same name are checked only once.
+     */
+    public <K> List<T> findAllMatching(Index<K> index, Predicate<? super K> keyPredicate) {
+        Objects.requireNonNull(keyPredicate, "keyPredicate");
+        var result = new ArrayList<T>();
+        index.entries(state).forEach((key, entities) -> {
+            if (keyPredicate.test(key)) { result.addAll(entities.values()); }
+        });
+        return result;
+    }
+
+    /** Same as {@link #findAllBy(Index, Object)}, but returns the first found entity only. */
+    public <K> Optional<T> findFirstBy(Index<K> index, K key) {
+        return findAllBy(index, key).stream().findFirst();
+    }
+
+    /** Checks whether any entity has the given index key. */
+    public <K> boolean containsKey(Index<K> index, K key) {
+        Objects.requireNonNull(key, "key");
+        return index.entries(state).containsKey(key);
+    }
+
+    /** Returns unmodifiable set of all distinct index keys. */
+    public <K> Set<K> getKeys(Index<K> index) {
+        return Set.copyOf(index.entries(state).keys());
+    }
+
+    /**
+     * Declares secondary index. Indexes are meant to be created in subclass
+     * constructor or field initializers and are maintained by all modifying
+     * operations afterwards. Entities with {@code null} key aren't indexed.
+     *
+     * @param keyExtractor function that computes index key from the entity,
+     *                     it must depend on the entity fields only
+     */
+    protected <K> Index<K> createIndex(Function<T, K> keyExtractor) {
+        synchronized (writeLock) {
+            var index = new Index<>(indexes.size(), keyExtractor);
+            indexes.add(index);
+            state = withAllIndexes(state);
+            return index;
+        }
+    }
+
+    /**
+     * Switches repository to the journal mode. Current content is replaced
+     * with the snapshot file content and all changes recorded in the journal
+     * since the snapshot has been written. After that, each change is appended
+     * to the journal as a small record before it's applied, and the journal
+     * is compacted into a new snapshot in the background from time to time.
+     * Thus, the persistence cost depends on the size of the change rather
+     * than the size of the repository.
+     *
+     * @param snapshotFile the file repository would be saved to without journal,
+     *                     existing file is a valid snapshot
+     * @param serializer   used for both snapshot and journal records
+     * @param executor     used for the background compaction
+     */
+    public void openJournal(Path snapshotFile,
+                            Serializer<Collection<T>> serializer,
+                            Executor executor) throws IOException {
+        Objects.requireNonNull(executor, "executor");
+
+        synchronized (compactionLock) {
+            closeJournal();
+
+            var newJournal = new Journal<>(snapshotFile, serializer);
+            synchronized (writeLock) {
+                state = reset(newJournal.readSnapshot());
+                newJournal.open(this::applyJournalRecord);
+                recordReset();
+                journal = newJournal;
+                compactionExecutor = executor;
+            }
+        }
+
+        syncJournal();
+    }
+
+    /**
+     * Forces all changes to the storage device and schedules background
+     * compaction, if needed. Does nothing unless journal is open.
+     */
+    public void syncJournal() throws IOException {
+        Journal<T> current = journal;
+        if (current == null) { return; }
+
+        current.sync();
+        if (current.isCompactionRequired()) { scheduleCompaction(); }
+    }
+
+    /**
+     * Writes current repository content to the snapshot file and truncates
+     * the journal. Modifications aren't blocked while snapshot is being written.
+     * Does nothing unless journal is open.
+     */
+    public void compactJournal() throws IOException {
+        synchronized (compactionLock) {
+            Journal<T> current;
+            State<T, ID> snapshot;
+            synchronized (writeLock) {
+                current = journal;
+                if (current == null) { return; }
+
+                snapshot = state;
+                current.rotate();
+            }
+            current.writeSnapshot(snapshot.entities().values());
+        }
+    }
+
+    public void closeJournal() throws IOException {
+        synchronized (compactionLock) {
+            synchronized (writeLock) {
+                Journal<T> current = journal;
+                if (current == null) { return; }
+                try {
+                    current.close();
+                } finally {
+                    journal = null;
+                    compactionExecutor = null;
+                }
+            }
+        }
+    }
+
+    public boolean isJournalOpen() {
+        return journal != null;
+    }
+
+    private void scheduleCompaction() {
+        Executor executor = compactionExecutor;
+        if (executor == null || !compacting.compareAndSet(false, true)) { return; }
+
+        executor.execute(() -> {
+            try {
+                compactJournal();
+            } catch (Exception e) {
+                // rotated journal is kept, so nothing is lost, compaction will be retried after next sync
+                LOGGER.log(WARNING, "Unable to compact repository journal", e);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    private void writeJournal(byte op, Collection<T> entities) {
+        Journal<T> current = journal;
+        if (current == null) { return; }
+        try {
+            current.append(op, entities);
+        } catch (IOException e) {
+            throw new AppException(t(M.MGG_UNABLE_TO_SAVE_DATA_TO_FILE), e);
+        }
+    }
+
+    // registers changes in all transactions begun by the current thread,
+    // must be called while holding the write lock
+    private void recordChanges(Collection<T> entities) {
+        for (WeakReference<Transaction> ref : activeTransactions.get()) {
+            Transaction transaction = ref.get();
+            if (transaction != null) { entities.forEach(entity -> transaction.changedIds.add(entity.getId())); }
+        }
+    }
+
+    private void recordReset() {
+        for (WeakReference<Transaction> ref : activeTransactions.get()) {
+            Transaction transaction = ref.get();
+            if (transaction != null) { transaction.reset = true; }
+        }
+    }
+
+    private void applyJournalRecord(byte op, Collection<T> entities) {
+        switch (op) {
+            case Journal.OP_PUT -> entities.forEach(entity -> state = put(state, entity));
+            case Journal.OP_REMOVE -> entities.forEach(entity -> {
+                T existing = state.entities().get(entity.getId());
+                if (existing != null) { state = remove(state, existing); }
+            });
+            case Journal.OP_RESET -> state = reset(entities);
+            default -> throw new IllegalStateException("Unknown journal record type: " + op);
+        }
+    }
+
+    // the methods below derive the new version without any validation,
+    // they must be called while holding the write lock
+
+    private State<T, ID> put(State<T, ID> current, T entity) {
+        T previous = current.entities().get(entity.getId());
+        var newIndexes = new ArrayList<>(current.indexes());
+        for (Index<?> index : indexes) {
+            newIndexes.set(index.position, index.put(newIndexes.get(index.position), previous, entity));
+        }
+        return new State<>(current.entities().plus(entity.getId(), entity), newIndexes);
+    }
+
+    private State<T, ID> remove(State<T, ID> current, T entity) {
+        var newIndexes = new ArrayList<>(current.indexes());
+        for (Index<?> index : indexes) {
+            newIndexes.set(index.position, index.remove(newIndexes.get(index.position), entity));
+        }
+        return new State<>(current.entities().minus(entity.getId()), newIndexes);
+    }
+
+    private State<T, ID> reset(Collection<T> entities) {
+        PersistentHashMap<ID, T> newEntities = PersistentHashMap.empty();
+        for (T entity : entities) {
+            newEntities = newEntities.plus(entity.getId(), entity);
+        }
+        return withAllIndexes(new State<>(newEntities, List.of()));
+    }
+
+    // builds indexes that don't exist in the given version yet
+    private State<T, ID> withAllIndexes(State<T, ID> current) {
+        if (current.indexes().size() == indexes.size()) { return current; }
+
+        var newIndexes = new ArrayList<>(current.indexes());
+        for (int i = newIndexes.size(); i < indexes.size(); i++) {
+            newIndexes.add(indexes.get(i).build(current.entities()));
+        }
+        return new State<>(current.entities(), newIndexes);
     }
 
     public void load(InputStream inputStream, Serializer<Collection<T>> serializer) {
@@ -122,16 +432,52 @@ public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Se
         serializer.serialize(outputStream, getAll());
     }
 
-    public Transaction beginTransaction(boolean deepCopy) {
-        transaction = transaction == null ? new Transaction() : transaction;
-        transaction.begin(deepCopy);
-        return transaction;
+    /**
+     * Remembers current repository version, so that all changes made by the
+     * current thread after this call can be rolled back. It costs O(1) regardless
+     * of the repository size, because versions are immutable and share unchanged
+     * data. Any number of transactions can be active at the same time. Rollback
+     * only restores entities changed by the thread that began the transaction,
+     * changes made by other writers in the meantime are kept, unless they
+     * modified the same entities.
+     *
+     * <p>Changes are tracked until the transaction is finished with either
+     * {@link Transaction#commit()} or {@link Transaction#rollback()}, so that
+     * it must be finished as soon as possible, preferably via
+     * {@link Transaction#rollbackOnException(Runnable)}, which does both.
+     * Transaction that is never finished is released by GC after it becomes
+     * unreachable, but keeps tracking changes until then.
+     */
+    public Transaction beginTransaction() {
+        synchronized (writeLock) {
+            List<WeakReference<Transaction>> owner = activeTransactions.get();
+            owner.removeIf(ref -> ref.get() == null);
+
+            var transaction = new Transaction(state, null, owner);
+            owner.add(new WeakReference<>(transaction));
+            return transaction;
+        }
+    }
+
+    /**
+     * Same as {@link #beginTransaction()}. Deep copy isn't needed anymore,
+     * because stored entities are never modified in place, each modification
+     * replaces them with copies.
+     *
+     * @deprecated unlike before, the transaction must be finished with
+     *         {@link Transaction#commit()} when it succeeds, use {@link #beginTransaction()}
+     */
+    @Deprecated
+    public Transaction beginTransaction(@SuppressWarnings("unused") boolean deepCopy) {
+        return beginTransaction();
     }
 
+    /**
+     * Remembers the state of a single entity, so that only this entity
+     * is restored on rollback.
+     */
     public Transaction beginTransaction(T entity) {
-        transaction = transaction == null ? new Transaction() : transaction;
-        transaction.begin(entity);
-        return transaction;
+        return new Transaction(null, entity.copy(), null);
     }
 
     protected void requireNotEmptyFields(T entity) {
@@ -141,44 +487,98 @@ public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Se
     }
 
     protected void requireUniqueFields(T entity) {
-        if (repository.containsKey(entity.getId())) {
+        if (state.entities().containsKey(entity.getId())) {
             throw new AppException(t(M.MSG_KEY_IS_NOT_UNIQUE, "ID=" + entity.getId()));
         }
     }
 
-    public class Transaction {
+    // Immutable repository version. Index entries are stored in the same order
+    // as indexes have been created and map index key to the matching entities.
+    private record State<T, ID>(PersistentHashMap<ID, T> entities,
+                                List<PersistentHashMap<Object, PersistentHashMap<ID, T>>> indexes) { }
 
-        private static final String TYPE_COLLECTION = "TYPE_COLLECTION";
-        private static final String TYPE_ENTITY = "TYPE_ENTITY";
+    /**
+     * Secondary index that maps some key computed from the entity, e.g. name,
+     * to all entities that have this key.
+     */
+    public final class Index<K> {
 
-        private @Nullable Map<ID, T> backupCollection;
-        private @Nullable T backupEntity;
-        private @Nullable String type;
+        private final int position;
+        private final Function<T, K> keyExtractor;
 
-        @SuppressWarnings("unused")
-        private void begin(boolean deepCopy) {
-            resetPreviousBackup();
+        private Index(int position, Function<T, K> keyExtractor) {
+            this.position = position;
+            this.keyExtractor = Objects.requireNonNull(keyExtractor, "keyExtractor");
+        }
+
+        @SuppressWarnings("unchecked")
+        private PersistentHashMap<K, PersistentHashMap<ID, T>> entries(State<T, ID> current) {
+            return (PersistentHashMap<K, PersistentHashMap<ID, T>>) (Object) current.indexes().get(position);
+        }
+
+        private PersistentHashMap<Object, PersistentHashMap<ID, T>> build(PersistentHashMap<ID, T> entities) {
+            PersistentHashMap<Object, PersistentHashMap<ID, T>> entries = PersistentHashMap.empty();
+            for (T entity : entities.values()) {
+                entries = put(entries, null, entity);
+            }
+            return entries;
+        }
+
+        private PersistentHashMap<Object, PersistentHashMap<ID, T>> put(
+                PersistentHashMap<Object, PersistentHashMap<ID, T>> entries, @Nullable T previous, T entity
+        ) {
+            @Nullable K oldKey = previous != null ? keyExtractor.apply(previous) : null;
+            @Nullable K newKey = keyExtractor.apply(entity);
 
-            // For now only shallow copy is supported.
-            // Deep copy requires some third-party lib to simplify the task (e.g. Kryo).
+            if (oldKey != null && !oldKey.equals(newKey)) {
+                entries = without(entries, oldKey, entity.getId());
+            }
+            if (newKey != null) {
+                PersistentHashMap<ID, T> matching = entries.get(newKey);
+                entries = entries.plus(newKey, (matching != null ? matching : PersistentHashMap.<ID, T>empty())
+                        .plus(entity.getId(), entity));
+            }
+            return entries;
+        }
 
-            backupCollection = new HashMap<>(repository);
-            backupEntity = null;
-            type = TYPE_COLLECTION;
+        private PersistentHashMap<Object, PersistentHashMap<ID, T>> remove(
+                PersistentHashMap<Object, PersistentHashMap<ID, T>> entries, T entity
+        ) {
+            @Nullable K key = keyExtractor.apply(entity);
+            return key != null ? without(entries, key, entity.getId()) : entries;
         }
 
-        private void begin(T entity) {
-            resetPreviousBackup();
-            backupEntity = entity.copy();
-            type = TYPE_ENTITY;
+        private PersistentHashMap<Object, PersistentHashMap<ID, T>> without(
+                PersistentHashMap<Object, PersistentHashMap<ID, T>> entries, Object key, ID id
+        ) {
+            PersistentHashMap<ID, T> matching = entries.get(key);
+            if (matching == null) { return entries; }
+
+            PersistentHashMap<ID, T> newMatching = matching.minus(id);
+            return !newMatching.isEmpty() ? entries.plus(key, newMatching) : entries.minus(key);
         }
+    }
+
+    public class Transaction {
 
-        private void resetPreviousBackup() {
-            backupCollection = null;
-            backupEntity = null;
-            type = null;
+        private final @Nullable State<T, ID> snapshot;
+        private final @Nullable T backupEntity;
+        private final @Nullable List<WeakReference<Transaction>> owner;
+
+        // IDs changed by the owner thread since the transaction has begun,
+        // or all of them, if repository content has been replaced
+        private final Set<ID> changedIds = new HashSet<>();
+        private boolean reset;
+
+        private Transaction(@Nullable State<T, ID> snapshot,
+                            @Nullable T backupEntity,
+                            @Nullable List<WeakReference<Transaction>> owner) {
+            this.snapshot = snapshot;
+            this.backupEntity = backupEntity;
+            this.owner = owner;
         }
 
+        /** Runs the action and commits the transaction or rolls it back, if the action fails. */
         public void rollbackOnException(Runnable runnable) {
             try {
                 runnable.run();
@@ -186,6 +586,12 @@ public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Se
                 doRollback();
                 throw throwable;
             }
+            commit();
+        }
+
+        /** Keeps all changes and stops tracking them. */
+        public void commit() {
+            finish();
         }
 
         public void rollback() {
@@ -193,22 +599,65 @@ public abstract class FileBasedRepository<T extends Entity<T, ID>, ID extends Se
         }
 
         private void doRollback() {
-            Objects.requireNonNull(type, "type");
+            if (snapshot != null) {
+                restore(snapshot);
+                return;
+            }
 
-            switch (type) {
-                case TYPE_COLLECTION -> {
-                    Objects.requireNonNull(backupCollection, "backupCollection");
-                    repository = backupCollection;
-                }
-                case TYPE_ENTITY -> {
-                    if (backupEntity == null) { break; }
+            if (backupEntity == null) { return; }
+
+            if (contains(backupEntity)) {
+                update(backupEntity);
+            } else {
+                add(backupEntity);
+            }
+        }
 
-                    if (contains(backupEntity)) {
-                        update(backupEntity);
-                    } else {
-                        add(backupEntity);
+        private void finish() {
+            if (owner == null) { return; }
+            synchronized (writeLock) {
+                owner.removeIf(ref -> ref.get() == null || ref.get() == this);
+            }
+        }
+
+        // Restores remembered versions of the changed entities. If the content has
+        // been replaced, changed entities are found by comparing versions, which
+        // skips all unchanged data shared by both versions.
+        private void restore(State<T, ID> snapshot) {
+            synchronized (writeLock) {
+                finish();
+
+                State<T, ID> current = state;
+                var restored = new ArrayList<T>();
+                var removed = new ArrayList<T>();
+                PersistentHashMap.DiffConsumer<ID, T> collector = (id, currentEntity, snapshotEntity) -> {
+                    if (snapshotEntity != null) {
+                        restored.add(snapshotEntity);
+                    } else if (currentEntity != null) {
+                        removed.add(currentEntity);
+                    }
+                };
+
+                if (reset) {
+                    current.entities().diff(snapshot.entities(), collector);
+                } else {
+                    for (ID id : changedIds) {
+                        @Nullable T currentEntity = current.entities().get(id);
+                        @Nullable T snapshotEntity = snapshot.entities().get(id);
+                        if (currentEntity != snapshotEntity) { collector.accept(id, currentEntity, snapshotEntity); }
                     }
                 }
+                if (removed.isEmpty() && restored.isEmpty()) { return; }
+
+                State<T, ID> newState = current;
+                for (T entity : removed) { newState = remove(newState, entity); }
+                for (T entity : restored) { newState = put(newState, entity); }
+
+                if (!removed.isEmpty()) { writeJournal(Journal.OP_REMOVE, removed); }
+                if (!restored.isEmpty()) { writeJournal(Journal.OP_PUT, restored); }
+                recordChanges(removed);
+                recordChanges(restored);
+                state = newState;
             }
         }
     }
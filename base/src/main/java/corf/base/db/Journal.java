@@ -0,0 +1,268 @@
+package corf.base.db;
+
+import org.jetbrains.annotations.Nullable;
+import corf.base.io.Serializer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Append-only change log of the {@link FileBasedRepository}. Repository content
+ * is the snapshot file plus all journal records replayed in order. The snapshot
+ * format is defined by the serializer and it's the same file the repository
+ * would be saved to without journal, e.g. "data.yaml". Records are stored next
+ * to it, in the "data.yaml.journal" file.
+ *
+ * <p>Each record is {@code [length:int][crc32:int][op:byte][payload]}, where
+ * length covers op and payload, and payload is the serialized collection of
+ * changed entities. Torn or corrupted tail, which is the result of the
+ * interrupted write, is discarded on open.
+ *
+ * <p>Compaction is split in two steps. {@link #rotate()} moves current journal
+ * aside, so that appends can continue while snapshot is being written. After
+ * the {@link #writeSnapshot(Collection)} the rotated journal is deleted. If
+ * compaction fails in between, rotated journal is replayed before the current
+ * one. Replaying already applied records is harmless, because all operations
+ * overwrite the entity state rather than modify it.
+ *
+ * <p>All methods that access the journal file are synchronized, so that sync
+ * never observes the channel being replaced by the concurrent rotation.
+ * Snapshot is written without holding the lock.
+ */
+final class Journal<T> implements Closeable {
+
+    static final byte OP_PUT = 1;
+    static final byte OP_REMOVE = 2;
+    static final byte OP_RESET = 3;
+
+    // journal is compacted when it grows bigger than the snapshot,
+    // but small journals aren't worth it
+    static final long MIN_COMPACTION_SIZE = 256 * 1024;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path rotatedFile;
+    private final Serializer<Collection<T>> serializer;
+    private volatile @Nullable FileChannel channel;
+    private volatile long snapshotSize;
+
+    Journal(Path snapshotFile, Serializer<Collection<T>> serializer) {
+        this.snapshotFile = Objects.requireNonNull(snapshotFile, "snapshotFile");
+        this.serializer = Objects.requireNonNull(serializer, "serializer");
+
+        String fileName = snapshotFile.getFileName().toString();
+        this.journalFile = snapshotFile.resolveSibling(fileName + ".journal");
+        this.rotatedFile = snapshotFile.resolveSibling(fileName + ".journal.old");
+    }
+
+    @FunctionalInterface
+    interface RecordHandler<T> {
+
+        void apply(byte op, Collection<T> entities);
+    }
+
+    /** Reads snapshot. Missing snapshot means that repository is empty. */
+    Collection<T> readSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) { return List.of(); }
+
+        snapshotSize = Files.size(snapshotFile);
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(snapshotFile))) {
+            Collection<T> entities = serializer.deserialize(inputStream);
+            return entities != null ? entities : List.of();
+        }
+    }
+
+    /**
+     * Replays all records, discards torn tail and opens journal for appending.
+     * Must be called after {@link #readSnapshot()}.
+     */
+    synchronized void open(RecordHandler<T> handler) throws IOException {
+        if (Files.exists(rotatedFile)) {
+            try (var rotated = FileChannel.open(rotatedFile, READ, WRITE)) {
+                rotated.truncate(replay(rotated, handler));
+            }
+        }
+
+        var journal = FileChannel.open(journalFile, CREATE, READ, WRITE);
+        try {
+            long validSize = replay(journal, handler);
+            journal.truncate(validSize);
+            journal.position(validSize);
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        channel = journal;
+    }
+
+    synchronized void append(byte op, Collection<T> entities) throws IOException {
+        FileChannel journal = requireOpen();
+
+        var payload = new ByteArrayOutputStream();
+        serializer.serialize(payload, entities);
+        byte[] bytes = payload.toByteArray();
+
+        var crc = new CRC32();
+        crc.update(op);
+        crc.update(bytes);
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + 1 + bytes.length)
+                .putInt(1 + bytes.length)
+                .putInt((int) crc.getValue())
+                .put(op)
+                .put(bytes)
+                .flip();
+
+        long position = journal.position();
+        try {
+            while (buf.hasRemaining()) { journal.write(buf); }
+        } catch (IOException e) {
+            // don't leave partial record, otherwise all subsequent records will be discarded on replay
+            try {
+                journal.truncate(position);
+                journal.position(position);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /** Forces appended records to the storage device. */
+    synchronized void sync() throws IOException {
+        requireOpen().force(false);
+    }
+
+    synchronized boolean isCompactionRequired() throws IOException {
+        return Files.exists(rotatedFile)
+                || requireOpen().size() > Math.max(MIN_COMPACTION_SIZE, snapshotSize);
+    }
+
+    /**
+     * Moves current journal aside and starts the new one. If there is a rotated
+     * journal left from the failed compaction, current records are appended
+     * to it instead.
+     */
+    synchronized void rotate() throws IOException {
+        FileChannel journal = requireOpen();
+        journal.force(false);
+
+        if (Files.exists(rotatedFile)) {
+            try (var rotated = FileChannel.open(rotatedFile, WRITE, APPEND)) {
+                long size = journal.size();
+                long transferred = 0;
+                while (transferred < size) {
+                    transferred += journal.transferTo(transferred, size - transferred, rotated);
+                }
+                rotated.force(false);
+            }
+            journal.truncate(0);
+            journal.position(0);
+            return;
+        }
+
+        journal.close();
+        channel = null;
+        Files.move(journalFile, rotatedFile);
+        channel = FileChannel.open(journalFile, CREATE_NEW, READ, WRITE);
+    }
+
+    /**
+     * Atomically replaces snapshot file and removes rotated journal, which
+     * records are expected to be included into the new snapshot.
+     */
+    void writeSnapshot(Collection<T> entities) throws IOException {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                serializer.serialize(outputStream, entities);
+            }
+            try (var temp = FileChannel.open(tempFile, WRITE)) {
+                temp.force(true);
+            }
+
+            try {
+                Files.move(tempFile, snapshotFile, REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, snapshotFile, REPLACE_EXISTING);
+            }
+            snapshotSize = Files.size(snapshotFile);
+
+            Files.deleteIfExists(rotatedFile);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private FileChannel requireOpen() throws IOException {
+        FileChannel journal = channel;
+        if (journal == null || !journal.isOpen()) {
+            throw new IOException("Journal is closed: " + journalFile);
+        }
+        return journal;
+    }
+
+    // returns the size of the valid journal part
+    private long replay(FileChannel journal, RecordHandler<T> handler) throws IOException {
+        long size = journal.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (position + HEADER_SIZE < size) {
+            header.clear();
+            readFully(journal, header, position);
+            header.flip();
+
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length < 1 || length > size - position - HEADER_SIZE) { break; }
+
+            ByteBuffer body = ByteBuffer.allocate(length);
+            readFully(journal, body, position + HEADER_SIZE);
+            byte[] bytes = body.array();
+
+            var crc = new CRC32();
+            crc.update(bytes);
+            if ((int) crc.getValue() != checksum) { break; }
+
+            Collection<T> entities = serializer.deserialize(new ByteArrayInputStream(bytes, 1, length - 1));
+            handler.apply(bytes[0], entities != null ? entities : new ArrayList<>());
+
+            position += HEADER_SIZE + length;
+        }
+
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) { throw new EOFException(); }
+        }
+    }
+}
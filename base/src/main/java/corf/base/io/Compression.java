@@ -0,0 +1,69 @@
+package corf.base.io;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stream compression formats. Both gzip and bzip2 allow to concatenate
+ * compressed streams, so data can be appended to the existing file by
+ * simply writing a new compressed stream to its end.
+ */
+public enum Compression {
+
+    NONE(""),
+    GZIP(".gz"),
+    BZIP2(".bz2");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    /** Returns file extension including the leading dot or empty string if there's no compression. */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Wraps output stream into the compressor stream. Compressed data stream
+     * is finished when the returned stream is closed.
+     */
+    public OutputStream compress(OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out");
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case BZIP2 -> new BZip2CompressorOutputStream(out);
+        };
+    }
+
+    /** Appends compression file extension to the path, unless it's already there. */
+    public Path withExtension(Path path) {
+        Objects.requireNonNull(path, "path");
+
+        String fileName = String.valueOf(path.getFileName());
+        if (extension.isEmpty() || fileName.toLowerCase().endsWith(extension)) { return path; }
+
+        return path.resolveSibling(fileName + extension);
+    }
+
+    /** Detects compression by the file extension. */
+    public static Compression forFile(Path path) {
+        Objects.requireNonNull(path, "path");
+
+        String fileName = String.valueOf(path.getFileName()).toLowerCase();
+        for (var compression : values()) {
+            if (compression != NONE && fileName.endsWith(compression.extension)) { return compression; }
+        }
+
+        return NONE;
+    }
+}
@@ -9,6 +9,7 @@ import org.apache.hc.client5.http.auth.AuthCache;
 import org.apache.hc.client5.http.auth.AuthScope;
 import org.apache.hc.client5.http.auth.CredentialsStore;
 import org.apache.hc.client5.http.classic.methods.*;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.cookie.StandardCookieSpec;
 import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
@@ -20,6 +21,8 @@ import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.BasicHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
@@ -34,20 +37,24 @@ import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.message.BasicHeader;
 import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.PasswordAuthentication;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static java.lang.System.Logger.Level.DEBUG;
 
-public class ApacheHttpClient implements HttpClient {
+public class ApacheHttpClient implements HttpClient, Closeable {
 
     private static final System.Logger LOGGER = System.getLogger(ApacheHttpClient.class.getName());
 
@@ -56,17 +63,28 @@ public class ApacheHttpClient implements HttpClient {
 
     private final HttpClientResponseHandler<Response> handler = new SpecificResponseHandler();
     private final CloseableHttpClient client;
-    private final HttpClientContext localContext;
+    private final @Nullable AuthCache authCache;
+    private final @Nullable PoolingHttpClientConnectionManager connectionPool;
 
-    private ApacheHttpClient(CloseableHttpClient client, HttpClientContext localContext) {
+    private ApacheHttpClient(CloseableHttpClient client,
+                             @Nullable AuthCache authCache,
+                             @Nullable PoolingHttpClientConnectionManager connectionPool) {
         this.client = Objects.requireNonNull(client, "client");
-        this.localContext = Objects.requireNonNull(localContext, "localContext");
+        this.authCache = authCache;
+        this.connectionPool = connectionPool;
     }
 
     @Override
     public Response execute(Request request) {
         Objects.requireNonNull(request, "request");
         try {
+            // Context isn't thread-safe, so it's created for each request. That allows
+            // sharing the same client (and connection pool) between multiple threads.
+            var localContext = HttpClientContext.create();
+            if (authCache != null) {
+                localContext.setAuthCache(authCache);
+            }
+
             HttpUriRequestBase httpRequest = createHttpRequest(request);
             Response response = client.execute(httpRequest, localContext, handler);
 
@@ -81,6 +99,26 @@ public class ApacheHttpClient implements HttpClient {
         }
     }
 
+    /**
+     * Returns connection pool statistics or {@code null} if the client
+     * wasn't configured to use connection pool.
+     */
+    public @Nullable PoolStats getPoolStats() {
+        if (connectionPool == null) { return null; }
+
+        var stats = connectionPool.getTotalStats();
+        return new PoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    @Override
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOGGER.log(DEBUG, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
     private static Header[] mapToHeaders(Map<String, String> headers) {
         return headers.entrySet().stream()
                 .map(e -> new BasicHeader(e.getKey(), e.getValue()))
@@ -131,7 +169,9 @@ public class ApacheHttpClient implements HttpClient {
         private final HttpClientBuilder httpBuilder = HttpClients.custom();
         private final RequestConfig.Builder requestConfigBuilder = RequestConfig.custom();
         private final CredentialsStore credentialsProvider = new BasicCredentialsProvider();
-        private final HttpClientContext localContext = HttpClientContext.create();
+        private @Nullable AuthCache authCache;
+        private @Nullable SSLConnectionSocketFactory sslSocketFactory;
+        private @Nullable PoolOptions poolOptions;
 
         public Builder() {
             requestConfigBuilder
@@ -171,26 +211,28 @@ public class ApacheHttpClient implements HttpClient {
                         .loadTrustMaterial((chain, authType) -> true)
                         .build();
 
-                var sslSocketFactory = new SSLConnectionSocketFactory(
+                sslSocketFactory = new SSLConnectionSocketFactory(
                         sslContext,
                         SUPPORTED_SSL_PROTOCOLS.toArray(new String[0]),
                         null,
                         NoopHostnameVerifier.INSTANCE
                 );
-
-                var connectionManager = new BasicHttpClientConnectionManager(
-                        RegistryBuilder.<ConnectionSocketFactory>create()
-                                .register(URIScheme.HTTP.id, PlainConnectionSocketFactory.getSocketFactory())
-                                .register(URIScheme.HTTPS.id, sslSocketFactory)
-                                .build()
-                );
-
-                httpBuilder.setConnectionManager(connectionManager);
             } catch (Exception ignored) { /* ignore */ }
 
             return this;
         }
 
+        /**
+         * Enables pooled connection manager that keeps connections alive and
+         * allows using the same client from multiple threads. Without a pool
+         * the client holds a single connection, which is only suitable for
+         * sequential requests.
+         */
+        public Builder connectionPool(PoolOptions poolOptions) {
+            this.poolOptions = Objects.requireNonNull(poolOptions, "poolOptions");
+            return this;
+        }
+
         public Builder ignoreCookies() {
             requestConfigBuilder.setCookieSpec(StandardCookieSpec.IGNORE);
             return this;
@@ -227,24 +269,105 @@ public class ApacheHttpClient implements HttpClient {
             if (!preemptive) { return this; }
 
             // BasicAuthCache doesn't mean "for basic auth", it's just a misleading name choice
-            AuthCache authCache = new BasicAuthCache();
+            authCache = new BasicAuthCache();
             HttpHost targetHost = new HttpHost(uri.getHost());
 
             if (authScheme == AuthScheme.BASIC) { authCache.put(targetHost, new BasicScheme()); }
             if (authScheme == AuthScheme.DIGEST) { authCache.put(targetHost, new DigestScheme()); }
 
-            localContext.setAuthCache(authCache);
-
             return this;
         }
 
         public ApacheHttpClient build() {
             httpBuilder.setDefaultRequestConfig(requestConfigBuilder.build());
+
+            PoolingHttpClientConnectionManager connectionPool = null;
+            if (poolOptions != null) {
+                connectionPool = createConnectionPool(poolOptions);
+                httpBuilder.setConnectionManager(connectionPool);
+                httpBuilder.evictExpiredConnections();
+                httpBuilder.evictIdleConnections(TimeValue.of(poolOptions.idleTimeout()));
+            } else if (sslSocketFactory != null) {
+                httpBuilder.setConnectionManager(new BasicHttpClientConnectionManager(
+                        RegistryBuilder.<ConnectionSocketFactory>create()
+                                .register(URIScheme.HTTP.id, PlainConnectionSocketFactory.getSocketFactory())
+                                .register(URIScheme.HTTPS.id, sslSocketFactory)
+                                .build()
+                ));
+            }
+
             CloseableHttpClient httpClient = httpBuilder.build();
-            return new ApacheHttpClient(httpClient, localContext);
+            return new ApacheHttpClient(httpClient, authCache, connectionPool);
+        }
+
+        private PoolingHttpClientConnectionManager createConnectionPool(PoolOptions options) {
+            var poolBuilder = PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(options.maxTotal())
+                    .setMaxConnPerRoute(options.maxPerRoute())
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setTimeToLive(TimeValue.of(options.timeToLive()))
+                            .setValidateAfterInactivity(TimeValue.of(options.validateAfterInactivity()))
+                            .build()
+                    );
+
+            if (sslSocketFactory != null) {
+                poolBuilder.setSSLSocketFactory(sslSocketFactory);
+            }
+
+            return poolBuilder.build();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Connection pool settings.
+     *
+     * @param maxTotal                max number of connections in total
+     * @param maxPerRoute             max number of connections per route (target host)
+     * @param idleTimeout             idle connections are evicted after this period
+     * @param timeToLive              connection is never re-used after this period,
+     *                                no matter whether it's idle or not
+     * @param validateAfterInactivity connection is validated (checked for stale)
+     *                                before re-use if it was idle longer than this period
+     */
+    public record PoolOptions(int maxTotal,
+                              int maxPerRoute,
+                              Duration idleTimeout,
+                              Duration timeToLive,
+                              Duration validateAfterInactivity) {
+
+        public PoolOptions {
+            if (maxTotal < 1 || maxPerRoute < 1) {
+                throw new IllegalArgumentException("Connection limits must be positive.");
+            }
+            Objects.requireNonNull(idleTimeout, "idleTimeout");
+            Objects.requireNonNull(timeToLive, "timeToLive");
+            Objects.requireNonNull(validateAfterInactivity, "validateAfterInactivity");
+        }
+
+        /** Creates pool options suitable for the given number of simultaneous requests. */
+        public static PoolOptions forConcurrency(int concurrency) {
+            return new PoolOptions(
+                    concurrency,
+                    concurrency,
+                    Duration.ofSeconds(30),
+                    Duration.ofMinutes(5),
+                    Duration.ofSeconds(2)
+            );
         }
     }
 
+    /**
+     * Connection pool statistics snapshot.
+     *
+     * @param leased    number of connections in use
+     * @param available number of idle connections, available for re-use
+     * @param pending   number of requests awaiting for a connection
+     * @param max       max number of connections
+     */
+    public record PoolStats(int leased, int available, int pending, int max) { }
+
     ///////////////////////////////////////////////////////////////////////////
 
     static class SpecificResponseHandler implements HttpClientResponseHandler<Response> {
@@ -262,15 +385,25 @@ public class ApacheHttpClient implements HttpClient {
 
     static class CachingProxyRoutePlanner extends DefaultRoutePlanner {
 
+        static final int ROUTE_CACHE_SIZE = 1024;
+
         private final Proxy proxy;
         private final CredentialsStore credentialsStore;
 
-        // routing cache: k = target hostname, v = proxy host or null for direct route
-        private final Map<String, HttpHost> routeCache = new HashMap<>();
+        // routing cache: k = target hostname, v = proxy host or empty for direct route,
+        // least recently used routes are evicted, because target hosts number is unbounded
+        private final Map<String, Optional<HttpHost>> routeCache = Collections.synchronizedMap(
+                new LinkedHashMap<>(64, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Optional<HttpHost>> eldest) {
+                        return size() > ROUTE_CACHE_SIZE;
+                    }
+                }
+        );
 
         // proxy cache to avoid creating multiple equal proxy hosts
         // k = short proxy URI, v = actual proxy host
-        private final Map<String, HttpHost> proxyHostCache = new HashMap<>();
+        private final Map<String, HttpHost> proxyHostCache = new ConcurrentHashMap<>();
 
         public CachingProxyRoutePlanner(Proxy proxy, CredentialsStore credentialsStore) {
             super(new DefaultSchemePortResolver());
@@ -285,16 +418,16 @@ public class ApacheHttpClient implements HttpClient {
             String targetHostname = target.getHostName();
 
             // use route from cache, even if null (direct route)
-            HttpHost cachedRoute = routeCache.get(targetHostname);
+            Optional<HttpHost> cachedRoute = routeCache.get(targetHostname);
             if (cachedRoute != null) {
                 LOGGER.log(DEBUG, "Target host is present in cache, using cached route: " + cachedRoute);
-                return cachedRoute;
+                return cachedRoute.orElse(null);
             }
 
             ConnectionParams proxyParams = proxy.getConnectionParams(targetHostname);
             if (proxyParams == null) {
                 LOGGER.log(DEBUG, "Proxying not required, using direct route");
-                routeCache.put(targetHostname, null);
+                routeCache.put(targetHostname, Optional.empty());
                 return null;
             }
 
@@ -328,7 +461,7 @@ public class ApacheHttpClient implements HttpClient {
                 proxyHostCache.put(proxyKey, proxyHost);
             }
 
-            routeCache.put(targetHostname, proxyHost);
+            routeCache.put(targetHostname, Optional.of(proxyHost));
             LOGGER.log(DEBUG, "Setting " + proxyHost + " as proxy for the connection");
 
             return proxyHost;
@@ -0,0 +1,191 @@
+package corf.base.net;
+
+import inet.ipaddr.HostName;
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressSeqRange;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import corf.base.preferences.Proxy;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled set of host expressions, e.g. proxy exceptions. It matches
+ * exactly the same addresses as {@link Proxy#match(String, String)} applied
+ * to each expression, but parses expressions only once. Matching cost
+ * doesn't depend on the number of expressions for the most common
+ * expression types:
+ * <ul>
+ *     <li>IPv4 addresses, CIDRs and wildcards, e.g. "192.168.*", are merged
+ *     into the sorted range index and looked up with binary search</li>
+ *     <li>hostname suffixes, e.g. "*.example.com", are stored in the trie
+ *     of the reversed domain labels</li>
+ *     <li>exact hostnames are stored in the hash set</li>
+ * </ul>
+ * Any other expressions, like IPv6 or non-suffix hostname globs, are
+ * checked one by one.
+ */
+public final class HostMatcher {
+
+    private static final HostMatcher EMPTY = new HostMatcher(List.of());
+
+    private final Set<String> exact = new HashSet<>();
+    private final IPv4RangeSet ipv4Ranges;
+    private final LabelNode suffixes = new LabelNode();
+    private final List<IPAddress> otherAddresses = new ArrayList<>();
+    private final List<Pattern> otherPatterns = new ArrayList<>();
+
+    private HostMatcher(Collection<String> expressions) {
+        var ipv4RangesBuilder = IPv4RangeSet.builder();
+
+        for (String expression : expressions) {
+            if (StringUtils.isBlank(expression)) { continue; }
+
+            String expressionClean = expression.trim().toLowerCase();
+            exact.add(expressionClean);
+
+            var hostName = new HostName(expressionClean);
+            if (hostName.isAddress()) {
+                IPAddress address = hostName.asAddress();
+                if (address.isIPv4() && address.isSequential()) {
+                    IPAddressSeqRange range = address.toSequentialRange();
+                    ipv4RangesBuilder.addRange(
+                            range.getLower().toIPv4().longValue(),
+                            range.getUpper().toIPv4().longValue()
+                    );
+                } else {
+                    otherAddresses.add(address);
+                }
+                continue;
+            }
+
+            int wildcard = expressionClean.indexOf('*');
+            if (wildcard < 0) { continue; } // exact hostname
+
+            if (expressionClean.startsWith("*.") && expressionClean.indexOf('*', 1) < 0) {
+                addSuffix(expressionClean.substring(2));
+            } else {
+                otherPatterns.add(globToPattern(expressionClean));
+            }
+        }
+
+        ipv4Ranges = ipv4RangesBuilder.build();
+    }
+
+    public static HostMatcher of(Collection<String> expressions) {
+        Objects.requireNonNull(expressions, "expressions");
+        return !expressions.isEmpty() ? new HostMatcher(expressions) : EMPTY;
+    }
+
+    public static HostMatcher empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return exact.isEmpty();
+    }
+
+    /**
+     * Checks whether address matches any of expressions, see {@link Proxy#match(String, String)}.
+     * Like the latter, it doesn't perform DNS resolution.
+     */
+    public boolean matches(@Nullable String address) {
+        if (isEmpty() || StringUtils.isBlank(address)) { return false; }
+
+        String addressClean = address.trim().toLowerCase();
+        if (exact.contains(addressClean)) { return true; }
+
+        // fast path, the most of the time address is either hostname or plain IPv4
+        long ipv4 = IPv4Cidr.tryParseAddress(addressClean);
+        if (ipv4 >= 0) {
+            return ipv4Ranges.contains((int) ipv4)
+                    || (!otherAddresses.isEmpty() && matchesOtherAddresses(new HostName(addressClean)));
+        }
+
+        // something unusual like IPv6, which requires full parsing
+        if (isAddressLike(addressClean)) {
+            var hostName = new HostName(addressClean);
+            if (hostName.isAddress()) {
+                IPAddress ip = hostName.asAddress();
+                if (ip.isIPv4() && !ip.isMultiple() && ipv4Ranges.contains(ip.toIPv4().intValue())) { return true; }
+                return matchesOtherAddresses(hostName);
+            }
+        }
+
+        return matchesSuffix(addressClean) || matchesOtherPatterns(addressClean);
+    }
+
+    @Override
+    public String toString() {
+        return "HostMatcher{" +
+                "exact=" + exact.size() +
+                ", ipv4Ranges=" + ipv4Ranges.rangeCount() +
+                ", otherAddresses=" + otherAddresses.size() +
+                ", otherPatterns=" + otherPatterns.size() +
+                '}';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void addSuffix(String domain) {
+        LabelNode node = suffixes;
+        int end = domain.length();
+        while (end >= 0) {
+            int start = domain.lastIndexOf('.', end - 1);
+            node = node.children.computeIfAbsent(domain.substring(start + 1, end), k -> new LabelNode());
+            end = start;
+        }
+        node.wildcard = true;
+    }
+
+    private boolean matchesSuffix(String hostname) {
+        LabelNode node = suffixes;
+        int end = hostname.length();
+        while (end >= 0 && !node.children.isEmpty()) {
+            int start = hostname.lastIndexOf('.', end - 1);
+            node = node.children.get(hostname.substring(start + 1, end));
+            if (node == null) { return false; }
+
+            // wildcard requires at least one more label, e.g. "*.example.com" doesn't match "example.com"
+            if (node.wildcard && start >= 0) { return true; }
+            end = start;
+        }
+        return false;
+    }
+
+    private boolean matchesOtherAddresses(HostName hostName) {
+        if (otherAddresses.isEmpty() || !hostName.isAddress()) { return false; }
+
+        IPAddress address = hostName.asAddress();
+        for (IPAddress other : otherAddresses) {
+            if (other.contains(address)) { return true; }
+        }
+        return false;
+    }
+
+    private boolean matchesOtherPatterns(String hostname) {
+        for (Pattern pattern : otherPatterns) {
+            if (pattern.matcher(hostname).matches()) { return true; }
+        }
+        return false;
+    }
+
+    private static boolean isAddressLike(String s) {
+        // IPv6 or IPv4 in one of the inet_aton() forms, e.g. "0x7f000001",
+        // hostnames starting with digit are rare, so it's fine to check them twice
+        char c = s.charAt(0);
+        return (c >= '0' && c <= '9') || c == ':' || c == '[' || s.indexOf(':') >= 0;
+    }
+
+    private static Pattern globToPattern(String glob) {
+        return Pattern.compile("^" + Pattern.quote(glob).replace("*", "\\E.*\\Q") + "$");
+    }
+
+    // reversed domain labels trie node, e.g. "com" -> "example"
+    private static final class LabelNode {
+
+        private final Map<String, LabelNode> children = new HashMap<>();
+        private boolean wildcard;
+    }
+}
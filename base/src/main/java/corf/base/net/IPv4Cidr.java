@@ -0,0 +1,260 @@
+package corf.base.net;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Primitive IPv4 engine. Unlike {@link IPv4Network}, it represents a network
+ * as a pair of ints: address and prefix length. All operations are
+ * implemented via bit arithmetic without allocating objects per host or
+ * per subnet, so that it's suitable for the very large networks.
+ * <p>
+ * Addresses are treated as unsigned, e.g. "255.255.255.255" is -1.
+ */
+public final class IPv4Cidr {
+
+    public static final int MAX_PREFIX_LEN = IPv4Network.MAX_PREFIX_LEN;
+
+    private IPv4Cidr() {
+        // utility class
+    }
+
+    /** Receives network address and prefix length. */
+    @FunctionalInterface
+    public interface CidrConsumer {
+
+        void accept(int address, int prefixLength);
+    }
+
+    /** Returns netmask for the given prefix length, e.g. 0xFFFFFF00 for 24. */
+    public static int netmask(int prefixLength) {
+        checkPrefixLength(prefixLength);
+        return prefixLength == 0 ? 0 : -1 << (MAX_PREFIX_LEN - prefixLength);
+    }
+
+    /** Returns the first (zero host) address of the network. */
+    public static int network(int address, int prefixLength) {
+        return address & netmask(prefixLength);
+    }
+
+    /** Returns the last address of the network. */
+    public static int lastAddress(int address, int prefixLength) {
+        return address | ~netmask(prefixLength);
+    }
+
+    /** Returns the number of addresses in the network. */
+    public static long size(int prefixLength) {
+        checkPrefixLength(prefixLength);
+        return 1L << (MAX_PREFIX_LEN - prefixLength);
+    }
+
+    /** See {@link IPv4Network#getMinHost()}. */
+    public static int minHost(int address, int prefixLength) {
+        int network = network(address, prefixLength);
+        return prefixLength >= IPv4Network.LINK_LOCAL_PREFIX_LEN ? network : network + 1;
+    }
+
+    /** See {@link IPv4Network#getMaxHost()}. */
+    public static int maxHost(int address, int prefixLength) {
+        int last = lastAddress(address, prefixLength);
+        return prefixLength >= IPv4Network.LINK_LOCAL_PREFIX_LEN ? last : last - 1;
+    }
+
+    /** See {@link IPv4Network#getUsableHostCount()}. */
+    public static long usableHostCount(int prefixLength) {
+        long size = size(prefixLength);
+        return prefixLength >= IPv4Network.LINK_LOCAL_PREFIX_LEN ? size : size - 2;
+    }
+
+    /** Returns whether the network contains the given address. */
+    public static boolean contains(int network, int prefixLength, int address) {
+        int netmask = netmask(prefixLength);
+        return (network & netmask) == (address & netmask);
+    }
+
+    /** Returns whether the first network contains the second one. */
+    public static boolean contains(int network, int prefixLength, int subnet, int subnetPrefixLength) {
+        return prefixLength <= subnetPrefixLength && contains(network, prefixLength, subnet);
+    }
+
+    /** Returns the number of subnets the network would be split to. */
+    public static long subnetCount(int prefixLength, int subnetBits) {
+        checkPrefixLength(prefixLength + subnetBits);
+        return 1L << subnetBits;
+    }
+
+    /**
+     * Returns the address of the subnet with the given index. It allows to access
+     * any subnet in constant time without enumerating the preceding ones.
+     */
+    public static int subnet(int network, int prefixLength, int subnetBits, long index) {
+        long count = subnetCount(prefixLength, subnetBits);
+        Objects.checkIndex(index, count);
+
+        int hostBits = MAX_PREFIX_LEN - prefixLength - subnetBits;
+        return network(network, prefixLength) | (int) (index << hostBits);
+    }
+
+    /** Passes the address of every subnet to the consumer. */
+    public static void forEachSubnet(int network, int prefixLength, int subnetBits, IntConsumer consumer) {
+        long count = subnetCount(prefixLength, subnetBits);
+        int first = network(network, prefixLength);
+        int hostBits = MAX_PREFIX_LEN - prefixLength - subnetBits;
+        for (long i = 0; i < count; i++) {
+            consumer.accept(first | (int) (i << hostBits));
+        }
+    }
+
+    /** Passes every usable host address of the network to the consumer. */
+    public static void forEachHost(int network, int prefixLength, IntConsumer consumer) {
+        long min = Integer.toUnsignedLong(minHost(network, prefixLength));
+        long max = Integer.toUnsignedLong(maxHost(network, prefixLength));
+        for (long host = min; host <= max; host++) {
+            consumer.accept((int) host);
+        }
+    }
+
+    /** Returns every usable host address of the network as a stream of primitives. */
+    public static IntStream hosts(int network, int prefixLength) {
+        long min = Integer.toUnsignedLong(minHost(network, prefixLength));
+        long max = Integer.toUnsignedLong(maxHost(network, prefixLength));
+        return LongStream.rangeClosed(min, max).mapToInt(host -> (int) host);
+    }
+
+    /**
+     * Replaces given CIDRs with the minimal set of CIDRs that covers exactly the same
+     * addresses: contained networks are removed, adjacent networks are merged.
+     * The result is sorted and written to the beginning of the same arrays, it
+     * never contains more elements than the input.
+     *
+     * @return the number of resulting CIDRs
+     */
+    public static int aggregate(int[] addresses, int[] prefixLengths, int length) {
+        Objects.checkFromIndexSize(0, length, addresses.length);
+        Objects.checkFromIndexSize(0, length, prefixLengths.length);
+        if (length == 0) { return 0; }
+
+        // pack as (unsigned address, prefix) to sort primitives
+        long[] packed = new long[length];
+        for (int i = 0; i < length; i++) {
+            int prefix = prefixLengths[i];
+            packed[i] = (Integer.toUnsignedLong(network(addresses[i], prefix)) << 6) | prefix;
+        }
+        Arrays.sort(packed);
+
+        var out = new CidrConsumer() {
+            int count;
+
+            @Override
+            public void accept(int address, int prefixLength) {
+                addresses[count] = address;
+                prefixLengths[count] = prefixLength;
+                count++;
+            }
+        };
+
+        // merge overlapping and adjacent ranges, then split them back to CIDRs
+        long start = packed[0] >>> 6;
+        long end = start + size((int) (packed[0] & 0x3F)) - 1;
+        for (int i = 1; i < length; i++) {
+            long nextStart = packed[i] >>> 6;
+            long nextEnd = nextStart + size((int) (packed[i] & 0x3F)) - 1;
+            if (nextStart <= end + 1) {
+                end = Math.max(end, nextEnd);
+            } else {
+                forEachCidr(start, end, out);
+                start = nextStart;
+                end = nextEnd;
+            }
+        }
+        forEachCidr(start, end, out);
+
+        return out.count;
+    }
+
+    /**
+     * Splits the address range to the minimal set of CIDRs.
+     *
+     * @param start the first address of the range, unsigned
+     * @param end   the last address of the range (inclusive), unsigned
+     */
+    public static void forEachCidr(long start, long end, CidrConsumer consumer) {
+        checkUnsignedAddress(start);
+        checkUnsignedAddress(end);
+
+        while (start <= end) {
+            // the largest block aligned at start that doesn't exceed the range
+            int hostBits = start == 0 ? MAX_PREFIX_LEN : Long.numberOfTrailingZeros(start);
+            while (hostBits > 0 && start + (1L << hostBits) - 1 > end) {
+                hostBits--;
+            }
+
+            consumer.accept((int) start, MAX_PREFIX_LEN - hostBits);
+            start += 1L << hostBits;
+        }
+    }
+
+    /** Parses address in dotted decimal notation, e.g. "192.168.1.1". */
+    public static int parseAddress(String str) {
+        Objects.requireNonNull(str, "str");
+
+        long result = tryParseAddress(str);
+        if (result < 0) { throw invalidAddress(str); }
+        return (int) result;
+    }
+
+    // returns unsigned address or -1 if string is not a valid address, doesn't throw
+    static long tryParseAddress(CharSequence str) {
+        long result = 0;
+        int octet = -1, octets = 0;
+        for (int i = 0; i <= str.length(); i++) {
+            char c = i < str.length() ? str.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) { return -1; }
+            } else if (c == '.' && octet >= 0 && octets < 4) {
+                result = (result << 8) | octet;
+                octet = -1;
+                octets++;
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? result : -1;
+    }
+
+    /** Appends address in dotted decimal notation. */
+    public static StringBuilder appendAddress(StringBuilder sb, int address) {
+        return sb.append(address >>> 24).append('.')
+                .append((address >>> 16) & 0xFF).append('.')
+                .append((address >>> 8) & 0xFF).append('.')
+                .append(address & 0xFF);
+    }
+
+    public static String toString(int address) {
+        return appendAddress(new StringBuilder(15), address).toString();
+    }
+
+    public static String toString(int address, int prefixLength) {
+        return appendAddress(new StringBuilder(18), address).append('/').append(prefixLength).toString();
+    }
+
+    private static void checkPrefixLength(int prefixLength) {
+        if (prefixLength < 0 || prefixLength > MAX_PREFIX_LEN) {
+            throw new IllegalArgumentException("Invalid prefix length: " + prefixLength);
+        }
+    }
+
+    private static void checkUnsignedAddress(long address) {
+        if (address < IPv4Host.MIN_VALUE || address > IPv4Host.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid IPv4 address: " + address);
+        }
+    }
+
+    private static IllegalArgumentException invalidAddress(String str) {
+        return new IllegalArgumentException("Invalid IP address [" + str + "].");
+    }
+}
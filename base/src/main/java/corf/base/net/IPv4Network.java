@@ -1,14 +1,11 @@
 package corf.base.net;
 
 import inet.ipaddr.AddressStringException;
-import inet.ipaddr.IPAddress;
-import inet.ipaddr.IPAddressSeqRange;
 import inet.ipaddr.IPAddressString;
 import inet.ipaddr.ipv4.IPv4Address;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -138,7 +135,7 @@ public final class IPv4Network {
     }
 
     public long getTotalHostCount() {
-        return (long) Math.pow(2, getTrailingBitCount());
+        return IPv4Cidr.size(getPrefixLength());
     }
 
     public long getUsableHostCount() {
@@ -157,31 +154,35 @@ public final class IPv4Network {
         return null;
     }
 
+    /**
+     * Splits network to subnets. Consider using {@link IPv4Cidr} for the large
+     * networks, because this method creates an object per subnet.
+     */
     public List<IPv4Network> split(int subnetBits) {
-        IPv4Address network = ipv4.toPrefixBlock();
-        int length = network.getPrefixLength() + subnetBits;
-        IPAddress blocks = network.setPrefixLength(length, false);
-
-        Iterator<? extends IPAddress> blocksIterator = blocks.prefixBlockIterator();
-        var result = new ArrayList<IPv4Network>();
+        int prefixLength = getPrefixLength();
+        int subnetPrefixLength = prefixLength + subnetBits;
+        var result = new ArrayList<IPv4Network>((int) Math.min(IPv4Cidr.subnetCount(prefixLength, subnetBits), 1 << 16));
 
-        while (blocksIterator.hasNext()) {
-            result.add(new IPv4Network(blocksIterator.next().toIPv4()));
-        }
+        IPv4Cidr.forEachSubnet(ipv4.intValue(), prefixLength, subnetBits, address ->
+                result.add(new IPv4Network(new IPv4Address(address, subnetPrefixLength)))
+        );
 
         return result;
     }
 
-    public Stream<IPv4Host> stream() {
-        if (ipv4.getNetworkPrefixLength() == LINK_LOCAL_PREFIX_LEN) {
-            return Stream.of(getMinHost(), getMaxHost());
-        }
-        if (ipv4.getNetworkPrefixLength() == MAX_PREFIX_LEN) {
-            return Stream.of(getMinHost());
-        }
+    /** Returns the subnet with the given index, see {@link #split(int)}. */
+    public IPv4Network getSubnet(int subnetBits, long index) {
+        int prefixLength = getPrefixLength();
+        int address = IPv4Cidr.subnet(ipv4.intValue(), prefixLength, subnetBits, index);
+        return new IPv4Network(new IPv4Address(address, prefixLength + subnetBits));
+    }
 
-        IPAddressSeqRange range = getMinHost().unwrap().toSequentialRange(getMaxHost().unwrap());
-        return range.stream().map(ip -> new IPv4Host(ip.toIPv4()));
+    /**
+     * Returns all usable hosts of the network. Consider using {@link IPv4Cidr#hosts(int, int)}
+     * for the large networks, because this method creates an object per host.
+     */
+    public Stream<IPv4Host> stream() {
+        return IPv4Cidr.hosts(ipv4.intValue(), getPrefixLength()).mapToObj(IPv4Host::new);
     }
 
     public boolean isLinkLocal() {
@@ -0,0 +1,411 @@
+package corf.base.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable set of IPv4 addresses, represented as a sorted array of disjoint
+ * and non-adjacent address ranges. It's intended for bulk operations on
+ * large CIDR lists, e.g. firewall or proxy configs.
+ * <p>
+ * Building a set from n ranges takes O(n log n), since ranges are sorted
+ * once. All set operations are linear merges of two sorted range arrays,
+ * point queries are binary searches.
+ * <p>
+ * Range bounds are unsigned addresses stored in longs, both inclusive.
+ */
+public final class IPv4RangeSet {
+
+    private static final IPv4RangeSet EMPTY = new IPv4RangeSet(new long[0], new long[0], 0);
+    private static final long ALL_ADDRESSES = IPv4Host.MAX_VALUE + 1;
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int count;
+
+    private IPv4RangeSet(long[] starts, long[] ends, int count) {
+        this.starts = starts;
+        this.ends = ends;
+        this.count = count;
+    }
+
+    public static IPv4RangeSet empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Creates set from strings, see {@link Builder#add(String)} for the supported formats. */
+    public static IPv4RangeSet of(Iterable<String> items) {
+        Objects.requireNonNull(items, "items");
+
+        var builder = new Builder();
+        for (String item : items) {
+            builder.add(item);
+        }
+        return builder.build();
+    }
+
+    public static IPv4RangeSet of(String... items) {
+        return of(Arrays.asList(items));
+    }
+
+    /** Receives range bounds, both inclusive and unsigned. */
+    @FunctionalInterface
+    public interface RangeConsumer {
+
+        void accept(long start, long end);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** Returns the number of disjoint ranges. */
+    public int rangeCount() {
+        return count;
+    }
+
+    /** Returns the total number of addresses in the set. */
+    public long addressCount() {
+        long result = 0;
+        for (int i = 0; i < count; i++) {
+            result += ends[i] - starts[i] + 1;
+        }
+        return result;
+    }
+
+    /** Returns the number of CIDRs needed to represent the set. */
+    public int cidrCount() {
+        int[] result = new int[1];
+        forEachCidr((address, prefixLength) -> result[0]++);
+        return result[0];
+    }
+
+    public boolean contains(int address) {
+        return indexOf(Integer.toUnsignedLong(address)) >= 0;
+    }
+
+    public boolean contains(int network, int prefixLength) {
+        long start = Integer.toUnsignedLong(IPv4Cidr.network(network, prefixLength));
+        long end = Integer.toUnsignedLong(IPv4Cidr.lastAddress(network, prefixLength));
+        int index = indexOf(start);
+        return index >= 0 && ends[index] >= end;
+    }
+
+    /** Returns whether this set contains every address of the other set. */
+    public boolean containsAll(IPv4RangeSet other) {
+        Objects.requireNonNull(other, "other");
+
+        int i = 0;
+        for (int j = 0; j < other.count; j++) {
+            while (i < count && ends[i] < other.starts[j]) { i++; }
+            if (i == count || starts[i] > other.starts[j] || ends[i] < other.ends[j]) { return false; }
+        }
+        return true;
+    }
+
+    /** Returns whether this set has at least one common address with the other set. */
+    public boolean intersects(IPv4RangeSet other) {
+        Objects.requireNonNull(other, "other");
+
+        int i = 0, j = 0;
+        while (i < count && j < other.count) {
+            if (ends[i] < other.starts[j]) {
+                i++;
+            } else if (other.ends[j] < starts[i]) {
+                j++;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public IPv4RangeSet union(IPv4RangeSet other) {
+        Objects.requireNonNull(other, "other");
+        if (other.isEmpty()) { return this; }
+        if (isEmpty()) { return other; }
+
+        var out = new Accumulator(count + other.count);
+        int i = 0, j = 0;
+        while (i < count || j < other.count) {
+            if (j == other.count || (i < count && starts[i] <= other.starts[j])) {
+                out.append(starts[i], ends[i]);
+                i++;
+            } else {
+                out.append(other.starts[j], other.ends[j]);
+                j++;
+            }
+        }
+        return out.toSet();
+    }
+
+    public IPv4RangeSet intersection(IPv4RangeSet other) {
+        Objects.requireNonNull(other, "other");
+
+        var out = new Accumulator(Math.max(count, other.count));
+        int i = 0, j = 0;
+        while (i < count && j < other.count) {
+            long start = Math.max(starts[i], other.starts[j]);
+            long end = Math.min(ends[i], other.ends[j]);
+            if (start <= end) { out.append(start, end); }
+
+            // advance the range that ends first
+            if (ends[i] < other.ends[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return out.toSet();
+    }
+
+    /** Returns addresses of this set that aren't contained in the other set. */
+    public IPv4RangeSet difference(IPv4RangeSet other) {
+        Objects.requireNonNull(other, "other");
+        if (isEmpty() || other.isEmpty()) { return this; }
+
+        var out = new Accumulator(count + other.count);
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            long start = starts[i];
+            long end = ends[i];
+
+            // skip subtrahend ranges that end before the current one
+            while (j < other.count && other.ends[j] < start) { j++; }
+
+            int k = j;
+            while (start <= end && k < other.count && other.starts[k] <= end) {
+                if (other.starts[k] > start) { out.append(start, other.starts[k] - 1); }
+                start = other.ends[k] + 1;
+                k++;
+            }
+            if (start <= end) { out.append(start, end); }
+        }
+        return out.toSet();
+    }
+
+    /** Returns all addresses that aren't contained in this set. */
+    public IPv4RangeSet complement() {
+        var out = new Accumulator(count + 1);
+        long next = IPv4Host.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (starts[i] > next) { out.append(next, starts[i] - 1); }
+            next = ends[i] + 1;
+        }
+        if (next < ALL_ADDRESSES) { out.append(next, IPv4Host.MAX_VALUE); }
+        return out.toSet();
+    }
+
+    public void forEachRange(RangeConsumer consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        for (int i = 0; i < count; i++) {
+            consumer.accept(starts[i], ends[i]);
+        }
+    }
+
+    /** Passes the minimal set of CIDRs that covers the set to the consumer in ascending order. */
+    public void forEachCidr(IPv4Cidr.CidrConsumer consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        for (int i = 0; i < count; i++) {
+            IPv4Cidr.forEachCidr(starts[i], ends[i], consumer);
+        }
+    }
+
+    /** Returns the minimal set of CIDRs that covers the set, e.g. "10.0.0.0/8". */
+    public List<String> toCidrList() {
+        var result = new ArrayList<String>(count);
+        forEachCidr((address, prefixLength) -> result.add(IPv4Cidr.toString(address, prefixLength)));
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+
+        IPv4RangeSet that = (IPv4RangeSet) o;
+        return Arrays.equals(starts, 0, count, that.starts, 0, that.count)
+                && Arrays.equals(ends, 0, count, that.ends, 0, that.count);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < count; i++) {
+            result = 31 * result + Long.hashCode(starts[i]);
+            result = 31 * result + Long.hashCode(ends[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "IPv4RangeSet{" +
+                "ranges=" + count +
+                ", addresses=" + addressCount() +
+                '}';
+    }
+
+    // returns index of the range that contains the address or -1
+    private int indexOf(long address) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < address) {
+                low = mid + 1;
+            } else if (starts[mid] > address) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Collects ranges in ascending order of their start address,
+    // merging overlapping and adjacent ones on the fly.
+    private static final class Accumulator {
+
+        private long[] starts;
+        private long[] ends;
+        private int count;
+
+        public Accumulator(int capacity) {
+            starts = new long[Math.max(capacity, 1)];
+            ends = new long[starts.length];
+        }
+
+        public void append(long start, long end) {
+            if (count > 0 && start <= ends[count - 1] + 1) {
+                ends[count - 1] = Math.max(ends[count - 1], end);
+                return;
+            }
+
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+
+        public IPv4RangeSet toSet() {
+            return count > 0 ? new IPv4RangeSet(starts, ends, count) : EMPTY;
+        }
+    }
+
+    /**
+     * Collects address ranges in arbitrary order. Ranges may overlap,
+     * they're sorted and merged when the set is built.
+     */
+    public static final class Builder {
+
+        // range bounds packed into a single long to sort primitives,
+        // sign bit is flipped to sort unsigned values as signed
+        private long[] ranges = new long[16];
+        private int count;
+
+        private Builder() { }
+
+        public Builder add(int address) {
+            return addRange(Integer.toUnsignedLong(address), Integer.toUnsignedLong(address));
+        }
+
+        public Builder add(int network, int prefixLength) {
+            return addRange(
+                    Integer.toUnsignedLong(IPv4Cidr.network(network, prefixLength)),
+                    Integer.toUnsignedLong(IPv4Cidr.lastAddress(network, prefixLength))
+            );
+        }
+
+        /**
+         * Adds addresses in one of the following formats:
+         * <ul>
+         *     <li>host address, e.g. "192.168.1.1"</li>
+         *     <li>CIDR notation, e.g. "192.168.1.0/24", host bits are ignored</li>
+         *     <li>address range, e.g. "192.168.1.10-192.168.1.20", both inclusive</li>
+         * </ul>
+         * Surrounding whitespaces are ignored.
+         *
+         * @throws IllegalArgumentException if string has invalid format
+         */
+        public Builder add(String str) {
+            Objects.requireNonNull(str, "str");
+            String s = str.strip();
+
+            int slash = s.indexOf('/');
+            if (slash >= 0) {
+                return add(IPv4Cidr.parseAddress(s.substring(0, slash)), parsePrefixLength(s, slash + 1));
+            }
+
+            int dash = s.indexOf('-');
+            if (dash >= 0) {
+                long start = Integer.toUnsignedLong(IPv4Cidr.parseAddress(s.substring(0, dash).strip()));
+                long end = Integer.toUnsignedLong(IPv4Cidr.parseAddress(s.substring(dash + 1).strip()));
+                if (start > end) { throw new IllegalArgumentException("Invalid address range [" + str + "]."); }
+                return addRange(start, end);
+            }
+
+            return add(IPv4Cidr.parseAddress(s));
+        }
+
+        public Builder addAll(IPv4RangeSet set) {
+            Objects.requireNonNull(set, "set");
+            set.forEachRange(this::addRange);
+            return this;
+        }
+
+        /** Adds address range, both bounds are unsigned and inclusive. */
+        public Builder addRange(long start, long end) {
+            if (start < IPv4Host.MIN_VALUE || end > IPv4Host.MAX_VALUE || start > end) {
+                throw new IllegalArgumentException("Invalid address range: " + start + "-" + end);
+            }
+
+            if (count == ranges.length) {
+                ranges = Arrays.copyOf(ranges, count * 2);
+            }
+            ranges[count++] = ((start << 32) | end) ^ Long.MIN_VALUE;
+            return this;
+        }
+
+        public IPv4RangeSet build() {
+            if (count == 0) { return EMPTY; }
+
+            long[] sorted = Arrays.copyOf(ranges, count);
+            Arrays.sort(sorted);
+
+            var out = new Accumulator(count);
+            for (long range : sorted) {
+                range ^= Long.MIN_VALUE;
+                out.append(range >>> 32, range & 0xFFFF_FFFFL);
+            }
+            return out.toSet();
+        }
+
+        private static int parsePrefixLength(String s, int from) {
+            int prefixLength = -1;
+            if (from < s.length() && s.length() - from <= 2) {
+                try {
+                    prefixLength = Integer.parseInt(s, from, s.length(), 10);
+                } catch (NumberFormatException ignored) {
+                    // handled below
+                }
+            }
+            if (prefixLength < 0 || prefixLength > IPv4Cidr.MAX_PREFIX_LEN) {
+                throw new IllegalArgumentException("Invalid CIDR [" + s + "].");
+            }
+            return prefixLength;
+        }
+    }
+}
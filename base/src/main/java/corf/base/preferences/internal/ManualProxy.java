@@ -11,6 +11,7 @@ import corf.base.security.UsernamePasswordCredentials;
 import corf.base.i18n.M;
 import corf.base.net.BaseConnectionParams;
 import corf.base.net.ConnectionParams;
+import corf.base.net.HostMatcher;
 import corf.base.net.Scheme;
 import corf.base.preferences.Proxy;
 
@@ -30,6 +31,7 @@ public class ManualProxy implements Proxy {
     private final URI uri;
     private final @Nullable UsernamePasswordCredentials credentials;
     private final List<String> exceptions;
+    private final HostMatcher exceptionMatcher;
 
     @JsonCreator
     public ManualProxy(@JsonProperty("uri") URI uri,
@@ -38,6 +40,7 @@ public class ManualProxy implements Proxy {
         this.uri = Objects.requireNonNull(uri, "uri");
         this.credentials = credentials;
         this.exceptions = ListUtils.defaultIfNull(exceptions, Collections.emptyList());
+        this.exceptionMatcher = HostMatcher.of(this.exceptions);
 
         Scheme scheme = getScheme();
         if (scheme == null || !SUPPORTED_SCHEMES.contains(scheme)) {
@@ -72,8 +75,7 @@ public class ManualProxy implements Proxy {
 
     @Override
     public @Nullable ConnectionParams getConnectionParams(String ipOrHostname) {
-        boolean passAsException = exceptions.stream().anyMatch(e -> Proxy.match(e, ipOrHostname));
-        if (passAsException) { return null; }
+        if (exceptionMatcher.matches(ipOrHostname)) { return null; }
 
         return new BaseConnectionParams(getScheme(), getHost(), getPort(), credentials);
     }
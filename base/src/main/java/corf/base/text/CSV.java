@@ -1,13 +1,12 @@
 package corf.base.text;
 
-import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Objects;
 
-public final class CSV {
+public final class CSV implements CSVSource {
 
     public static final String COMMA_OR_SEMICOLON = "[,;]";
 
@@ -18,6 +17,7 @@ public final class CSV {
         this.data = data;
     }
 
+    @Override
     public int length() {
         return data.length;
     }
@@ -42,32 +42,32 @@ public final class CSV {
         return Arrays.stream(data).iterator();
     }
 
+    @Override
+    public CSVReader open() {
+        var it = iterator();
+        return new CSVReader() {
+            @Override
+            public boolean hasNext() { return it.hasNext(); }
+
+            @Override
+            public String[] next() { return it.next(); }
+
+            @Override
+            public void close() { /* nothing to release */ }
+        };
+    }
+
     public static CSV from(String text) {
-        return from(text, COMMA_OR_SEMICOLON);
+        return from(text, CSVParser.DEFAULT);
     }
 
-    @SuppressWarnings("StringSplitter")
-    public static CSV from(String text, @Nullable String sep) {
+    public static CSV from(String text, @Nullable CSVParser parser) {
         Objects.requireNonNull(text, "text");
 
-        final var csvText = Objects.requireNonNullElse(text, "");
-        final var csvSep = Objects.requireNonNullElse(sep, COMMA_OR_SEMICOLON);
-
-        if (csvText.isBlank()) {
+        if (text.isBlank()) {
             return new CSV(new String[][] { });
         }
 
-        String[] rows = csvText.split(LineSeparator.LINE_SPLIT_PATTERN);
-        String[][] csv = new String[rows.length][];
-
-        var i = 0;
-        for (var row : rows) {
-            if (StringUtils.isBlank(row)) {
-                continue;
-            }
-            csv[i] = row.split(csvSep);
-            i++;
-        }
-        return new CSV(Arrays.copyOfRange(csv, 0, i));
+        return new CSV(Objects.requireNonNullElse(parser, CSVParser.DEFAULT).parse(text));
     }
 }
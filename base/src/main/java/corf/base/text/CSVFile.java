@@ -0,0 +1,70 @@
+package corf.base.text;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * CSV file that is read lazily, row by row, so that memory consumption doesn't
+ * depend on the file size.
+ */
+public final class CSVFile implements CSVSource {
+
+    private final Path path;
+    private final Charset charset;
+    private final CSVParser parser;
+
+    // total number of rows is only calculated on demand, because it requires a full file scan
+    private int length = -1;
+
+    public CSVFile(Path path) {
+        this(path, StandardCharsets.UTF_8, null);
+    }
+
+    public CSVFile(Path path, @Nullable Charset charset, @Nullable CSVParser parser) {
+        this.path = Objects.requireNonNull(path, "path");
+        this.charset = Objects.requireNonNullElse(charset, StandardCharsets.UTF_8);
+        this.parser = Objects.requireNonNullElse(parser, CSVParser.DEFAULT);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized int length() {
+        if (length < 0) {
+            // quoted fields can span multiple lines, so rows can't be counted by line breaks
+            try (var reader = open()) {
+                int count = 0;
+                while (reader.hasNext()) {
+                    reader.next();
+                    count++;
+                }
+                length = count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public CSVReader open() throws IOException {
+        return parser.parse(Files.newBufferedReader(path, charset));
+    }
+
+    @Override
+    public String toString() {
+        return "CSVFile{" +
+                "path=" + path +
+                ", charset=" + charset +
+                '}';
+    }
+}
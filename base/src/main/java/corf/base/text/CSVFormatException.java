@@ -0,0 +1,24 @@
+package corf.base.text;
+
+/** Thrown when CSV text doesn't conform to the expected format. */
+public class CSVFormatException extends IllegalArgumentException {
+
+    private final int row;
+    private final int column;
+
+    public CSVFormatException(String message, int row, int column) {
+        super(String.format("%s at row %d, column %d", message, row, column));
+        this.row = row;
+        this.column = column;
+    }
+
+    /** Returns line number (1-based) of the source text where error occurred. */
+    public int getRow() {
+        return row;
+    }
+
+    /** Returns character position (1-based) within the line where error occurred. */
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,375 @@
+package corf.base.text;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Single-pass CSV parser that follows RFC 4180 rules:
+ * <ul>
+ *     <li>fields can be enclosed in quotes, quoted field can contain separators
+ *     and line breaks;</li>
+ *     <li>quote inside quoted field is escaped by another quote;</li>
+ *     <li>records are separated by CRLF, LF or CR.</li>
+ * </ul>
+ * Unlike RFC, parser is lenient to quotes inside unquoted fields, which are
+ * treated as normal characters, accepts multiple separator characters and
+ * skips blank lines. Parser itself is immutable and thread-safe, each
+ * {@link #parse(Reader)} call returns a new stateful reader.
+ */
+public final class CSVParser {
+
+    public static final String DEFAULT_SEPARATORS = ",;";
+    public static final char DEFAULT_QUOTE = '"';
+    public static final CSVParser DEFAULT = new CSVParser(DEFAULT_SEPARATORS, DEFAULT_QUOTE);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final char[] separators;
+    private final char quote;
+
+    /**
+     * Creates new parser.
+     *
+     * @param separators all characters that should be treated as field separators
+     * @param quote      quote character
+     */
+    public CSVParser(String separators, char quote) {
+        Objects.requireNonNull(separators, "separators");
+
+        if (separators.isEmpty()) {
+            throw new IllegalArgumentException("At least one separator must be specified.");
+        }
+        if (separators.indexOf(quote) >= 0) {
+            throw new IllegalArgumentException("Quote character can't be used as separator.");
+        }
+        if (isLineBreak(quote) || StringUtils.containsAny(separators, '\r', '\n')) {
+            throw new IllegalArgumentException("Line break characters can't be used as separator or quote.");
+        }
+
+        this.separators = separators.toCharArray();
+        this.quote = quote;
+    }
+
+    public String getSeparators() {
+        return new String(separators);
+    }
+
+    public char getQuote() {
+        return quote;
+    }
+
+    /** Returns reader that parses rows from the source on demand. Closing it also closes the source. */
+    public CSVReader parse(Reader reader) {
+        return new Scanner(Objects.requireNonNull(reader, "reader"));
+    }
+
+    /** Parses all rows of the given text at once. */
+    public String[][] parse(String text) {
+        Objects.requireNonNull(text, "text");
+
+        List<String[]> rows = new ArrayList<>();
+        try (CSVReader reader = parse(new StringReader(text))) {
+            reader.forEachRemaining(rows::add);
+        } catch (IOException e) {
+            // can't happen, string reader doesn't perform any I/O
+            throw new UncheckedIOException(e);
+        }
+        return rows.toArray(new String[0][]);
+    }
+
+    /**
+     * Converts row to CSV line using the first separator character. Fields that
+     * contain separator, quote or line break characters are enclosed in quotes,
+     * so that the line can be parsed back with the same parser.
+     */
+    public String formatRow(String[] row) {
+        Objects.requireNonNull(row, "row");
+
+        var sb = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) { sb.append(separators[0]); }
+
+            String field = Objects.requireNonNullElse(row[i], "");
+            if (!requiresQuoting(field)) {
+                sb.append(field);
+                continue;
+            }
+
+            sb.append(quote);
+            for (int j = 0; j < field.length(); j++) {
+                char c = field.charAt(j);
+                if (c == quote) { sb.append(quote); }
+                sb.append(c);
+            }
+            sb.append(quote);
+        }
+        return sb.toString();
+    }
+
+    private boolean requiresQuoting(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == quote || isLineBreak(c) || isSeparator(c)) { return true; }
+        }
+        return false;
+    }
+
+    private boolean isSeparator(char c) {
+        for (char sep : separators) {
+            if (sep == c) { return true; }
+        }
+        return false;
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\r' || c == '\n';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private final class Scanner implements CSVReader {
+
+        private static final int FIELD_START = 0;
+        private static final int UNQUOTED = 1;
+        private static final int QUOTED = 2;
+        private static final int QUOTE_IN_QUOTED = 3;
+
+        private final Reader reader;
+        private final char[] buf = new char[BUFFER_SIZE];
+        private int pos;
+        private int limit;
+
+        // row buffers are reused to avoid allocations, only resulting strings are created
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private boolean rowQuoted;
+
+        // error reporting
+        private int line = 1;
+        private int column;
+        private int quoteLine;
+        private int quoteColumn;
+
+        private boolean started;
+        private boolean skipLF;
+        private boolean prevCR;
+
+        private @Nullable String[] nextRow;
+        private boolean fetched;
+
+        public Scanner(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!fetched) {
+                try {
+                    nextRow = readRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                fetched = true;
+            }
+            return nextRow != null;
+        }
+
+        @Override
+        public String[] next() {
+            if (!hasNext()) { throw new NoSuchElementException(); }
+
+            String[] row = Objects.requireNonNull(nextRow);
+            nextRow = null;
+            fetched = false;
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private @Nullable String[] readRow() throws IOException {
+            String[] row;
+            do {
+                row = scanRow();
+            } while (row != null && isBlank(row));
+            return row;
+        }
+
+        private boolean isBlank(String[] row) {
+            return !rowQuoted && row.length == 1 && StringUtils.isBlank(row[0]);
+        }
+
+        private @Nullable String[] scanRow() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            rowQuoted = false;
+
+            int state = FIELD_START;
+            int start = pos;
+
+            while (true) {
+                if (pos == limit) {
+                    // field continues in the next chunk, save what we have so far
+                    if (state == UNQUOTED || state == QUOTED) {
+                        field.append(buf, start, pos - start);
+                    }
+                    if (!fill()) { break; }
+                    start = 0;
+                }
+
+                char c = buf[pos];
+                track(c);
+
+                if (!started) {
+                    started = true;
+                    // BOM is only allowed at the beginning of the text
+                    if (c == Encoding.BOM) {
+                        start = ++pos;
+                        continue;
+                    }
+                }
+
+                // CRLF terminates the row on CR, so LF must be skipped
+                if (skipLF) {
+                    skipLF = false;
+                    if (c == '\n') {
+                        start = ++pos;
+                        continue;
+                    }
+                }
+
+                switch (state) {
+                    case FIELD_START -> {
+                        if (c == quote) {
+                            state = QUOTED;
+                            rowQuoted = true;
+                            quoteLine = line;
+                            quoteColumn = column;
+                            start = pos + 1;
+                        } else if (isSeparator(c)) {
+                            fields.add("");
+                            start = pos + 1;
+                        } else if (isLineBreak(c)) {
+                            fields.add("");
+                            return endRow(c);
+                        } else {
+                            state = UNQUOTED;
+                            start = pos;
+                        }
+                    }
+                    case UNQUOTED -> {
+                        if (isSeparator(c)) {
+                            addUnquotedField(start);
+                            state = FIELD_START;
+                            start = pos + 1;
+                        } else if (isLineBreak(c)) {
+                            addUnquotedField(start);
+                            return endRow(c);
+                        }
+                    }
+                    case QUOTED -> {
+                        if (c == quote) {
+                            field.append(buf, start, pos - start);
+                            state = QUOTE_IN_QUOTED;
+                        }
+                    }
+                    case QUOTE_IN_QUOTED -> {
+                        if (c == quote) {
+                            // escaped quote, it becomes the first char of the next field segment
+                            state = QUOTED;
+                            start = pos;
+                        } else if (isSeparator(c)) {
+                            addQuotedField();
+                            state = FIELD_START;
+                            start = pos + 1;
+                        } else if (isLineBreak(c)) {
+                            addQuotedField();
+                            return endRow(c);
+                        } else {
+                            throw new CSVFormatException("Unexpected character after closing quote", line, column);
+                        }
+                    }
+                    default -> throw new IllegalStateException("Unknown state: " + state);
+                }
+
+                pos++;
+            }
+
+            // end of input
+            switch (state) {
+                case QUOTED -> throw new CSVFormatException("Unterminated quoted field", quoteLine, quoteColumn);
+                case UNQUOTED, QUOTE_IN_QUOTED -> {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+                default -> {
+                    // trailing separator means there's one more empty field
+                    if (fields.isEmpty()) { return null; }
+                    fields.add("");
+                }
+            }
+
+            return fields.toArray(new String[0]);
+        }
+
+        private void addUnquotedField(int start) {
+            if (field.length() == 0) {
+                fields.add(new String(buf, start, pos - start));
+            } else {
+                field.append(buf, start, pos - start);
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+        }
+
+        private void addQuotedField() {
+            fields.add(field.toString());
+            field.setLength(0);
+        }
+
+        private String[] endRow(char lineBreak) {
+            skipLF = lineBreak == '\r';
+            pos++;
+            return fields.toArray(new String[0]);
+        }
+
+        private void track(char c) {
+            if (c == '\n') {
+                if (!prevCR) { line++; }
+                column = 0;
+                prevCR = false;
+            } else if (c == '\r') {
+                line++;
+                column = 0;
+                prevCR = true;
+            } else {
+                column++;
+                prevCR = false;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int n;
+            do {
+                n = reader.read(buf, 0, buf.length);
+            } while (n == 0);
+
+            if (n < 0) { return false; }
+
+            pos = 0;
+            limit = n;
+            return true;
+        }
+    }
+}
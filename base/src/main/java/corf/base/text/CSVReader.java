@@ -0,0 +1,10 @@
+package corf.base.text;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Sequential, forward-only reader of the CSV rows. Blank lines are skipped.
+ * Reader must be closed after use to release underlying resources, if any.
+ */
+public interface CSVReader extends Iterator<String[]>, Closeable { }
@@ -0,0 +1,17 @@
+package corf.base.text;
+
+import java.io.IOException;
+
+/**
+ * Source of CSV data that can be read multiple times, e.g. first to validate
+ * the data and then to process it. Unlike {@link CSV}, the source doesn't
+ * have to hold all rows in memory.
+ */
+public interface CSVSource {
+
+    /** Returns the total number of rows. */
+    int length();
+
+    /** Opens a new reader positioned at the first row. */
+    CSVReader open() throws IOException;
+}
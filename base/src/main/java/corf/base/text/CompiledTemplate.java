@@ -0,0 +1,150 @@
+package corf.base.text;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Pre-parsed form of the format string, that follows the same rules as
+ * {@link PlaceholderReplacer#replace(String, Map)}. The format string is
+ * split into segments only once, so rendering doesn't involve regex
+ * matching and doesn't allocate anything except the output itself.
+ * Instances are immutable and thread-safe.
+ */
+public final class CompiledTemplate {
+
+    private static final CompiledTemplate EMPTY = new CompiledTemplate("", new Segment[0]);
+
+    private final String pattern;
+    private final Segment[] segments;
+    private final boolean hasPlaceholders;
+
+    private CompiledTemplate(String pattern, Segment[] segments) {
+        this.pattern = pattern;
+        this.segments = segments;
+
+        boolean placeholderFound = false;
+        for (Segment segment : segments) {
+            if (segment instanceof Placeholder) {
+                placeholderFound = true;
+                break;
+            }
+        }
+        this.hasPlaceholders = placeholderFound;
+    }
+
+    public static CompiledTemplate compile(@Nullable String pattern) {
+        if (isBlank(pattern)) { return EMPTY; }
+
+        List<Segment> segments = new ArrayList<>();
+        Matcher matcher = PlaceholderReplacer.EXPRESSION.matcher(pattern);
+        int pos = 0;
+
+        while (matcher.find()) {
+            if (matcher.start() > pos) {
+                segments.add(new Literal(pattern.substring(pos, matcher.start())));
+            }
+
+            if (matcher.group(1) != null) {
+                segments.add(new Escaped(matcher.group(1)));
+            } else {
+                segments.add(new Placeholder(matcher.group(3)));
+            }
+
+            pos = matcher.end();
+        }
+
+        if (pos < pattern.length()) {
+            segments.add(new Literal(pattern.substring(pos)));
+        }
+
+        return new CompiledTemplate(pattern, segments.toArray(new Segment[0]));
+    }
+
+    /** Returns source format string or empty string if it was blank. */
+    public String getPattern() {
+        return pattern;
+    }
+
+    public List<Segment> getSegments() {
+        return List.of(segments);
+    }
+
+    /** Returns whether format string contains at least one (unescaped) placeholder. */
+    public boolean hasPlaceholders() {
+        return hasPlaceholders;
+    }
+
+    /**
+     * Appends formatted string to the given builder. Missing keys are left
+     * unsubstituted. Just like {@link PlaceholderReplacer#replace(String, Map)},
+     * if there are no values at all, format string is appended as is.
+     */
+    public void render(@Nullable Map<String, String> values, StringBuilder out) {
+        Objects.requireNonNull(out, "out");
+
+        if (values == null || values.isEmpty()) {
+            out.append(pattern);
+            return;
+        }
+
+        for (Segment segment : segments) {
+            if (segment instanceof Literal literal) {
+                out.append(literal.text());
+            } else if (segment instanceof Placeholder placeholder) {
+                String value = values.get(placeholder.key());
+                if (value != null) {
+                    out.append(value);
+                } else {
+                    placeholder.appendTo(out);
+                }
+            } else if (segment instanceof Escaped escaped) {
+                out.append(escaped.text());
+            }
+        }
+    }
+
+    /** See {@link #render(Map, StringBuilder)}. */
+    public String render(@Nullable Map<String, String> values) {
+        if (segments.length == 0) { return ""; }
+
+        var sb = new StringBuilder(pattern.length() + 16);
+        render(values, sb);
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledTemplate{" +
+                "pattern='" + pattern + '\'' +
+                '}';
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    public sealed interface Segment permits Literal, Placeholder, Escaped { }
+
+    /** Text that is copied to the output as is. */
+    public record Literal(String text) implements Segment { }
+
+    /** The <code>${key}</code> expression. */
+    public record Placeholder(String key) implements Segment {
+
+        /** Appends unsubstituted placeholder expression. */
+        public void appendTo(StringBuilder out) {
+            out.append("${").append(key).append('}');
+        }
+    }
+
+    /**
+     * Any character that follows a backslash, it's copied to the output without backslash.
+     * Supplementary characters are represented by the surrogate pair, hence it's a string.
+     */
+    public record Escaped(String text) implements Segment { }
+}
@@ -1,13 +1,23 @@
 package corf.base.text;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.*;
+import java.util.stream.IntStream;
 
 @SuppressWarnings("unused")
 public final class PasswordGenerator {
 
     public static final int DEFAULT_PASSWORD_LENGTH = 16;
 
-    private static final Random RANDOM = new Random();
+    // each thread has its own CSPRNG instance, so that parallel generation doesn't
+    // contend for the single lock, DRBG instances (unlike NativePRNG) don't share state
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(PasswordGenerator::createRandom);
+
+    // the number of passwords generated by a single task in bulk mode
+    static final int BULK_CHUNK_SIZE = 4 * 1024;
 
     public static final List<Character> ASCII_LOWER = List.of(
             'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p',
@@ -79,16 +89,121 @@ public final class PasswordGenerator {
             ASCII_LOWER, ASCII_UPPER, ASCII_DIGITS, ASCII_SPECIAL_CHARS
     );
 
+    /** Generates password into the given buffer. */
+    @FunctionalInterface
+    public interface Source {
+
+        void generate(StringBuilder sb, Random random);
+    }
+
     public static String random(int length, List<Character> sequence) {
-        if (length <= 0) { length = DEFAULT_PASSWORD_LENGTH; }
         if (sequence == null || sequence.isEmpty()) { sequence = ASCII_LOWER_UPPER_DIGITS; }
+        return random(length, toCharArray(sequence));
+    }
+
+    public static String random(int length, char[] alphabet) {
+        if (length <= 0) { length = DEFAULT_PASSWORD_LENGTH; }
 
         StringBuilder result = new StringBuilder(length);
-        for (int i = 0; i < length; i++) {
-            result.append(pickRandomFrom(sequence));
+        appendRandom(result, length, alphabet, RANDOM.get());
+        return result.toString();
+    }
+
+    /**
+     * Appends the given number of characters randomly chosen from the alphabet.
+     * Random bytes are requested in batches rather than per character, which is
+     * much cheaper for CSPRNG.
+     */
+    public static void appendRandom(StringBuilder sb, int length, char[] alphabet, Random random) {
+        Objects.requireNonNull(alphabet, "alphabet");
+        Objects.requireNonNull(random, "random");
+        if (alphabet.length == 0) { throw new IllegalArgumentException("Alphabet must not be empty."); }
+
+        int n = alphabet.length;
+        if (n > 256) {
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet[random.nextInt(n)]);
+            }
+            return;
         }
 
-        return result.toString();
+        // bytes above the largest multiple of n are rejected to avoid modulo bias
+        int limit = 256 - (256 % n);
+        byte[] bytes = new byte[length + (length >> 1) + 4];
+        int pos = bytes.length;
+        for (int i = 0; i < length; ) {
+            if (pos == bytes.length) {
+                random.nextBytes(bytes);
+                pos = 0;
+            }
+            int b = bytes[pos++] & 0xFF;
+            if (b < limit) {
+                sb.append(alphabet[b % n]);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Generates passwords and writes them to the output separated by new lines.
+     * Passwords are generated in chunks by parallel tasks, each worker thread uses its
+     * own CSPRNG instance. Only a bounded number of chunks is kept in memory, so the
+     * output can be arbitrarily large.
+     */
+    public static void bulk(long count, Source source, Appendable out) throws IOException {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(out, "out");
+        if (count <= 0) { return; }
+
+        long chunkCount = (count + BULK_CHUNK_SIZE - 1) / BULK_CHUNK_SIZE;
+        int window = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+
+        for (long first = 0; first < chunkCount; first += window) {
+            long firstChunk = first;
+            int size = (int) Math.min(window, chunkCount - first);
+
+            StringBuilder[] chunks = new StringBuilder[size];
+            IntStream.range(0, size).parallel().forEach(i -> {
+                long from = (firstChunk + i) * BULK_CHUNK_SIZE;
+                long to = Math.min(from + BULK_CHUNK_SIZE, count);
+                chunks[i] = generateChunk(source, from, to);
+            });
+
+            // chunks are written in order, separator goes before each password except the first one
+            for (StringBuilder chunk : chunks) {
+                out.append(chunk);
+            }
+        }
+    }
+
+    private static StringBuilder generateChunk(Source source, long from, long to) {
+        var sb = new StringBuilder((int) (to - from) * (DEFAULT_PASSWORD_LENGTH + 1));
+        Random random = RANDOM.get();
+        for (long i = from; i < to; i++) {
+            if (i > 0) { sb.append('\n'); }
+            source.generate(sb, random);
+        }
+        return sb;
+    }
+
+    /** Same as {@link #bulk(long, Source, Appendable)}, but returns result as a string. */
+    public static String bulk(long count, Source source) {
+        var sb = new StringBuilder();
+        try {
+            bulk(count, source, sb);
+        } catch (IOException e) {
+            // never thrown by StringBuilder
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    public static char[] toCharArray(List<Character> chars) {
+        char[] result = new char[chars.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = chars.get(i);
+        }
+        return result;
     }
 
     public static String random() {
@@ -145,7 +260,15 @@ public final class PasswordGenerator {
     }
 
     private static <T> T pickRandomFrom(List<T> list) {
-        return Objects.requireNonNull(list).get(RANDOM.nextInt(list.size()));
+        return Objects.requireNonNull(list).get(RANDOM.get().nextInt(list.size()));
+    }
+
+    private static SecureRandom createRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
     }
 
     @SafeVarargs
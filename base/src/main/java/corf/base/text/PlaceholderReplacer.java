@@ -50,6 +50,14 @@ public final class PlaceholderReplacer {
         });
     }
 
+    /**
+     * Parses format string once, so that it can be efficiently rendered multiple
+     * times, e.g. for every CSV row. See {@link CompiledTemplate}.
+     */
+    public static CompiledTemplate compile(@Nullable String pattern) {
+        return CompiledTemplate.compile(pattern);
+    }
+
     public static boolean containsPlaceholders(@Nullable String pattern) {
         Objects.requireNonNull(pattern, "pattern");
         return EXPRESSION.matcher(pattern).find();
@@ -0,0 +1,110 @@
+package corf.base.collection;
+
+import org.junit.jupiter.api.Test;
+import corf.base.collection.PrefixTrie.Entry;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactPrefixTrieTest {
+
+    @Test
+    public void testFindClosestAndExact() {
+        CompactPrefixTrie<Integer> trie = new CompactPrefixTrie<>();
+        // add in reverse order, so that leaves are created in place of existing branches
+        trie.add("123456789", 9);
+        trie.add("1234", 4);
+        trie.add("123", 3);
+        trie.add("12", 2);
+
+        assertThat(trie.size()).isEqualTo(4);
+        assertThat(trie.findClosest("1")).isNull();
+        assertThat(trie.findClosest("12")).isEqualTo(new Entry<>("12", 2));
+        assertThat(trie.findClosest("12345678")).extracting(Entry::value).isEqualTo(4);
+        assertThat(trie.findClosest("1234567890")).extracting(Entry::prefix).isEqualTo("123456789");
+
+        assertThat(trie.findExact("1")).isNull();
+        assertThat(trie.findExact("123456")).isNull();
+        assertThat(trie.findExact("1234")).extracting(Entry::value).isEqualTo(4);
+    }
+
+    @Test
+    public void testAddReplacesValue() {
+        CompactPrefixTrie<Integer> trie = new CompactPrefixTrie<>();
+        trie.add("", 0);
+        trie.add("123", 1);
+        trie.add("123", 2);
+        trie.update("1234", 3);
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.findExact("123")).extracting(Entry::value).isEqualTo(2);
+        assertThat(trie.contains("1234")).isFalse();
+    }
+
+    @Test
+    public void testNonAsciiDigits() {
+        CompactPrefixTrie<Integer> trie = new CompactPrefixTrie<>();
+        // arabic-indic digits "123"
+        trie.add("\u0661\u0662\u0663", 123);
+
+        assertThat(trie.findExact("\u0661\u0662\u0663")).extracting(Entry::value).isEqualTo(123);
+        assertThat(trie.findClosest("1234")).extracting(Entry::value).isEqualTo(123);
+        assertThat(trie.nodeCount()).isEqualTo(4); // root + 3 digits
+
+        trie.remove("123");
+        assertThat(trie.size()).isZero();
+    }
+
+    @Test
+    public void testRemoveReleasesDeadBranches() {
+        CompactPrefixTrie<Integer> trie = new CompactPrefixTrie<>();
+        trie.add("12", 12);
+        trie.add("123", 123);
+        trie.add("12345", 12345);
+
+        trie.remove("12345");
+        assertThat(trie.nodeCount()).isEqualTo(4); // root + 3 digits
+        assertThat(trie.findClosest("12345")).isEqualTo(new Entry<>("123", 123));
+
+        trie.remove("12");
+        assertThat(trie.contains("12")).isFalse();
+        assertThat(trie.contains("123")).isTrue();
+
+        trie.remove("123");
+        assertThat(trie.isEmpty()).isTrue();
+        assertThat(trie.nodeCount()).isEqualTo(1);
+
+        // released nodes are reused
+        trie.add("999", 999);
+        assertThat(trie.nodeCount()).isEqualTo(4);
+        assertThat(trie.findClosest("9999")).extracting(Entry::value).isEqualTo(999);
+    }
+
+    @Test
+    public void testIterationOrderMatchesPrefixTrie() {
+        PrefixTrie<Integer> source = new PrefixTrie<>();
+        for (String prefix : List.of("0123456789", "123", "1234", "1235", "19", "9")) {
+            source.add(prefix, prefix.length());
+        }
+
+        CompactPrefixTrie<Integer> trie = CompactPrefixTrie.copyOf(source);
+        assertThat(trie.stream().collect(Collectors.toList()))
+                .containsExactlyElementsOf(source.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testMemoryFootprint() {
+        CompactPrefixTrie<Integer> trie = new CompactPrefixTrie<>();
+        for (int i = 0; i < 100_000; i++) {
+            trie.add(String.valueOf(1_000_000 + i), i);
+        }
+        trie.trimToSize();
+
+        assertThat(trie.size()).isEqualTo(100_000);
+        assertThat(trie.findClosest("10999990")).extracting(Entry::value).isEqualTo(99_999);
+        // about 10 bytes per leaf node and 50 bytes per intermediate node
+        assertThat(trie.memoryFootprint()).isLessThan(trie.nodeCount() * 16L);
+    }
+}
@@ -0,0 +1,97 @@
+package corf.base.collection;
+
+import org.junit.jupiter.api.Test;
+import corf.base.collection.PrefixTrie.Entry;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CopyOnWritePrefixTrieTest {
+
+    @Test
+    public void testUpdatePublishesNewSnapshot() {
+        var trie = new CopyOnWritePrefixTrie<Integer>();
+        FrozenPrefixTrie<Integer> before = trie.snapshot();
+
+        FrozenPrefixTrie<Integer> after = trie.update(t -> {
+            t.add("7", 7);
+            t.add("79", 79);
+        });
+
+        assertThat(before.isEmpty()).isTrue();
+        assertThat(trie.snapshot()).isSameAs(after);
+        assertThat(trie.findClosest("7912")).isEqualTo(new Entry<>("79", 79));
+
+        assertThat(trie.replace(FrozenPrefixTrie.empty())).isSameAs(after);
+        assertThat(trie.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testFailedUpdateKeepsSnapshot() {
+        var trie = new CopyOnWritePrefixTrie<Integer>();
+        trie.update(t -> t.add("1", 1));
+
+        assertThatThrownBy(() -> trie.update(t -> {
+            t.remove("1");
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(trie.contains("1")).isTrue();
+    }
+
+    @Test
+    public void testReadersAlwaysSeeConsistentSnapshot() throws Exception {
+        // every version contains "1" and "12", values are always equal within a version
+        var trie = new CopyOnWritePrefixTrie<Integer>();
+        trie.update(t -> {
+            t.add("1", 0);
+            t.add("12", 0);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        var running = new AtomicBoolean(true);
+        var started = new CountDownLatch(4);
+        try {
+            Future<?>[] readers = new Future<?>[4];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = executor.submit(() -> {
+                    started.countDown();
+                    while (running.get()) {
+                        FrozenPrefixTrie<Integer> snapshot = trie.snapshot();
+                        Entry<Integer> shorter = snapshot.findClosest("19");
+                        Entry<Integer> longer = snapshot.findClosest("129");
+                        assertThat(shorter).isNotNull();
+                        assertThat(longer).isNotNull();
+                        assertThat(shorter.value()).isEqualTo(longer.value());
+                    }
+                });
+            }
+
+            started.await();
+            for (int version = 1; version <= 1000; version++) {
+                int value = version;
+                trie.update(t -> {
+                    t.update("1", value);
+                    t.update("12", value);
+                });
+            }
+            running.set(false);
+
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        assertThat(trie.findExact("12")).extracting(Entry::value).isEqualTo(1000);
+    }
+}
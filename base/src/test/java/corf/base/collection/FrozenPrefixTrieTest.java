@@ -0,0 +1,97 @@
+package corf.base.collection;
+
+import org.junit.jupiter.api.Test;
+import corf.base.collection.PrefixTrie.Entry;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FrozenPrefixTrieTest {
+
+    @Test
+    public void testFreezeKeepsContent() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        for (String prefix : List.of("0123456789", "12", "123", "1234", "1235", "19", "9")) {
+            trie.add(prefix, prefix.length() > 2 ? "long" : "short");
+        }
+
+        FrozenPrefixTrie<String> frozen = trie.freeze();
+        assertThat(frozen.size()).isEqualTo(7);
+        assertThat(frozen.stream().collect(Collectors.toList()))
+                .containsExactlyElementsOf(trie.stream().collect(Collectors.toList()));
+        assertThat(frozen.findClosest("12399")).isEqualTo(new Entry<>("123", "long"));
+        assertThat(frozen.findClosest("1")).isNull();
+        assertThat(frozen.findExact("1235")).extracting(Entry::value).isEqualTo("long");
+        assertThat(frozen.findExact("123456")).isNull();
+        assertThat(frozen.toString()).contains("values=2");
+
+        // snapshot is not affected by the further modifications
+        trie.remove("123");
+        assertThat(frozen.contains("123")).isTrue();
+        assertThat(frozen.toPrefixTrie().stream().collect(Collectors.toList()))
+                .containsExactlyElementsOf(frozen.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testNonAsciiDigits() {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("123", "ascii");
+
+        FrozenPrefixTrie<String> frozen = trie.freeze();
+        // arabic-indic digits "123"
+        assertThat(frozen.findExact("\u0661\u0662\u0663")).extracting(Entry::value).isEqualTo("ascii");
+        assertThat(frozen.findClosest("\u0661\u0662\u06634")).extracting(Entry::value).isEqualTo("ascii");
+        assertThat(frozen.contains("\u0661\u0662")).isFalse();
+
+        // batch lookups must agree with the single ones
+        CharSequence[] numbers = { "\u0661\u0662\u06634", "1234" };
+        int[] lengths = new int[numbers.length];
+        String[] values = new String[numbers.length];
+        frozen.findClosest(numbers, lengths, values, false);
+        assertThat(lengths).containsExactly(3, 3);
+        assertThat(values).containsExactly("ascii", "ascii");
+    }
+
+    @Test
+    public void testEmptyTrie() {
+        FrozenPrefixTrie<String> frozen = new PrefixTrie<String>().freeze();
+        assertThat(frozen.isEmpty()).isTrue();
+        assertThat(frozen.findClosest("123")).isNull();
+        assertThat(frozen.iterator().hasNext()).isFalse();
+        assertThat(FrozenPrefixTrie.<String>empty().contains("1")).isFalse();
+    }
+
+    @Test
+    public void testParallelBatchFindClosest() {
+        CompactPrefixTrie<Integer> trie = new CompactPrefixTrie<>();
+        for (int i = 0; i < 1000; i++) {
+            trie.add(String.valueOf(7000 + i), i);
+        }
+        FrozenPrefixTrie<Integer> frozen = trie.freeze();
+
+        int size = 100_000;
+        long[] numbers = new long[size];
+        CharSequence[] strings = new CharSequence[size];
+        for (int i = 0; i < size; i++) {
+            numbers[i] = 7_000_000_000L + i * 10_000L;
+            strings[i] = String.valueOf(numbers[i]);
+        }
+
+        int[] lengths = new int[size];
+        Integer[] values = new Integer[size];
+        frozen.findClosest(numbers, lengths, values, true);
+        for (int i = 0; i < size; i++) {
+            Entry<Integer> expected = frozen.findClosest(strings[i].toString());
+            assertThat(lengths[i]).isEqualTo(expected != null ? expected.prefix().length() : 0);
+            assertThat(values[i]).isEqualTo(expected != null ? expected.value() : null);
+        }
+
+        int[] stringLengths = new int[size];
+        Integer[] stringValues = new Integer[size];
+        frozen.findClosest(strings, stringLengths, stringValues, true);
+        assertThat(stringLengths).isEqualTo(lengths);
+        assertThat(stringValues).isEqualTo(values);
+    }
+}
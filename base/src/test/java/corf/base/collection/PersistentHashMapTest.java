@@ -0,0 +1,118 @@
+package corf.base.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PersistentHashMapTest {
+
+    @Test
+    public void testMatchesHashMap() {
+        var random = new Random(42);
+        var expected = new HashMap<Integer, String>();
+        PersistentHashMap<Integer, String> map = PersistentHashMap.empty();
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, "v" + i);
+                map = map.plus(key, "v" + i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        var actual = new HashMap<Integer, String>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        for (int key = 0; key < 20_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    public void testPreviousVersionIsUnchanged() {
+        PersistentHashMap<String, Integer> v1 = PersistentHashMap.<String, Integer>empty()
+                .plus("a", 1)
+                .plus("b", 2);
+        PersistentHashMap<String, Integer> v2 = v1.plus("a", 10).minus("b").plus("c", 3);
+
+        assertThat(v1.size()).isEqualTo(2);
+        assertThat(v1.get("a")).isEqualTo(1);
+        assertThat(v1.get("b")).isEqualTo(2);
+        assertThat(v1.containsKey("c")).isFalse();
+
+        assertThat(v2.size()).isEqualTo(2);
+        assertThat(v2.get("a")).isEqualTo(10);
+        assertThat(v2.containsKey("b")).isFalse();
+
+        // no-op modifications return the same instance
+        Integer value = v1.get("a");
+        assertThat(v1.plus("a", value)).isSameAs(v1);
+        assertThat(v1.minus("z")).isSameAs(v1);
+        assertThat(v1.minus("a").minus("b").isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testHashCollisions() {
+        PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.plus(new CollidingKey(i % 2, i), i);
+        }
+
+        assertThat(map.size()).isEqualTo(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(map.get(new CollidingKey(i % 2, i))).isEqualTo(i);
+        }
+
+        for (int i = 0; i < 10; i += 3) {
+            map = map.minus(new CollidingKey(i % 2, i));
+        }
+        assertThat(map.size()).isEqualTo(6);
+        assertThat(map.get(new CollidingKey(0, 0))).isNull();
+        assertThat(map.get(new CollidingKey(1, 1))).isEqualTo(1);
+    }
+
+    @Test
+    public void testDiff() {
+        PersistentHashMap<Integer, String> base = PersistentHashMap.empty();
+        for (int i = 0; i < 10_000; i++) {
+            base = base.plus(i, "v" + i);
+        }
+        PersistentHashMap<Integer, String> changed = base
+                .plus(1, "updated")
+                .minus(2)
+                .plus(20_000, "added");
+
+        var diff = new HashMap<Integer, List<String>>();
+        base.diff(changed, (key, thisValue, otherValue) -> diff.put(key, Arrays.asList(thisValue, otherValue)));
+
+        assertThat(diff).containsOnly(
+                Map.entry(1, Arrays.asList("v1", "updated")),
+                Map.entry(2, Arrays.asList("v2", null)),
+                Map.entry(20_000, Arrays.asList(null, "added"))
+        );
+
+        base.diff(base, (key, thisValue, otherValue) -> {
+            throw new AssertionError("Same map must not have differences");
+        });
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private record CollidingKey(int hash, int value) {
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
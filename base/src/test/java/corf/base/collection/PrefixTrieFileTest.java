@@ -0,0 +1,68 @@
+package corf.base.collection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import corf.base.collection.PrefixTrie.Entry;
+import corf.base.collection.PrefixTrieFile.ValueCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PrefixTrieFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteAndLoad() throws IOException {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        for (int i = 0; i < 10_000; i++) {
+            trie.add(String.valueOf(7_000_000 + i * 7), "оператор-" + (i % 10));
+        }
+        trie.add("8", null);
+        FrozenPrefixTrie<String> frozen = trie.freeze();
+
+        Path path = tempDir.resolve("trie.bin");
+        PrefixTrieFile.write(frozen, path, ValueCodec.utf8());
+
+        List<Entry<String>> expected = frozen.stream().collect(Collectors.toList());
+        for (FrozenPrefixTrie<String> loaded : List.of(
+                PrefixTrieFile.read(path, ValueCodec.utf8()),
+                PrefixTrieFile.map(path, ValueCodec.utf8(), true)
+        )) {
+            assertThat(loaded.size()).isEqualTo(frozen.size());
+            assertThat(loaded.nodeCount()).isEqualTo(frozen.nodeCount());
+            assertThat(loaded.stream().collect(Collectors.toList())).containsExactlyElementsOf(expected);
+            assertThat(loaded.findClosest("70000141234")).isEqualTo(new Entry<>("7000014", "оператор-2"));
+            assertThat(loaded.findExact("8")).extracting(Entry::value).isNull();
+        }
+
+        assertThat(PrefixTrieFile.map(path, ValueCodec.utf8(), false).memoryFootprint())
+                .isLessThan(frozen.memoryFootprint());
+    }
+
+    @Test
+    public void testCorruptedFileIsRejected() throws IOException {
+        PrefixTrie<String> trie = new PrefixTrie<>();
+        trie.add("123", "foo");
+        Path path = tempDir.resolve("trie.bin");
+        PrefixTrieFile.write(trie.freeze(), path, ValueCodec.utf8());
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        assertThatThrownBy(() -> PrefixTrieFile.read(path, ValueCodec.utf8()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+
+        Files.write(path, new byte[] { 1, 2, 3 });
+        assertThatThrownBy(() -> PrefixTrieFile.map(path, ValueCodec.utf8(), false))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -6,6 +6,7 @@ import corf.base.collection.PrefixTrie.Entry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -283,6 +284,36 @@ public class PrefixTrieTest {
         assertThat(getPrefixList(trie)).containsExactlyInAnyOrderElementsOf(expectedResult);
     }
 
+    @Test
+    public void testBatchFindClosest() {
+        PrefixTrie<Integer> trie = new PrefixTrie<>();
+        trie.add("7", 7);
+        trie.add("79", 79);
+        trie.add("7916", 7916);
+
+        // the last one is "79161" in arabic-indic digits
+        CharSequence[] numbers = {
+                "79161234567", "7495", "123", "", null, "79x16", new StringBuilder("791"), "\u0667\u0669\u0661\u0666\u0661"
+        };
+        int[] lengths = new int[numbers.length];
+        Integer[] values = new Integer[numbers.length];
+        trie.findClosest(numbers, lengths, values);
+        assertThat(lengths).containsExactly(4, 1, 0, 0, 0, 2, 2, 4);
+        assertThat(values).containsExactly(7916, 7, null, null, null, 79, 79, 7916);
+
+        long[] longNumbers = { 79161234567L, 7495L, 123L, 0L, -7L };
+        trie.findClosest(longNumbers, lengths, values);
+        assertThat(lengths).startsWith(4, 1, 0, 0, 0);
+        assertThat(values).startsWith(7916, 7, null, null, null);
+
+        List<String> results = new ArrayList<>();
+        trie.findClosest(Stream.of("7916", "80"), (number, length, value) -> results.add(length + ":" + value));
+        assertThat(results).containsExactly("4:7916", "0:null");
+
+        assertThatThrownBy(() -> trie.findClosest(numbers, new int[1], values))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     private <T> List<String> getPrefixList(PrefixTrie<T> trie) {
         return trie.stream().map(Entry::prefix).collect(Collectors.toList());
     }
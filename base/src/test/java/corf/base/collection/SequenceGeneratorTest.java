@@ -0,0 +1,93 @@
+package corf.base.collection;
+
+import org.junit.jupiter.api.Test;
+import corf.base.collection.SequenceGenerator.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SequenceGeneratorTest {
+
+    static final BiFunction<String, Double, Long> CONVERTER = (id, v) -> v.longValue();
+
+    @Test
+    public void testGenerate() {
+        var generator = new SequenceGenerator<>(List.of(
+                new Rule<>("A", 10, 1, 2),
+                new Rule<>("B", 0, 5, 2)
+        ), CONVERTER);
+
+        assertThat(generator.size()).isEqualTo(4);
+        assertThat(generator.generate()).containsExactly(
+                Map.of("A", 10L, "B", 0L),
+                Map.of("A", 10L, "B", 5L),
+                Map.of("A", 11L, "B", 0L),
+                Map.of("A", 11L, "B", 5L)
+        );
+    }
+
+    @Test
+    public void testEmptySequence() {
+        assertThat(new SequenceGenerator<>(List.<Rule<String>>of(), CONVERTER).generate()).isEmpty();
+
+        var generator = new SequenceGenerator<>(List.of(
+                new Rule<>("A", 0, 1, 10),
+                new Rule<>("B", 0, 1, 0)
+        ), CONVERTER);
+        assertThat(generator.size()).isZero();
+        assertThat(generator.stream()).isEmpty();
+    }
+
+    @Test
+    public void testParallelStreamPreservesOrder() {
+        var generator = new SequenceGenerator<>(List.of(
+                new Rule<>("A", 0, 1, 17),
+                new Rule<>("B", 100, -1, 31),
+                new Rule<>("C", 5, 2, 53)
+        ), CONVERTER);
+
+        List<Map<String, Long>> sequential = generator.stream().toList();
+        assertThat(sequential).hasSize(17 * 31 * 53);
+        assertThat(sequential.get(0)).isEqualTo(Map.of("A", 0L, "B", 100L, "C", 5L));
+        assertThat(sequential.get(sequential.size() - 1)).isEqualTo(Map.of("A", 16L, "B", 70L, "C", 109L));
+        assertThat(generator.stream().parallel().toList()).isEqualTo(sequential);
+        assertThat(generator.stream().skip(1000).limit(3).toList()).isEqualTo(sequential.subList(1000, 1003));
+    }
+
+    @Test
+    public void testVisitMatchesStream() {
+        var generator = new SequenceGenerator<>(List.of(
+                new Rule<>("A", 0, 1, 7),
+                new Rule<>("B", 100, -1, 11),
+                new Rule<>("C", 5, 2, 13)
+        ), CONVERTER);
+
+        var visited = new ArrayList<Map<String, Long>>();
+        generator.visit(values -> {
+            visited.add(Map.of("A", (long) values[0], "B", (long) values[1], "C", (long) values[2]));
+            return true;
+        });
+        assertThat(visited).isEqualTo(generator.stream().toList());
+
+        visited.clear();
+        generator.visit(values -> {
+            visited.add(Map.of("A", (long) values[0], "B", (long) values[1], "C", (long) values[2]));
+            return visited.size() < 3;
+        });
+        assertThat(visited).isEqualTo(generator.stream().limit(3).toList());
+
+        var empty = new SequenceGenerator<>(List.of(new Rule<>("A", 0, 1, 0)), CONVERTER);
+        empty.visit(values -> { throw new AssertionError(); });
+    }
+
+    @Test
+    public void testExpectedSizeDoesNotOverflow() {
+        var rule = new Rule<>("A", 0, 1, Integer.MAX_VALUE);
+        assertThat(SequenceGenerator.getExpectedSize(List.of(rule, rule))).isEqualTo((long) Integer.MAX_VALUE * Integer.MAX_VALUE);
+        assertThat(SequenceGenerator.getExpectedSize(List.of(rule, rule, rule))).isEqualTo(Long.MAX_VALUE);
+    }
+}
@@ -1,20 +1,27 @@
 package corf.base.db;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
 import corf.base.OrdinaryTest;
 import corf.base.db.FileBasedRepository.Transaction;
 import corf.base.exception.AppException;
+import corf.base.io.JacksonMappers;
+import corf.base.io.JacksonYamlSerializer;
 import corf.base.io.Serializer;
 import corf.tests.util.UUIDHelper;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -24,8 +31,14 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 @TestMethodOrder(MethodOrderer.DisplayName.class)
 public class FileBasedRepositoryTest {
 
+    private static final Serializer<Collection<FooEntity>> YAML_SERIALIZER =
+            new JacksonYamlSerializer<>(JacksonMappers.createYamlMapper(), new TypeReference<>() { });
+
     public final FooFileBasedRepository fooRepository;
 
+    @TempDir
+    Path tempDir;
+
     public FileBasedRepositoryTest() {
         this.fooRepository = new FooFileBasedRepository();
     }
@@ -344,9 +357,10 @@ public class FileBasedRepositoryTest {
         FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "ent_3");
         fooRepository.addAll(List.of(entity1));
 
-        Transaction transaction = fooRepository.beginTransaction(false);
+        Transaction transaction = fooRepository.beginTransaction();
         try {
             fooRepository.addAll(List.of(entity2, entity3));
+            transaction.commit();
         } catch (Throwable t) {
             transaction.rollback();
         }
@@ -363,7 +377,7 @@ public class FileBasedRepositoryTest {
         FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "ent_3");
         fooRepository.addAll(List.of(entity1));
 
-        Transaction transaction = fooRepository.beginTransaction(false);
+        Transaction transaction = fooRepository.beginTransaction();
         try {
             fooRepository.addAll(List.of(entity2, entity3));
             throw new RuntimeException("Trigger rollback");
@@ -421,7 +435,266 @@ public class FileBasedRepositoryTest {
         assertThat(fooRepository.count()).isEqualTo(3);
     }
 
-    public static class FooFileBasedRepository extends FileBasedRepository<FooEntity, UUID> { }
+    @Test
+    @DisplayName("find entities by index key and assert only matching entities returned")
+    public void findAllBy_IndexKey_Found() {
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "foo");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "bar");
+        FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "foo");
+        FooEntity entity4 = new FooEntity(UUIDHelper.fromInt(4), null);
+        fooRepository.addAll(List.of(entity1, entity2, entity3, entity4));
+
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "foo")).containsOnly(entity1, entity3);
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "baz")).isEmpty();
+        assertThat(fooRepository.findAllMatching(fooRepository.nameIndex, name -> name.startsWith("b")))
+                .containsOnly(entity2);
+        assertThat(fooRepository.getKeys(fooRepository.nameIndex)).containsOnly("foo", "bar");
+    }
+
+    @Test
+    @DisplayName("update and remove entities and assert index was updated")
+    public void findAllBy_ModifiedEntities_IndexUpdated() {
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "foo");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "bar");
+        fooRepository.addAll(List.of(entity1, entity2));
+
+        FooEntity entity1Upd = entity1.copy();
+        entity1Upd.setName("baz");
+        fooRepository.update(entity1Upd);
+        fooRepository.remove(entity2);
+
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "foo")).isEmpty();
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "baz")).containsOnly(entity1Upd);
+        assertThat(fooRepository.containsKey(fooRepository.nameIndex, "bar")).isFalse();
+        assertThat(fooRepository.getKeys(fooRepository.nameIndex)).containsOnly("baz");
+
+        fooRepository.clear();
+        assertThat(fooRepository.getKeys(fooRepository.nameIndex)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("add entities within transaction then trigger rollback and assert index was restored")
+    public void transactionRollback_AddEntities_IndexRestored() {
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "foo");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "bar");
+        fooRepository.addAll(List.of(entity1));
+
+        Transaction transaction = fooRepository.beginTransaction();
+        fooRepository.add(entity2);
+        fooRepository.removeById(entity1.getId());
+        transaction.rollback();
+
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "foo")).containsOnly(entity1);
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "bar")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("begin multiple transactions then rollback the outer one and assert its version restored")
+    public void transactionRollback_NestedTransactions_VersionRestored() {
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "ent_1");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "ent_2");
+        FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "ent_3");
+        fooRepository.addAll(List.of(entity1));
+
+        Transaction outer = fooRepository.beginTransaction();
+        fooRepository.add(entity2);
+        List<FooEntity> snapshot = fooRepository.getAll();
+
+        Transaction inner = fooRepository.beginTransaction();
+        fooRepository.add(entity3);
+        fooRepository.removeById(entity1.getId());
+        inner.rollback();
+
+        assertThat(fooRepository.getAll()).containsOnly(entity1, entity2);
+        assertThat(snapshot).containsOnly(entity1, entity2);
+
+        outer.rollback();
+        assertThat(fooRepository.getAll()).containsOnly(entity1);
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "ent_2")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("modify repository from another thread within transaction then rollback and assert other changes kept")
+    public void transactionRollback_ConcurrentWriter_OtherChangesKept() throws Exception {
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "ent_1");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "ent_2");
+        FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "ent_3");
+        fooRepository.addAll(List.of(entity1, entity2));
+
+        Transaction transaction = fooRepository.beginTransaction();
+        fooRepository.removeById(entity1.getId());
+
+        FooEntity entity2Upd = entity2.copy();
+        entity2Upd.setName("upd_2");
+        var writer = new Thread(() -> {
+            fooRepository.update(entity2Upd);
+            fooRepository.add(entity3);
+        });
+        writer.start();
+        writer.join();
+
+        transaction.rollback();
+
+        assertThat(fooRepository.getAll()).containsOnly(entity1, entity2, entity3);
+        assertThat(fooRepository.findById(entity2.getId())).get().hasFieldOrPropertyWithValue("name", "upd_2");
+        assertThat(fooRepository.findAllBy(fooRepository.nameIndex, "ent_1")).containsOnly(entity1);
+    }
+
+    @Test
+    @DisplayName("rollback journaled repository and assert only changed entities were journaled")
+    public void journal_TransactionRollback_ChangesRestored() throws IOException {
+        Path snapshotFile = tempDir.resolve("foo.yaml");
+        fooRepository.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "ent_1");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "ent_2");
+        fooRepository.addAll(List.of(entity1, entity2));
+
+        Transaction transaction = fooRepository.beginTransaction();
+        FooEntity entity1Upd = entity1.copy();
+        entity1Upd.setName("upd_1");
+        fooRepository.update(entity1Upd);
+        fooRepository.removeById(entity2.getId());
+        fooRepository.add(new FooEntity(UUIDHelper.fromInt(3), "ent_3"));
+        transaction.rollback();
+        fooRepository.closeJournal();
+
+        var reopened = new FooFileBasedRepository();
+        reopened.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+        assertThat(reopened.getAll()).containsOnly(entity1, entity2);
+        assertThat(reopened.findById(UUIDHelper.fromInt(1))).get().hasFieldOrPropertyWithValue("name", "ent_1");
+        reopened.closeJournal();
+    }
+
+    @Test
+    @DisplayName("modify journaled repository then reopen it and assert all changes were restored")
+    public void journal_ReopenRepository_ChangesRestored() throws IOException {
+        Path snapshotFile = tempDir.resolve("foo.yaml");
+        fooRepository.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "ent_1");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "ent_2");
+        FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "ent_3");
+        fooRepository.addAll(List.of(entity1, entity2, entity3));
+
+        FooEntity entity1Upd = entity1.copy();
+        entity1Upd.setName("upd_1");
+        fooRepository.update(entity1Upd);
+        fooRepository.remove(entity2);
+        fooRepository.syncJournal();
+        fooRepository.closeJournal();
+
+        // nothing but journal has been written
+        assertThat(snapshotFile).doesNotExist();
+        assertThat(tempDir.resolve("foo.yaml.journal")).exists();
+
+        var reopened = new FooFileBasedRepository();
+        reopened.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+        assertThat(reopened.getAll()).containsOnly(entity1, entity3);
+        assertThat(reopened.findById(UUIDHelper.fromInt(1))).get().hasFieldOrPropertyWithValue("name", "upd_1");
+        assertThat(reopened.findAllBy(reopened.nameIndex, "ent_3")).containsOnly(entity3);
+        reopened.closeJournal();
+    }
+
+    @Test
+    @DisplayName("compact journaled repository and assert snapshot written and journal truncated")
+    public void journal_Compaction_SnapshotWritten() throws IOException {
+        Path snapshotFile = tempDir.resolve("foo.yaml");
+        Path journalFile = tempDir.resolve("foo.yaml.journal");
+        fooRepository.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "ent_1");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "ent_2");
+        fooRepository.addAll(List.of(entity1, entity2));
+        fooRepository.compactJournal();
+
+        assertThat(Files.size(journalFile)).isZero();
+        try (InputStream inputStream = Files.newInputStream(snapshotFile)) {
+            assertThat(YAML_SERIALIZER.deserialize(inputStream)).containsOnly(entity1, entity2);
+        }
+
+        FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "ent_3");
+        fooRepository.add(entity3);
+        fooRepository.closeJournal();
+
+        // simulate compaction that failed after journal rotation
+        Files.move(journalFile, tempDir.resolve("foo.yaml.journal.old"));
+
+        var reopened = new FooFileBasedRepository();
+        reopened.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+        assertThat(reopened.getAll()).containsOnly(entity1, entity2, entity3);
+        // rotated journal is compacted right after opening
+        assertThat(tempDir.resolve("foo.yaml.journal.old")).doesNotExist();
+        reopened.closeJournal();
+    }
+
+    @Test
+    @DisplayName("sync journaled repository concurrently with compaction and assert no changes lost")
+    public void journal_SyncDuringCompaction_ChangesSaved() throws Exception {
+        Path snapshotFile = tempDir.resolve("foo.yaml");
+        fooRepository.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+
+        int count = 300;
+        var writer = Executors.newSingleThreadExecutor();
+        Future<?> writes = writer.submit(() -> {
+            for (int i = 1; i <= count; i++) {
+                fooRepository.add(new FooEntity(UUIDHelper.fromInt(i), "ent_" + i));
+                fooRepository.syncJournal();
+            }
+            return null;
+        });
+        try {
+            while (!writes.isDone()) {
+                fooRepository.compactJournal();
+            }
+            writes.get(); // rethrows writer failure, if any
+        } finally {
+            writer.shutdownNow();
+        }
+        fooRepository.closeJournal();
+
+        var reopened = new FooFileBasedRepository();
+        reopened.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+        assertThat(reopened.count()).isEqualTo(count);
+        reopened.closeJournal();
+    }
+
+    @Test
+    @DisplayName("reopen journaled repository with torn journal tail and assert valid records restored")
+    public void journal_TornTail_Discarded() throws IOException {
+        Path snapshotFile = tempDir.resolve("foo.yaml");
+        Path journalFile = tempDir.resolve("foo.yaml.journal");
+        fooRepository.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+
+        FooEntity entity1 = new FooEntity(UUIDHelper.fromInt(1), "ent_1");
+        FooEntity entity2 = new FooEntity(UUIDHelper.fromInt(2), "ent_2");
+        fooRepository.add(entity1);
+        fooRepository.add(entity2);
+        fooRepository.closeJournal();
+
+        // cut the last record in half
+        long size = Files.size(journalFile);
+        try (var channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 10);
+        }
+
+        var reopened = new FooFileBasedRepository();
+        reopened.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+        assertThat(reopened.getAll()).containsOnly(entity1);
+
+        FooEntity entity3 = new FooEntity(UUIDHelper.fromInt(3), "ent_3");
+        reopened.add(entity3);
+        reopened.closeJournal();
+
+        reopened.openJournal(snapshotFile, YAML_SERIALIZER, Runnable::run);
+        assertThat(reopened.getAll()).containsOnly(entity1, entity3);
+        reopened.closeJournal();
+    }
+
+    public static class FooFileBasedRepository extends FileBasedRepository<FooEntity, UUID> {
+
+        public final Index<String> nameIndex = createIndex(FooEntity::getName);
+    }
 
     public static class FooDummySerializer implements Serializer<Collection<FooEntity>> {
 
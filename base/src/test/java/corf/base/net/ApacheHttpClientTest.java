@@ -0,0 +1,32 @@
+package corf.base.net;
+
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+import corf.base.net.ApacheHttpClient.PoolOptions;
+import corf.base.net.ApacheHttpClient.PoolStats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@OrdinaryTest
+public class ApacheHttpClientTest {
+
+    @Test
+    public void testPoolStatsAvailableOnlyForPooledClient() {
+        try (var client = ApacheHttpClient.builder().trustAllCertificates().build()) {
+            assertThat(client.getPoolStats()).isNull();
+        }
+
+        try (var client = ApacheHttpClient.builder()
+                .trustAllCertificates()
+                .connectionPool(PoolOptions.forConcurrency(8))
+                .build()) {
+            assertThat(client.getPoolStats()).isEqualTo(new PoolStats(0, 0, 0, 8));
+        }
+    }
+
+    @Test
+    public void testInvalidPoolLimitsRejected() {
+        assertThatThrownBy(() -> PoolOptions.forConcurrency(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
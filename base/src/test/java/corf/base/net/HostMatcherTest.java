@@ -0,0 +1,82 @@
+package corf.base.net;
+
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+import corf.base.preferences.Proxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@OrdinaryTest
+public class HostMatcherTest {
+
+    static final List<String> EXPRESSIONS = List.of(
+            "192.168.1.1",
+            "10.20.*",
+            "172.21.1.0/24",
+            "192.168/16",
+            "fe80::/10",
+            "10.*.1.1",
+            "Example.com",
+            "*.example.org",
+            "*.internal.example.net",
+            "foo.*.example.com",
+            "*local*",
+            " "
+    );
+
+    static final List<String> ADDRESSES = List.of(
+            "192.168.1.1", "192.168.1.2", "10.20.30.40", "10.21.30.40", "172.21.1.77", "172.21.2.1",
+            "192.0.0.168", "fe80::1", "2001:db8::1", "10.99.1.1", "10.99.1.2",
+            "example.com", "EXAMPLE.COM ", "foo.example.com", "example.org", "a.example.org",
+            "a.b.example.org", "internal.example.net", "x.internal.example.net", "foo.bar.example.com",
+            "localhost", "my-local-host", "google.com", "1password.com", "", " "
+    );
+
+    @Test
+    public void testMatchesSameAsProxyMatch() {
+        var matcher = HostMatcher.of(EXPRESSIONS);
+
+        for (String address : ADDRESSES) {
+            boolean expected = EXPRESSIONS.stream().anyMatch(e -> Proxy.match(e, address));
+            assertThat(matcher.matches(address)).as(address).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testEachExpressionSeparately() {
+        for (String expression : EXPRESSIONS) {
+            var matcher = HostMatcher.of(List.of(expression));
+            for (String address : ADDRESSES) {
+                assertThat(matcher.matches(address))
+                        .as(expression + " ∋ " + address)
+                        .isEqualTo(Proxy.match(expression, address));
+            }
+        }
+    }
+
+    @Test
+    public void testManyExpressions() {
+        var expressions = new ArrayList<String>();
+        for (int i = 0; i < 10_000; i++) {
+            expressions.add("10." + (i >> 8) + "." + (i & 0xFF) + ".0/24");
+            expressions.add("*.host" + i + ".example.com");
+        }
+        var matcher = HostMatcher.of(expressions);
+
+        assertThat(matcher.matches("10.39.15.1")).isTrue();
+        assertThat(matcher.matches("10.40.0.1")).isFalse();
+        assertThat(matcher.matches("www.host9999.example.com")).isTrue();
+        assertThat(matcher.matches("host9999.example.com")).isFalse();
+        assertThat(matcher.matches("www.host10000.example.com")).isFalse();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(HostMatcher.empty().matches("example.com")).isFalse();
+        assertThat(HostMatcher.of(List.of()).isEmpty()).isTrue();
+        assertThat(HostMatcher.of(List.of("example.com")).matches(null)).isFalse();
+    }
+}
@@ -0,0 +1,105 @@
+package corf.base.net;
+
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static corf.base.net.IPv4Cidr.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@OrdinaryTest
+public class IPv4CidrTest {
+
+    @Test
+    public void testNetworkProperties() {
+        int address = parseAddress("192.168.1.77");
+
+        assertThat(IPv4Cidr.toString(netmask(27))).isEqualTo("255.255.255.224");
+        assertThat(IPv4Cidr.toString(network(address, 27))).isEqualTo("192.168.1.64");
+        assertThat(IPv4Cidr.toString(lastAddress(address, 27))).isEqualTo("192.168.1.95");
+        assertThat(IPv4Cidr.toString(minHost(address, 27))).isEqualTo("192.168.1.65");
+        assertThat(IPv4Cidr.toString(maxHost(address, 27))).isEqualTo("192.168.1.94");
+        assertThat(usableHostCount(27)).isEqualTo(30);
+        assertThat(usableHostCount(31)).isEqualTo(2);
+        assertThat(size(0)).isEqualTo(1L << 32);
+        assertThat(netmask(0)).isZero();
+
+        assertThat(contains(parseAddress("10.0.0.0"), 8, parseAddress("10.255.0.1"))).isTrue();
+        assertThat(contains(parseAddress("10.0.0.0"), 8, parseAddress("11.0.0.1"))).isFalse();
+        assertThat(contains(parseAddress("10.0.0.0"), 8, parseAddress("10.1.0.0"), 16)).isTrue();
+        assertThat(contains(parseAddress("10.1.0.0"), 16, parseAddress("10.0.0.0"), 8)).isFalse();
+    }
+
+    @Test
+    public void testParseAddress() {
+        assertThat(parseAddress("255.255.255.255")).isEqualTo(-1);
+        assertThat(parseAddress("0.0.0.0")).isZero();
+        for (String invalid : List.of("", "1.2.3", "1.2.3.4.5", "1..2.3", "256.1.1.1", "1.2.3.4 ", "a.b.c.d")) {
+            assertThatThrownBy(() -> parseAddress(invalid)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void testSplitMatchesIPv4Network() {
+        var network = new IPv4Network("172.16.0.0/20");
+        List<String> expected = network.split(6).stream().map(IPv4Network::toString).toList();
+
+        List<String> actual = new ArrayList<>();
+        forEachSubnet(parseAddress("172.16.0.0"), 20, 6, a -> actual.add(IPv4Cidr.toString(a, 26)));
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(IPv4Cidr.toString(subnet(parseAddress("172.16.0.0"), 20, 6, 63))).isEqualTo("172.16.15.192");
+        assertThat(network.getSubnet(6, 63).toString()).isEqualTo("172.16.15.192/26");
+
+        // a /8 split into /30 is addressable without enumeration
+        assertThat(subnetCount(8, 22)).isEqualTo(1 << 22);
+        assertThat(IPv4Cidr.toString(subnet(parseAddress("10.0.0.0"), 8, 22, (1 << 22) - 1))).isEqualTo("10.255.255.252");
+    }
+
+    @Test
+    public void testHosts() {
+        assertThat(hosts(parseAddress("192.168.1.0"), 30).mapToObj(IPv4Cidr::toString).toList())
+                .containsExactly("192.168.1.1", "192.168.1.2");
+        assertThat(hosts(parseAddress("192.168.1.0"), 31).count()).isEqualTo(2);
+        assertThat(hosts(parseAddress("255.255.255.255"), 32).toArray()).containsExactly(-1);
+        assertThat(hosts(parseAddress("10.0.0.0"), 8).count()).isEqualTo((1 << 24) - 2);
+    }
+
+    @Test
+    public void testAggregate() {
+        String[] input = {
+                "10.0.1.0/24", "10.0.0.0/24", "10.0.0.128/25", "192.168.0.0/24",
+                "10.0.2.0/23", "192.168.1.0/24", "192.168.3.0/24", "0.0.0.0/32"
+        };
+        int[] addresses = new int[input.length];
+        int[] prefixes = new int[input.length];
+        for (int i = 0; i < input.length; i++) {
+            String[] parts = input[i].split("/");
+            addresses[i] = parseAddress(parts[0]);
+            prefixes[i] = Integer.parseInt(parts[1]);
+        }
+
+        int count = aggregate(addresses, prefixes, input.length);
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(IPv4Cidr.toString(addresses[i], prefixes[i]));
+        }
+        assertThat(result).containsExactly("0.0.0.0/32", "10.0.0.0/22", "192.168.0.0/23", "192.168.3.0/24");
+    }
+
+    @Test
+    public void testForEachCidr() {
+        List<String> result = new ArrayList<>();
+        forEachCidr(Integer.toUnsignedLong(parseAddress("10.0.0.1")), Integer.toUnsignedLong(parseAddress("10.0.0.10")),
+                (a, p) -> result.add(IPv4Cidr.toString(a, p)));
+        assertThat(result).containsExactly("10.0.0.1/32", "10.0.0.2/31", "10.0.0.4/30", "10.0.0.8/31", "10.0.0.10/32");
+
+        result.clear();
+        forEachCidr(IPv4Host.MIN_VALUE, IPv4Host.MAX_VALUE, (a, p) -> result.add(IPv4Cidr.toString(a, p)));
+        assertThat(result).containsExactly("0.0.0.0/0");
+    }
+}
@@ -0,0 +1,132 @@
+package corf.base.net;
+
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@OrdinaryTest
+public class IPv4RangeSetTest {
+
+    @Test
+    public void testAggregate() {
+        var set = IPv4RangeSet.of(
+                "10.0.1.0/24", "10.0.0.0/24", "10.0.0.128/25", "10.0.2.0/23",
+                "192.168.0.0/24", "192.168.1.0/24", "192.168.3.5", " 172.16.0.1-172.16.0.10 "
+        );
+
+        assertThat(set.toCidrList()).containsExactly(
+                "10.0.0.0/22",
+                "172.16.0.1/32", "172.16.0.2/31", "172.16.0.4/30", "172.16.0.8/31", "172.16.0.10/32",
+                "192.168.0.0/23", "192.168.3.5/32"
+        );
+        assertThat(set.rangeCount()).isEqualTo(4);
+        assertThat(set.cidrCount()).isEqualTo(8);
+        assertThat(set.addressCount()).isEqualTo(1024 + 10 + 512 + 1);
+    }
+
+    @Test
+    public void testHostBitsAreIgnored() {
+        assertThat(IPv4RangeSet.of("10.1.2.3/8").toCidrList()).containsExactly("10.0.0.0/8");
+        assertThat(IPv4RangeSet.of("1.2.3.4/0").toCidrList()).containsExactly("0.0.0.0/0");
+    }
+
+    @Test
+    public void testInvalidInput() {
+        for (String invalid : List.of("10.0.0.0/33", "10.0.0.0/", "10.0.0.0/x", "10.0.0.5-10.0.0.1", "10.0.0", "")) {
+            assertThatThrownBy(() -> IPv4RangeSet.of(invalid)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void testSetOperations() {
+        var a = IPv4RangeSet.of("10.0.0.0/8", "192.168.0.0/16");
+        var b = IPv4RangeSet.of("10.128.0.0/9", "172.16.0.0/12", "192.168.1.0/24");
+
+        assertThat(a.union(b).toCidrList())
+                .containsExactly("10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16");
+        assertThat(a.intersection(b).toCidrList())
+                .containsExactly("10.128.0.0/9", "192.168.1.0/24");
+        assertThat(a.difference(b).toCidrList())
+                .containsExactly("10.0.0.0/9", "192.168.0.0/24", "192.168.2.0/23", "192.168.4.0/22",
+                                 "192.168.8.0/21", "192.168.16.0/20", "192.168.32.0/19", "192.168.64.0/18",
+                                 "192.168.128.0/17");
+        assertThat(b.difference(a).toCidrList()).containsExactly("172.16.0.0/12");
+
+        assertThat(IPv4RangeSet.of("0.0.0.0/1").complement().toCidrList()).containsExactly("128.0.0.0/1");
+        assertThat(IPv4RangeSet.empty().complement().toCidrList()).containsExactly("0.0.0.0/0");
+        assertThat(IPv4RangeSet.of("0.0.0.0/0").complement().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testContainment() {
+        var set = IPv4RangeSet.of("10.0.0.0/8", "192.168.1.0/24");
+
+        assertThat(set.contains(IPv4Cidr.parseAddress("10.20.30.40"))).isTrue();
+        assertThat(set.contains(IPv4Cidr.parseAddress("192.168.2.1"))).isFalse();
+        assertThat(set.contains(IPv4Cidr.parseAddress("10.1.0.0"), 16)).isTrue();
+        assertThat(set.contains(IPv4Cidr.parseAddress("192.168.0.0"), 16)).isFalse();
+
+        assertThat(set.containsAll(IPv4RangeSet.of("10.1.0.0/16", "192.168.1.128/25"))).isTrue();
+        assertThat(set.containsAll(IPv4RangeSet.of("10.1.0.0/16", "11.0.0.1"))).isFalse();
+        assertThat(set.containsAll(IPv4RangeSet.empty())).isTrue();
+
+        assertThat(set.intersects(IPv4RangeSet.of("192.168.0.0/16"))).isTrue();
+        assertThat(set.intersects(IPv4RangeSet.of("172.16.0.0/12"))).isFalse();
+    }
+
+    @Test
+    public void testOperationsMatchBruteForce() {
+        // small address space to compare against a bitmap
+        var random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            boolean[] bitsA = new boolean[256], bitsB = new boolean[256];
+            var a = randomSet(random, bitsA);
+            var b = randomSet(random, bitsB);
+
+            assertThat(toBits(a.union(b))).isEqualTo(combine(bitsA, bitsB, (x, y) -> x || y));
+            assertThat(toBits(a.intersection(b))).isEqualTo(combine(bitsA, bitsB, (x, y) -> x && y));
+            assertThat(toBits(a.difference(b))).isEqualTo(combine(bitsA, bitsB, (x, y) -> x && !y));
+            assertThat(a.containsAll(a.intersection(b))).isTrue();
+            assertThat(a.union(b).containsAll(b)).isTrue();
+            assertThat(a.intersects(b)).isEqualTo(!a.intersection(b).isEmpty());
+            assertThat(IPv4RangeSet.builder().addAll(a).build()).isEqualTo(a);
+        }
+    }
+
+    private static IPv4RangeSet randomSet(Random random, boolean[] bits) {
+        var builder = IPv4RangeSet.builder();
+        for (int i = 0; i < 10; i++) {
+            int start = random.nextInt(256);
+            int end = Math.min(255, start + random.nextInt(20));
+            builder.addRange(start, end);
+            for (int a = start; a <= end; a++) { bits[a] = true; }
+        }
+        return builder.build();
+    }
+
+    private static boolean[] toBits(IPv4RangeSet set) {
+        boolean[] bits = new boolean[256];
+        set.forEachRange((start, end) -> {
+            for (long a = start; a <= end; a++) { bits[(int) a] = true; }
+        });
+        return bits;
+    }
+
+    private static boolean[] combine(boolean[] a, boolean[] b, BooleanOperator op) {
+        boolean[] result = new boolean[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = op.apply(a[i], b[i]);
+        }
+        return result;
+    }
+
+    private interface BooleanOperator {
+
+        boolean apply(boolean a, boolean b);
+    }
+}
@@ -0,0 +1,77 @@
+package corf.base.text;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@OrdinaryTest
+public class CSVFileTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("corf", ".csv");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRowsAreReadLazily() throws IOException {
+        Files.writeString(file, "﻿a,b\n\n  \nc;d\r\ne\n", StandardCharsets.UTF_8);
+
+        var csv = new CSVFile(file);
+        assertThat(csv.length()).isEqualTo(3);
+
+        var rows = new ArrayList<String[]>();
+        try (CSVReader reader = csv.open()) {
+            reader.forEachRemaining(rows::add);
+        }
+
+        assertThat(rows).containsExactly(
+                new String[] { "a", "b" },
+                new String[] { "c", "d" },
+                new String[] { "e" }
+        );
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        var csv = new CSVFile(file);
+        assertThat(csv.length()).isZero();
+        try (CSVReader reader = csv.open()) {
+            assertThat(reader.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void testInMemorySourceMatchesFile() throws IOException {
+        String text = "1,2\n3,4";
+        Files.writeString(file, text);
+
+        List<String[]> fromFile = new ArrayList<>();
+        try (CSVReader reader = new CSVFile(file).open()) {
+            reader.forEachRemaining(fromFile::add);
+        }
+
+        List<String[]> fromText = new ArrayList<>();
+        try (CSVReader reader = CSV.from(text).open()) {
+            reader.forEachRemaining(fromText::add);
+        }
+
+        assertThat(fromFile).containsExactlyElementsOf(fromText);
+    }
+}
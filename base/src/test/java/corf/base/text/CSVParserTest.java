@@ -0,0 +1,101 @@
+package corf.base.text;
+
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@OrdinaryTest
+public class CSVParserTest {
+
+    @Test
+    public void testUnquotedFields() {
+        assertThat(CSVParser.DEFAULT.parse("a,b;c\r\n1,,3\r4,5,\n")).isDeepEqualTo(new String[][] {
+                { "a", "b", "c" },
+                { "1", "", "3" },
+                { "4", "5", "" }
+        });
+    }
+
+    @Test
+    public void testQuotedFields() {
+        String text = "\"a,b\",\"say \"\"hi\"\"\",\"\"\n" +
+                "\"multi\nline\",x\"y\n";
+        assertThat(CSVParser.DEFAULT.parse(text)).isDeepEqualTo(new String[][] {
+                { "a,b", "say \"hi\"", "" },
+                { "multi\nline", "x\"y" }
+        });
+    }
+
+    @Test
+    public void testBlankLinesAndBomAreSkipped() {
+        assertThat(CSVParser.DEFAULT.parse("﻿a\n\n   \r\n\" \"\n")).isDeepEqualTo(new String[][] {
+                { "a" },
+                { " " }
+        });
+        assertThat(CSVParser.DEFAULT.parse("")).isEmpty();
+    }
+
+    @Test
+    public void testCustomSeparatorAndQuote() {
+        var parser = new CSVParser("\t", '\'');
+        assertThat(parser.parse("'a\tb'\t'it''s,c'\n")).isDeepEqualTo(new String[][] {
+                { "a\tb", "it's,c" }
+        });
+    }
+
+    @Test
+    public void testErrorsContainPosition() {
+        assertThatThrownBy(() -> CSVParser.DEFAULT.parse("a,b\nc,\"d\"e"))
+                .isInstanceOfSatisfying(CSVFormatException.class, e -> {
+                    assertThat(e.getRow()).isEqualTo(2);
+                    assertThat(e.getColumn()).isEqualTo(6);
+                });
+
+        assertThatThrownBy(() -> CSVParser.DEFAULT.parse("a\r\nb,\"c\nd"))
+                .isInstanceOfSatisfying(CSVFormatException.class, e -> {
+                    assertThat(e.getRow()).isEqualTo(2);
+                    assertThat(e.getColumn()).isEqualTo(3);
+                });
+    }
+
+    @Test
+    public void testFieldsSpanningBufferBoundary() throws IOException {
+        String value = "x".repeat(20_000);
+        String quoted = "y\"".repeat(10_000);
+        String text = value + ",\"" + quoted.replace("\"", "\"\"") + "\"\n1,2";
+
+        List<String[]> rows = new ArrayList<>();
+        // reader that returns data in small chunks
+        Reader reader = new StringReader(text) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 7));
+            }
+        };
+        try (CSVReader csv = CSVParser.DEFAULT.parse(reader)) {
+            csv.forEachRemaining(rows::add);
+        }
+
+        assertThat(rows).containsExactly(
+                new String[] { value, quoted },
+                new String[] { "1", "2" }
+        );
+    }
+
+    @Test
+    public void testFormattedRowCanBeParsedBack() {
+        String[] row = { "plain", "a,b", "say \"hi\"", "multi\nline", "" };
+        String line = CSVParser.DEFAULT.formatRow(row);
+
+        assertThat(line).isEqualTo("plain,\"a,b\",\"say \"\"hi\"\"\",\"multi\nline\",");
+        assertThat(CSVParser.DEFAULT.parse(line)).isDeepEqualTo(new String[][] { row });
+    }
+}
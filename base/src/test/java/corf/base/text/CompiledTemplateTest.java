@@ -0,0 +1,78 @@
+package corf.base.text;
+
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+import corf.base.text.CompiledTemplate.Escaped;
+import corf.base.text.CompiledTemplate.Literal;
+import corf.base.text.CompiledTemplate.Placeholder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@OrdinaryTest
+public class CompiledTemplateTest {
+
+    private static final List<String> PATTERNS = List.of(
+            "Hello, ${name}!",
+            "${name}${name}",
+            "Hello, \\${name}!",
+            "\\\\${name}\\",
+            "${missing} and ${name}",
+            "${}${name",
+            "multi\n${name}\nline",
+            "\\\uD83D\uDE00${name}",
+            "no placeholders",
+            "   ",
+            ""
+    );
+
+    @Test
+    public void testSegments() {
+        assertThat(CompiledTemplate.compile("a\\${b}${c}d").getSegments()).containsExactly(
+                new Literal("a"),
+                new Escaped("$"),
+                new Literal("{b}"),
+                new Placeholder("c"),
+                new Literal("d")
+        );
+        assertThat(CompiledTemplate.compile("\\\uD83D\uDE00").getSegments()).containsExactly(
+                new Escaped("\uD83D\uDE00")
+        );
+        assertThat(CompiledTemplate.compile(null).getSegments()).isEmpty();
+    }
+
+    @Test
+    public void testRenderMatchesReplace() {
+        var values = Map.of("name", "$world\\");
+        for (String pattern : PATTERNS) {
+            var template = CompiledTemplate.compile(pattern);
+            assertThat(template.render(values))
+                    .as(pattern)
+                    .isEqualTo(PlaceholderReplacer.replace(pattern, values));
+            assertThat(template.render(Collections.emptyMap()))
+                    .as(pattern)
+                    .isEqualTo(PlaceholderReplacer.replace(pattern, Collections.emptyMap()));
+        }
+    }
+
+    @Test
+    public void testRenderAppendsToBuffer() {
+        var template = CompiledTemplate.compile("${a}-${b}");
+        var sb = new StringBuilder("> ");
+
+        template.render(Map.of("a", "1", "b", "2"), sb);
+        template.render(Map.of("a", "3"), sb);
+
+        assertThat(sb.toString()).isEqualTo("> 1-23-${b}");
+    }
+
+    @Test
+    public void testHasPlaceholders() {
+        assertThat(CompiledTemplate.compile("Hello, ${name}!").hasPlaceholders()).isTrue();
+        assertThat(CompiledTemplate.compile("Hello, \\${name}!").hasPlaceholders()).isFalse();
+        assertThat(CompiledTemplate.compile("Hello, ${}!").hasPlaceholders()).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+package corf.base.text;
+
+import org.junit.jupiter.api.Test;
+import corf.base.OrdinaryTest;
+
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@OrdinaryTest
+public class PasswordGeneratorTest {
+
+    @Test
+    public void testRandomUsesOnlyAlphabetChars() {
+        char[] alphabet = "abc123".toCharArray();
+        String password = PasswordGenerator.random(1000, alphabet);
+
+        assertThat(password).hasSize(1000).matches("[abc123]+");
+        // with 1000 chars every symbol must appear, otherwise sampling is broken
+        assertThat(password.chars().distinct().count()).isEqualTo(alphabet.length);
+    }
+
+    @Test
+    public void testRandomIsNotBiased() {
+        // 200 doesn't divide 256, plain modulo would make the first 56 chars twice as frequent
+        char[] alphabet = new char[200];
+        for (int i = 0; i < alphabet.length; i++) { alphabet[i] = (char) ('Ā' + i); }
+
+        int[] counts = new int[alphabet.length];
+        var sb = new StringBuilder();
+        PasswordGenerator.appendRandom(sb, 400_000, alphabet, new Random(42));
+        sb.chars().forEach(c -> counts[c - 'Ā']++);
+
+        long firstHalf = 0, secondHalf = 0;
+        for (int i = 0; i < 56; i++) { firstHalf += counts[i]; }
+        for (int i = 56; i < 112; i++) { secondHalf += counts[i]; }
+        assertThat((double) firstHalf / secondHalf).isBetween(0.95, 1.05);
+    }
+
+    @Test
+    public void testBulk() throws Exception {
+        int count = PasswordGenerator.BULK_CHUNK_SIZE * 3 + 7;
+        char[] alphabet = PasswordGenerator.toCharArray(PasswordGenerator.ASCII_LOWER_UPPER_DIGITS);
+
+        var out = new StringWriter();
+        PasswordGenerator.bulk(count, (sb, random) -> PasswordGenerator.appendRandom(sb, 12, alphabet, random), out);
+
+        String[] passwords = out.toString().split("\n", -1);
+        assertThat(passwords).hasSize(count);
+        assertThat(passwords).allMatch(p -> p.matches("[a-zA-Z0-9]{12}"));
+        assertThat(new HashSet<>(List.of(passwords))).hasSize(count);
+    }
+
+    @Test
+    public void testBulkSeparators() {
+        int count = PasswordGenerator.BULK_CHUNK_SIZE * 5;
+        String result = PasswordGenerator.bulk(count, (sb, random) -> sb.append('x'));
+
+        assertThat(result).hasSize(count * 2 - 1).startsWith("x\nx").endsWith("x\nx");
+        assertThat(PasswordGenerator.bulk(0, (sb, random) -> sb.append('x'))).isEmpty();
+        assertThat(PasswordGenerator.bulk(1, (sb, random) -> sb.append('x'))).isEqualTo("x");
+    }
+}
@@ -32,6 +32,7 @@ public interface DM extends M {
     String TPL_MSG_LIST_IS_TOO_LARGE_TO_EXPORT = "tpl.msg.list-is-too-large-to-export";
     String TPL_MSG_VALIDATION_BLANK_PARAM_VALUES = "tpl.msg.validation.blank-param-values";
     String TPL_MSG_VALIDATION_CSV_THRESHOLD_EXCEEDED = "tpl.msg.validation.csv-threshold-exceeded";
+    String TPL_MSG_VALIDATION_MALFORMED_CSV = "tpl.msg.validation.malformed-csv";
     String TPL_MSG_VALIDATION_UNRESOLVED_PLACEHOLDERS = "tpl.msg.validation.unresolved-placeholders";
     String TPL_MSG_VALIDATION_VARIABLE_CSV_LENGTH = "tpl.msg.validation.variable-csv-length";
     String TPL_NAMED_PARAMS = "tpl.NamedParams";
@@ -49,16 +50,22 @@ public interface DM extends M {
     String HTTP_SENDER_BATCH = "httpSender.Batch";
     String HTTP_SENDER_BATCH_SIZE = "httpSender.BatchSize";
     String HTTP_SENDER_BODY = "httpSender.Body";
+    String HTTP_SENDER_BURST_SIZE = "httpSender.BurstSize";
     String HTTP_SENDER_COMPLETED_REQUESTS = "httpSender.CompletedRequests";
+    String HTTP_SENDER_CONCURRENT_REQUESTS = "httpSender.ConcurrentRequests";
     String HTTP_SENDER_ENABLE_BASIC_AUTHENTICATION = "httpSender.EnableBasicAuthentication";
     String HTTP_SENDER_HEADERS = "httpSender.Headers";
+    String HTTP_SENDER_LIMIT_REQUEST_RATE = "httpSender.LimitRequestRate";
     String HTTP_SENDER_MSG_BATCH_INFO = "httpSender.msg.batch-info";
+    String HTTP_SENDER_REQUESTS_PER_SECOND = "httpSender.RequestsPerSecond";
     String HTTP_SENDER_SHOW_UNSUCCESSFUL_REQUESTS_ONLY = "httpSender.ShowUnsuccessfulRequestsOnly";
     String HTTP_SENDER_TIMEOUT_BETWEEN_REQUESTS = "httpSender.TimeoutBetweenRequests";
     String HTTP_SENDER_WAIT_TIMEOUT = "httpSender.WaitTimeout";
 
     String BASE64_CONVERTER = "Base64Converter";
     String BASE64_ALGORITHM = "base64.Algorithm";
+    String BASE64_DECODE_FILE = "base64.DecodeFile";
+    String BASE64_ENCODE_FILE = "base64.EncodeFile";
     String BASE64_LINE_BY_LINE = "base64.ConvertLineByLine";
 
     String FILE_BUILDER = "FileBuilder";
@@ -66,16 +73,19 @@ public interface DM extends M {
     String FILE_BUILDER_APPEND_TO_THE_PREVIOUS_FILE = "fileBuilder.AppendToThePreviousFile";
     String FILE_BUILDER_BEFORE_THE_FIRST_ELEMENT = "fileBuilder.BeforeTheFirstElement";
     String FILE_BUILDER_BETWEEN_ELEMENTS = "fileBuilder.BetweenElements";
+    String FILE_BUILDER_COMPRESSION = "fileBuilder.Compression";
     String FILE_BUILDER_CREATE_NEW_FILE = "fileBuilder.CreateNewFile";
     String FILE_BUILDER_DOCUMENT_END = "fileBuilder.DocumentEnd";
     String FILE_BUILDER_DOCUMENT_START = "fileBuilder.DocumentStart";
     String FILE_BUILDER_ELEMENT = "fileBuilder.Element";
+    String FILE_BUILDER_NO_COMPRESSION = "fileBuilder.NoCompression";
 
     String IPV4_CALCULATOR = "IPv4Calculator";
     String IPV4CALC_GENERATE_IP_ADDRESSES = "ipv4calc.GenerateIPAddressList";
     String IPV4CALC_IP_ADDRESS_CONVERTER = "ipv4calc.IPAddressConverter";
     String IPV4CALC_NETMASKS = "ipv4calc.Netmasks";
     String IPV4CALC_NETWORK_INFO = "ipv4calc.NetworkInfo";
+    String IPV4CALC_RANGE_OPERATIONS = "ipv4calc.RangeOperations";
     String IPV4CALC_SPLIT_NETWORK = "ipv4calc.SplitNetwork";
     String IPV4CALC_SPLIT_TO_0 = "ipv4calc.split-to.0";
     String IPV4CALC_SPLIT_TO_1 = "ipv4calc.split-to.1";
@@ -99,7 +109,7 @@ public interface DM extends M {
     String PASSGEN_WORDS = "passgen.Words";
 
     String SEQUENCE_GENERATOR = "SequenceGenerator";
-    String SEQGEN_MSG_SEQUENCE_SIZE_EXCEEDS_LIMIT = "seqgen.msg.sequence-size-exceeds-limit";
+    String SEQGEN_PREVIEW_LIMIT = "seqgen.PreviewLimit";
 
     static BundleLoader getLoader() {
         return BundleLoader.of(DM.class);
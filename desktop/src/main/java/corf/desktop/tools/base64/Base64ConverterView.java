@@ -15,15 +15,22 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import org.apache.commons.lang3.StringUtils;
 import org.kordamp.ikonli.javafx.FontIcon;
+import org.jetbrains.annotations.Nullable;
 import org.kordamp.ikonli.material2.Material2MZ;
+import org.kordamp.ikonli.material2.Material2OutlinedAL;
 import org.kordamp.ikonli.material2.Material2OutlinedMZ;
+import corf.base.Env;
 import corf.base.common.Lazy;
 import corf.base.desktop.Component;
+import corf.base.desktop.Dialogs;
 import corf.base.desktop.Focusable;
 import corf.base.desktop.ExtraStyles;
+import corf.base.event.Events;
+import corf.base.event.Notification;
 import corf.desktop.i18n.DM;
 import corf.desktop.layout.Recommends;
 
+import java.io.File;
 import java.util.concurrent.ExecutorService;
 
 import static atlantafx.base.theme.Styles.*;
@@ -43,6 +50,13 @@ public final class Base64ConverterView extends VBox implements Component<Base64C
     Lazy<Popover> settingsDialog = new Lazy<>(this::createSettingsDialog);
     ComboBox<Codec> encoderChoice;
     CheckBox lineModeCheck;
+    MenuButton fileBtn;
+    MenuItem encodeFileItem;
+    MenuItem decodeFileItem;
+    ProgressBar fileProgress;
+    Button cancelFileBtn;
+
+    private @Nullable FileConvertTask fileTask;
 
     private final ExecutorService executorService;
 
@@ -95,11 +109,32 @@ public final class Base64ConverterView extends VBox implements Component<Base64C
 
         lineModeCheck = new CheckBox(t(DM.BASE64_LINE_BY_LINE));
 
+        encodeFileItem = new MenuItem(t(DM.BASE64_ENCODE_FILE));
+        decodeFileItem = new MenuItem(t(DM.BASE64_DECODE_FILE));
+
+        fileBtn = new MenuButton(t(DM.FILE), new FontIcon(Material2OutlinedAL.INSERT_DRIVE_FILE));
+        fileBtn.getStyleClass().addAll(FLAT);
+        fileBtn.getItems().setAll(encodeFileItem, decodeFileItem);
+
+        fileProgress = new ProgressBar(0);
+        fileProgress.getStyleClass().add(SMALL);
+        fileProgress.setPrefWidth(120);
+        fileProgress.setVisible(false);
+        fileProgress.managedProperty().bind(fileProgress.visibleProperty());
+
+        cancelFileBtn = new Button(t(DM.ACTION_CANCEL));
+        cancelFileBtn.getStyleClass().addAll(FLAT);
+        cancelFileBtn.visibleProperty().bind(fileProgress.visibleProperty());
+        cancelFileBtn.managedProperty().bind(cancelFileBtn.visibleProperty());
+
         var actionsBox = new HBox(
                 encodeBtn,
                 decodeBtn,
                 new Spacer(Recommends.FORM_INLINE_SPACING),
-                settingsBtn
+                settingsBtn,
+                fileBtn,
+                fileProgress,
+                cancelFileBtn
         );
         actionsBox.setPadding(new Insets(10));
         actionsBox.setAlignment(Pos.CENTER);
@@ -128,6 +163,14 @@ public final class Base64ConverterView extends VBox implements Component<Base64C
             popover.show(settingsBtn);
         });
 
+        encodeFileItem.setOnAction(e -> convertFile(true));
+        decodeFileItem.setOnAction(e -> convertFile(false));
+        fileBtn.disableProperty().bind(fileProgress.visibleProperty());
+
+        cancelFileBtn.setOnAction(e -> {
+            if (fileTask != null) { fileTask.cancel(); }
+        });
+
         lineModeCheck.setSelected(true);
         encoderChoice.getSelectionModel().select(Codec.BASIC);
     }
@@ -187,4 +230,48 @@ public final class Base64ConverterView extends VBox implements Component<Base64C
 
         executorService.execute(task);
     }
+
+    private void convertFile(boolean encode) {
+        Codec codec = encoderChoice.getSelectionModel().getSelectedItem();
+        if (codec == null) { return; }
+
+        File sourceFile = Dialogs.fileChooser()
+                .initialDirectory(Env.getLastVisitedDir())
+                .build()
+                .showOpenDialog(getScene().getWindow());
+        if (sourceFile == null) { return; }
+
+        File targetFile = Dialogs.fileChooser()
+                .initialDirectory(sourceFile.toPath().getParent())
+                .initialFileName(sourceFile.getName() + (encode ? ".b64" : ".bin"))
+                .build()
+                .showSaveDialog(getScene().getWindow());
+        if (targetFile == null) { return; }
+
+        // large files are streamed, so they're converted to the file instead of the text area,
+        // line mode only applies to the text area, files are always converted as a whole
+        var task = new FileConvertTask(sourceFile.toPath(), targetFile.toPath(), codec, encode);
+
+        fileProgress.progressProperty().bind(task.progressProperty());
+        fileProgress.setVisible(true);
+
+        task.setOnSucceeded(e -> {
+            finishFileConversion();
+            Env.setLastVisitedDir(targetFile);
+        });
+        task.setOnCancelled(e -> finishFileConversion());
+        task.setOnFailed(e -> {
+            finishFileConversion();
+            Events.fire(Notification.error(task.getException()));
+        });
+
+        fileTask = task;
+        executorService.execute(task);
+    }
+
+    private void finishFileConversion() {
+        fileTask = null;
+        fileProgress.progressProperty().unbind();
+        fileProgress.setVisible(false);
+    }
 }
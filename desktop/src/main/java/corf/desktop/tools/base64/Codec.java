@@ -1,7 +1,9 @@
 package corf.desktop.tools.base64;
 
 import java.util.Base64;
+import java.util.function.UnaryOperator;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Base64.*;
 
 public enum Codec {
@@ -32,6 +34,17 @@ public enum Codec {
         };
     }
 
+    // source / target text encoding is UTF-8 only!
+    public UnaryOperator<String> getStringConverter(boolean encode) {
+        if (encode) {
+            Encoder encoder = getEncoder();
+            return s -> new String(encoder.encode(s.getBytes(UTF_8)), UTF_8);
+        } else {
+            Decoder decoder = getDecoder();
+            return s -> new String(decoder.decode(s.getBytes(UTF_8)), UTF_8);
+        }
+    }
+
     @Override
     public String toString() {
         return displayName;
@@ -3,39 +3,39 @@ package corf.desktop.tools.base64;
 import javafx.concurrent.Task;
 import corf.base.event.Events;
 import corf.base.event.Notification;
-import corf.base.text.LineSeparator;
 
-import java.util.Arrays;
-import java.util.Base64.Decoder;
-import java.util.Base64.Encoder;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Objects;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
 
 // Source / target encoding is UTF-8 only!
 final class ConvertTask extends Task<String> {
 
     private final String sourceText;
-    private final Function<String, String> converter;
+    private final Codec codec;
+    private final boolean encode;
     private final boolean lineByLine;
 
     private ConvertTask(String sourceText, Codec codec, boolean encode, boolean lineByLine) {
         this.sourceText = Objects.requireNonNullElse(sourceText, "");
+        this.codec = codec;
+        this.encode = encode;
         this.lineByLine = lineByLine;
-        this.converter = getConverter(codec, encode);
     }
 
     @Override
-    public String call() {
-        return lineByLine
-                ? Arrays.stream(sourceText.split(LineSeparator.LINE_SPLIT_PATTERN))
-                .filter(line -> !line.isBlank())
-                .map(String::trim)
-                .map(converter)
-                .collect(Collectors.joining(LineSeparator.UNIX.getCharacters()))
-                : converter.apply(sourceText);
+    public String call() throws Exception {
+        if (!lineByLine) {
+            return codec.getStringConverter(encode).apply(sourceText);
+        }
+
+        // lines are converted in parallel batches, without splitting the whole text at once
+        var out = new StringWriter(sourceText.length());
+        new StreamConverter(codec, encode).convertLines(
+                new BufferedReader(new StringReader(sourceText)), out, () -> { }, this::isCancelled
+        );
+        return out.toString();
     }
 
     public static ConvertTask forEncode(String sourceText, Codec codec, boolean lineByLine) {
@@ -59,14 +59,4 @@ final class ConvertTask extends Task<String> {
         });
         return task;
     }
-
-    private Function<String, String> getConverter(Codec codec, boolean encode) {
-        if (encode) {
-            Encoder encoder = codec.getEncoder();
-            return s -> new String(encoder.encode(s.getBytes(UTF_8)), UTF_8);
-        } else {
-            Decoder decoder = codec.getDecoder();
-            return s -> new String(decoder.decode(s.getBytes(UTF_8)), UTF_8);
-        }
-    }
 }
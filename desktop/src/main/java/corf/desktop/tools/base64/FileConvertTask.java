@@ -0,0 +1,75 @@
+package corf.desktop.tools.base64;
+
+import javafx.concurrent.Task;
+import corf.base.io.FileSystemUtils;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Converts file to file, neither of them is loaded to memory.
+ * Files are always converted as byte streams, because line-by-line mode
+ * would corrupt binary files as well as the wrapped Base64 dumps.
+ * Incomplete target file is removed if task is cancelled or failed.
+ */
+final class FileConvertTask extends Task<Void> {
+
+    private final Path source;
+    private final Path target;
+    private final StreamConverter converter;
+
+    public FileConvertTask(Path source, Path target, Codec codec, boolean encode) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.target = Objects.requireNonNull(target, "target");
+        this.converter = new StreamConverter(codec, encode);
+    }
+
+    @Override
+    protected Void call() throws Exception {
+        convert(source, target, converter, done -> updateProgress(done, 1.0), this::isCancelled);
+        return null;
+    }
+
+    /**
+     * @param progress accepts the processed part of the source file, from 0 to 1
+     * @return false if conversion has been cancelled
+     */
+    static boolean convert(Path source,
+                           Path target,
+                           StreamConverter converter,
+                           DoubleConsumer progress,
+                           BooleanSupplier cancelled) throws IOException {
+        boolean completed = false;
+        try (var inChannel = FileChannel.open(source, READ);
+             var outChannel = FileChannel.open(target, CREATE, WRITE, TRUNCATE_EXISTING)) {
+
+            long size = inChannel.size();
+            // progress is tracked by the source channel position, which is good enough
+            // despite reading ahead into the buffers
+            Runnable progressUpdater = () -> {
+                try {
+                    progress.accept(size > 0 ? (double) inChannel.position() / size : 1.0);
+                } catch (IOException ignored) {
+                    // closed channel, nothing to update
+                }
+            };
+
+            completed = converter.convert(
+                    new BufferedInputStream(Channels.newInputStream(inChannel), StreamConverter.BUFFER_SIZE),
+                    Channels.newOutputStream(outChannel),
+                    progressUpdater,
+                    cancelled
+            );
+        } finally {
+            if (!completed) { FileSystemUtils.deleteFile(target); }
+        }
+        return completed;
+    }
+}
@@ -0,0 +1,132 @@
+package corf.desktop.tools.base64;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Base64 conversion of the arbitrary large inputs. Data is processed with
+ * fixed-size buffers, so that memory consumption doesn't depend on the
+ * input size.
+ */
+final class StreamConverter {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    // the number of lines converted in parallel at once
+    static final int LINES_BATCH_SIZE = 16 * 1024;
+
+    private final Codec codec;
+    private final boolean encode;
+
+    public StreamConverter(Codec codec, boolean encode) {
+        this.codec = Objects.requireNonNull(codec, "codec");
+        this.encode = encode;
+    }
+
+    /**
+     * Converts the whole input as a single byte stream. Unlike the text mode,
+     * input isn't treated as UTF-8, so binary files are also supported.
+     * Line breaks are ignored when decoding. Output is closed.
+     *
+     * @param progress  called after each processed buffer
+     * @param cancelled checked before each processed buffer
+     * @return false if conversion has been cancelled
+     */
+    public boolean convert(InputStream in,
+                           OutputStream out,
+                           Runnable progress,
+                           BooleanSupplier cancelled) throws IOException {
+        // encoder stream must be closed to write trailing padding
+        try (OutputStream dst = encode ? codec.getEncoder().wrap(out) : out) {
+            InputStream src = encode ? in : codec.getDecoder().wrap(new LineBreakSkippingInputStream(in));
+
+            byte[] buf = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = src.read(buf)) >= 0) {
+                if (cancelled.getAsBoolean()) { return false; }
+                dst.write(buf, 0, n);
+                progress.run();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts each non-blank line separately. Lines are read in batches,
+     * each batch is converted in parallel and written in the original order.
+     * Output isn't closed.
+     *
+     * @param progress  called after each processed batch
+     * @param cancelled checked before each processed batch
+     * @return false if conversion has been cancelled
+     */
+    public boolean convertLines(BufferedReader in,
+                                Writer out,
+                                Runnable progress,
+                                BooleanSupplier cancelled) throws IOException {
+        UnaryOperator<String> converter = codec.getStringConverter(encode);
+        List<String> batch = new ArrayList<>(LINES_BATCH_SIZE);
+        boolean first = true;
+
+        String line = in.readLine();
+        while (line != null) {
+            if (cancelled.getAsBoolean()) { return false; }
+
+            batch.clear();
+            while (line != null && batch.size() < LINES_BATCH_SIZE) {
+                if (!line.isBlank()) { batch.add(line.trim()); }
+                line = in.readLine();
+            }
+
+            String[] converted = batch.parallelStream().map(converter).toArray(String[]::new);
+            for (String s : converted) {
+                if (!first) { out.write('\n'); }
+                out.write(s);
+                first = false;
+            }
+            progress.run();
+        }
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    // Basic and URL decoders reject line breaks, but encoded files usually contain them,
+    // at least the trailing one. MIME decoder ignores them anyway.
+    private static class LineBreakSkippingInputStream extends FilterInputStream {
+
+        public LineBreakSkippingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b;
+            do {
+                b = super.read();
+            } while (b == '\r' || b == '\n');
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n;
+            do {
+                n = super.read(b, off, len);
+                if (n <= 0) { return n; }
+
+                // compact buffer in place
+                int count = 0;
+                for (int i = off; i < off + n; i++) {
+                    if (b[i] != '\r' && b[i] != '\n') { b[off + count++] = b[i]; }
+                }
+                n = count;
+            } while (n == 0);
+            return n;
+        }
+    }
+}
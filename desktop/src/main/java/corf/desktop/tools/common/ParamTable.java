@@ -0,0 +1,93 @@
+package corf.desktop.tools.common;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import corf.base.common.KeyValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Named params indexed by slot number. Param names are only used to bind
+ * template placeholders to slots, once per template. After that current
+ * param values are accessed by index.
+ */
+public final class ParamTable {
+
+    private final Param[] params;
+    private final String[] values;
+    private final Map<String, Integer> slots;
+
+    public ParamTable(@Nullable Collection<Param> params) {
+        this.params = params != null ? params.toArray(new Param[0]) : new Param[0];
+        this.values = new String[this.params.length];
+        this.slots = new HashMap<>();
+
+        for (int i = 0; i < this.params.length; i++) {
+            slots.put(this.params[i].getName(), i);
+            values[i] = "";
+        }
+    }
+
+    /** Returns slot index of the param with specified name or -1 if there's no such param. */
+    public int slotOf(String name) {
+        return slots.getOrDefault(name, -1);
+    }
+
+    /**
+     * Resolves values of all params. Auto-generated params produce the new value
+     * on every call, so it MUST be called for every row.
+     *
+     * @return true if any param value is blank, false otherwise
+     */
+    public boolean resolve() {
+        boolean hasBlankValues = false;
+        for (int i = 0; i < params.length; i++) {
+            KeyValue<String, String> kv = params[i].resolve();
+            values[i] = Objects.requireNonNullElse(kv.getValue(), "");
+            if (StringUtils.isBlank(kv.getValue())) {
+                hasBlankValues = true;
+            }
+        }
+        return hasBlankValues;
+    }
+
+    /**
+     * Returns whether any param produces the new value on every resolution.
+     * Otherwise, it's enough to resolve params only once.
+     */
+    public boolean hasAutoGenerated() {
+        for (Param param : params) {
+            if (param.isAutoGenerated()) { return true; }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a copy of the last resolved values indexed by slot. It allows to
+     * resolve params sequentially, but render rows concurrently.
+     */
+    public String[] snapshot() {
+        return values.clone();
+    }
+
+    // not a copy, for internal use only
+    String[] values() {
+        return values;
+    }
+
+    /** Returns the last resolved value of the param in the specified slot. */
+    public String get(int slot) {
+        return values[slot];
+    }
+
+    public int size() {
+        return params.length;
+    }
+
+    public boolean isEmpty() {
+        return params.length == 0;
+    }
+}
@@ -1,5 +1,6 @@
 package corf.desktop.tools.common;
 
+import corf.base.text.CSVFormatException;
 import corf.desktop.i18n.DM;
 
 import java.util.ArrayList;
@@ -13,10 +14,19 @@ public final class ReplacementCheckResult {
     private long actualSize = 0;
     private boolean containsBlankValues;
     private boolean hasVariableRowLength;
+    private int malformedRow = 0;
+    private int malformedColumn = 0;
     private final List<String> invalidLines = new ArrayList<>();
 
     private ReplacementCheckResult() { }
 
+    /** Returns the result of the CSV that can't be parsed, thus can't be checked any further. */
+    public static ReplacementCheckResult malformedCsv(CSVFormatException e) {
+        var builder = new Builder();
+        builder.setMalformedCsv(e.getRow(), e.getColumn());
+        return builder.build();
+    }
+
     public boolean exceedsMaxSize() {
         return actualSize > maxSize;
     }
@@ -29,6 +39,10 @@ public final class ReplacementCheckResult {
         return hasVariableRowLength;
     }
 
+    public boolean isMalformedCsv() {
+        return malformedRow > 0;
+    }
+
     public boolean containsPlaceholders() {
         return invalidLines.size() > 0;
     }
@@ -37,12 +51,17 @@ public final class ReplacementCheckResult {
         return !exceedsMaxSize()
                 && !containsBlankValues()
                 && !hasVariableRowLength()
+                && !isMalformedCsv()
                 && !containsPlaceholders();
     }
 
     public List<String> getWarnings() {
         var warnings = new ArrayList<String>();
 
+        if (isMalformedCsv()) {
+            warnings.add(malformedCsvMessage(malformedRow, malformedColumn));
+        }
+
         if (exceedsMaxSize()) {
             warnings.add(t(DM.TPL_MSG_VALIDATION_CSV_THRESHOLD_EXCEEDED, maxSize));
         }
@@ -62,6 +81,10 @@ public final class ReplacementCheckResult {
         return warnings;
     }
 
+    public static String malformedCsvMessage(int row, int column) {
+        return t(DM.TPL_MSG_VALIDATION_MALFORMED_CSV, String.valueOf(row), String.valueOf(column));
+    }
+
     ///////////////////////////////////////////////////////////////////////////
 
     public static class Builder {
@@ -85,6 +108,11 @@ public final class ReplacementCheckResult {
             check.hasVariableRowLength = b;
         }
 
+        public void setMalformedCsv(int row, int column) {
+            check.malformedRow = row;
+            check.malformedColumn = column;
+        }
+
         public void addInvalidLine(String s) {
             check.invalidLines.add(s);
         }
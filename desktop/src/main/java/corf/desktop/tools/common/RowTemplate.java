@@ -0,0 +1,208 @@
+package corf.desktop.tools.common;
+
+import org.jetbrains.annotations.Nullable;
+import corf.base.text.CompiledTemplate;
+import corf.base.text.CompiledTemplate.Escaped;
+import corf.base.text.CompiledTemplate.Literal;
+import corf.base.text.CompiledTemplate.Placeholder;
+import corf.base.text.CompiledTemplate.Segment;
+import corf.base.text.PlaceholderReplacer;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Template which placeholders are bound to data slots at compile time.
+ * It produces exactly the same output as {@link PlaceholderReplacer}
+ * with the map filled by {@link TemplateWorker} static methods, but
+ * rendering a row requires neither string concatenation nor hashing:
+ * <ul>
+ *     <li><code>${_csvN}</code> refers to the Nth cell of the row;</li>
+ *     <li><code>${_index0}</code> and <code>${_index1}</code> refer to the row index;</li>
+ *     <li>any other placeholder refers to the {@link ParamTable} slot.</li>
+ * </ul>
+ * Row placeholders take precedence over params of the same name. If row
+ * isn't specified or has no such cell, template falls back to the param
+ * value. If there's no param either, placeholder is left unsubstituted.
+ */
+public final class RowTemplate {
+
+    private static final String CSV_PREFIX = "_csv";
+    private static final String INDEX0 = "_index0";
+    private static final String INDEX1 = "_index1";
+
+    private static final byte LITERAL = 0;
+    private static final byte CSV_CELL = 1;
+    private static final byte ROW_INDEX0 = 2;
+    private static final byte ROW_INDEX1 = 3;
+    private static final byte PARAM = 4;
+    private static final byte UNRESOLVED = 5;
+
+    private final String pattern;
+    private final ParamTable params;
+
+    // segments are stored in parallel arrays to avoid pointer chasing at render time
+    private final byte[] kinds;
+    private final int[] slots;          // CSV column index or param slot
+    private final int[] paramSlots;     // param fallback for row placeholders, -1 if none
+    private final String[] texts;       // literal text or the original placeholder expression
+
+    private RowTemplate(String pattern, ParamTable params, int size) {
+        this.pattern = pattern;
+        this.params = params;
+        this.kinds = new byte[size];
+        this.slots = new int[size];
+        this.paramSlots = new int[size];
+        this.texts = new String[size];
+    }
+
+    public static RowTemplate compile(@Nullable String pattern, ParamTable params) {
+        Objects.requireNonNull(params, "params");
+
+        CompiledTemplate compiled = PlaceholderReplacer.compile(pattern);
+        List<Segment> segments = compiled.getSegments();
+        var template = new RowTemplate(compiled.getPattern(), params, segments.size());
+
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            template.paramSlots[i] = -1;
+
+            if (segment instanceof Literal literal) {
+                template.bindLiteral(i, literal.text());
+            } else if (segment instanceof Escaped escaped) {
+                template.bindLiteral(i, escaped.text());
+            } else if (segment instanceof Placeholder placeholder) {
+                template.bindPlaceholder(i, placeholder);
+            }
+        }
+
+        return template;
+    }
+
+    private void bindLiteral(int i, String text) {
+        kinds[i] = LITERAL;
+        texts[i] = text;
+    }
+
+    private void bindPlaceholder(int i, Placeholder placeholder) {
+        String key = placeholder.key();
+        var sb = new StringBuilder(key.length() + 3);
+        placeholder.appendTo(sb);
+        texts[i] = sb.toString();
+
+        int paramSlot = params.slotOf(key);
+        int column = parseCsvColumn(key);
+
+        if (column >= 0) {
+            kinds[i] = CSV_CELL;
+            slots[i] = column;
+            paramSlots[i] = paramSlot;
+        } else if (INDEX0.equals(key)) {
+            kinds[i] = ROW_INDEX0;
+            paramSlots[i] = paramSlot;
+        } else if (INDEX1.equals(key)) {
+            kinds[i] = ROW_INDEX1;
+            paramSlots[i] = paramSlot;
+        } else if (paramSlot >= 0) {
+            kinds[i] = PARAM;
+            slots[i] = paramSlot;
+        } else {
+            kinds[i] = UNRESOLVED;
+        }
+    }
+
+    // only canonical form is valid, e.g. "_csv01" is not the same as "_csv1"
+    private static int parseCsvColumn(String key) {
+        if (!key.startsWith(CSV_PREFIX)) { return -1; }
+
+        String digits = key.substring(CSV_PREFIX.length());
+        if (digits.isEmpty() || digits.length() > 9 || (digits.length() > 1 && digits.charAt(0) == '0')) {
+            return -1;
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) { return -1; }
+        }
+        return Integer.parseInt(digits);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public boolean isEmpty() {
+        return kinds.length == 0;
+    }
+
+    /**
+     * Appends formatted row to the given builder. Params values must be
+     * resolved beforehand, see {@link ParamTable#resolve()}.
+     *
+     * @param row   CSV row or null, if only params have to be substituted
+     * @param index row index, ignored if row isn't specified
+     */
+    public void render(@Nullable String[] row, int index, StringBuilder out) {
+        render(row, index, params.values(), out);
+    }
+
+    /**
+     * Same as {@link #render(String[], int, StringBuilder)}, but uses param
+     * values obtained by {@link ParamTable#snapshot()}. Unlike the former,
+     * this method is safe to be called concurrently.
+     */
+    public void render(@Nullable String[] row, int index, String[] paramValues, StringBuilder out) {
+        // just like PlaceholderReplacer, return pattern as is, if there are no values at all
+        if (row == null && params.isEmpty()) {
+            out.append(pattern);
+            return;
+        }
+
+        for (int i = 0; i < kinds.length; i++) {
+            switch (kinds[i]) {
+                case LITERAL, UNRESOLVED -> out.append(texts[i]);
+                case PARAM -> out.append(paramValues[slots[i]]);
+                case CSV_CELL -> {
+                    if (row != null && slots[i] < row.length) {
+                        out.append(row[slots[i]]);
+                    } else {
+                        appendParam(i, paramValues, out);
+                    }
+                }
+                case ROW_INDEX0 -> {
+                    if (row != null) { out.append(index); } else { appendParam(i, paramValues, out); }
+                }
+                case ROW_INDEX1 -> {
+                    if (row != null) { out.append(index + 1); } else { appendParam(i, paramValues, out); }
+                }
+            }
+        }
+    }
+
+    /** See {@link #render(String[], int, StringBuilder)}. */
+    public String render(@Nullable String[] row, int index) {
+        if (isEmpty()) { return ""; }
+
+        var sb = new StringBuilder(pattern.length() + 16);
+        render(row, index, sb);
+        return sb.toString();
+    }
+
+    /** Renders template substituting params only. */
+    public String render() {
+        return render(null, 0);
+    }
+
+    private void appendParam(int i, String[] paramValues, StringBuilder out) {
+        if (paramSlots[i] >= 0) {
+            out.append(paramValues[paramSlots[i]]);
+        } else {
+            out.append(texts[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RowTemplate{" +
+                "pattern='" + pattern + '\'' +
+                '}';
+    }
+}
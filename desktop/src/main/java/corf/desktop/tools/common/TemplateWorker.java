@@ -3,6 +3,8 @@ package corf.desktop.tools.common;
 import net.datafaker.Faker;
 import org.apache.commons.lang3.StringUtils;
 import corf.base.common.KeyValue;
+import corf.base.text.CSV;
+import corf.base.text.CSVSource;
 
 import java.util.Collection;
 import java.util.Map;
@@ -38,4 +40,12 @@ public interface TemplateWorker {
         map.put("_index0", String.valueOf(index));
         map.put("_index1", String.valueOf(index + 1));
     }
+
+    /**
+     * In-memory CSV is backed by the text area content, so its size is limited.
+     * Streaming CSV source (e.g. a file) is read row by row and can be arbitrary large.
+     */
+    static boolean isInMemory(CSVSource source) {
+        return source instanceof CSV;
+    }
 }
@@ -1,11 +1,14 @@
 package corf.desktop.tools.common.ui;
 
 import atlantafx.base.controls.Spacer;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.StringProperty;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Pos;
 import javafx.geometry.Side;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.MenuItem;
@@ -16,21 +19,40 @@ import javafx.scene.layout.VBox;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.kordamp.ikonli.javafx.FontIcon;
+import org.kordamp.ikonli.material2.Material2AL;
 import org.kordamp.ikonli.material2.Material2OutlinedAL;
+import corf.base.Env;
+import corf.base.desktop.Dialogs;
 import corf.base.desktop.OS;
+import corf.base.event.Events;
+import corf.base.event.Notification;
 import corf.base.text.LineSeparator;
 import corf.base.text.CSV;
+import corf.base.text.CSVFormatException;
+import corf.base.text.CSVParser;
 import corf.base.desktop.ExtraStyles;
 import corf.desktop.i18n.DM;
 import corf.desktop.layout.Recommends;
+import corf.desktop.tools.common.ReplacementCheckResult;
 
+import java.io.File;
+import java.nio.file.Path;
+
+import static atlantafx.base.theme.Styles.BUTTON_ICON;
 import static atlantafx.base.theme.Styles.FLAT;
+import static atlantafx.base.theme.Styles.TEXT_MUTED;
 import static corf.base.i18n.I18n.t;
 
 public class CSVTextArea extends VBox {
 
     private final TextArea textArea = new TextArea();
     private final Label lineCountLabel = new Label();
+    private final Label fileLabel = new Label();
+    private final HBox lineCountBox = new HBox(Recommends.SUB_ITEM_MARGIN);
+    private final HBox fileBox = new HBox(Recommends.SUB_ITEM_MARGIN);
+
+    // when file is selected, CSV data is streamed from the file instead of the text area
+    private final ObjectProperty<Path> file = new SimpleObjectProperty<>();
 
     public CSVTextArea() {
         super();
@@ -43,6 +65,10 @@ public class CSVTextArea extends VBox {
         return textArea.textProperty();
     }
 
+    public ObjectProperty<Path> fileProperty() {
+        return file;
+    }
+
     private void createView() {
         textArea.setPromptText("csv0, csv1, csv2 ...");
         textArea.getStyleClass().add(ExtraStyles.MONOSPACE);
@@ -57,13 +83,29 @@ public class CSVTextArea extends VBox {
                 createMenuItem(t(DM.TPL_PASTE_FROM_EXCEL), this::pasteFromExcel)
         );
 
+        var loadFileBtn = new Button(t(DM.ACTION_LOAD), new FontIcon(Material2OutlinedAL.FOLDER));
+        loadFileBtn.getStyleClass().addAll(FLAT);
+        loadFileBtn.setOnAction(e -> chooseFile());
+
+        lineCountBox.setAlignment(Pos.CENTER_LEFT);
+        lineCountBox.getChildren().setAll(lineCountLabel, new Label(t(DM.TPL_LINES.toLowerCase())));
+
+        var clearFileBtn = new Button("", new FontIcon(Material2AL.CLOSE));
+        clearFileBtn.getStyleClass().addAll(FLAT, BUTTON_ICON);
+        clearFileBtn.setOnAction(e -> file.set(null));
+
+        fileLabel.getStyleClass().add(TEXT_MUTED);
+        fileBox.setAlignment(Pos.CENTER_LEFT);
+        fileBox.getChildren().setAll(fileLabel, clearFileBtn);
+
         var actionsBox = new HBox(Recommends.SUB_ITEM_MARGIN);
         actionsBox.setAlignment(Pos.CENTER_LEFT);
         actionsBox.getChildren().addAll(
                 pasteMenuBtn,
+                loadFileBtn,
                 new Spacer(),
-                lineCountLabel,
-                new Label(t(DM.TPL_LINES.toLowerCase()))
+                lineCountBox,
+                fileBox
         );
 
         setSpacing(Recommends.SUB_ITEM_MARGIN);
@@ -75,9 +117,32 @@ public class CSVTextArea extends VBox {
             if (!val) { updateCsvLineCount(); }
         });
 
+        file.addListener((obs, old, val) -> {
+            fileLabel.setText(val != null ? String.valueOf(val.getFileName()) : "");
+            if (val != null) { Env.setLastVisitedDir(val.toFile()); }
+        });
+
+        textArea.disableProperty().bind(file.isNotNull());
+        lineCountBox.visibleProperty().bind(file.isNull());
+        lineCountBox.managedProperty().bind(lineCountBox.visibleProperty());
+        fileBox.visibleProperty().bind(file.isNotNull());
+        fileBox.managedProperty().bind(fileBox.visibleProperty());
+
         updateCsvLineCount();
     }
 
+    private void chooseFile() {
+        File csvFile = Dialogs.fileChooser()
+                .addFilter(t(DM.FILE_DIALOG_CSV), "*.csv")
+                .addFilter(t(DM.FILE_DIALOG_TEXT), "*.txt")
+                .initialDirectory(Env.getLastVisitedDir())
+                .build()
+                .showOpenDialog(getScene().getWindow());
+        if (csvFile == null) { return; }
+
+        file.set(csvFile.toPath());
+    }
+
     public static MenuItem createMenuItem(String text, EventHandler<ActionEvent> handler) {
         MenuItem item = new MenuItem(text);
         item.setOnAction(handler);
@@ -126,8 +191,14 @@ public class CSVTextArea extends VBox {
             textArea.setText(clipboardText);
         } else {
             var origLen = textArea.getText().length();
-            var newText = addColumnsTheRight(currentText, clipboardText);
-            textArea.replaceText(0, origLen, newText);
+            try {
+                var newText = addColumnsTheRight(currentText, clipboardText);
+                textArea.replaceText(0, origLen, newText);
+            } catch (CSVFormatException ex) {
+                Events.fire(Notification.error(
+                        ReplacementCheckResult.malformedCsvMessage(ex.getRow(), ex.getColumn()), ex
+                ));
+            }
         }
     }
 
@@ -148,9 +219,9 @@ public class CSVTextArea extends VBox {
 
             if (rowIndex < addedCsv.length()) {
                 String[] newRow = addedCsv.get(rowIndex);
-                sb.append(String.join(",", ArrayUtils.addAll(curRow, newRow)));
+                sb.append(CSVParser.DEFAULT.formatRow(ArrayUtils.addAll(curRow, newRow)));
             } else {
-                sb.append(String.join(",", curRow));
+                sb.append(CSVParser.DEFAULT.formatRow(curRow));
             }
 
             sb.append("\n");
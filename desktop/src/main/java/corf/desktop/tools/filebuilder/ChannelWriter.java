@@ -0,0 +1,162 @@
+package corf.desktop.tools.filebuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+
+/**
+ * Writer that encodes characters straight into a reusable byte buffer and
+ * writes it to the channel in large blocks. Unlike the usual
+ * {@code OutputStreamWriter} + {@code BufferedWriter} stack it doesn't copy
+ * data between intermediate buffers. Not thread-safe.
+ */
+final class ChannelWriter extends Writer {
+
+    static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes;
+    private final char[] chars;
+    private final CharBuffer charBuffer;
+
+    // high surrogate that can't be encoded until the next write
+    private final CharBuffer leftover = CharBuffer.allocate(2);
+    private boolean closed;
+
+    public ChannelWriter(WritableByteChannel channel, Charset charset) {
+        this(channel, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    ChannelWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = Objects.requireNonNull(channel, "channel");
+        // same error handling as OutputStreamWriter
+        this.encoder = Objects.requireNonNull(charset, "charset").newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+        this.chars = new char[Math.max(bufferSize / 4, 16)];
+        this.charBuffer = CharBuffer.wrap(chars);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        encode(CharBuffer.wrap(cbuf, off, len));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        chars[0] = (char) c;
+        encodeChars(1);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        // bulk copy to the reusable array, encoder is much faster on array-backed buffers
+        int end = off + len;
+        for (int pos = off; pos < end; ) {
+            int n = Math.min(chars.length, end - pos);
+            str.getChars(pos, pos + n, chars, 0);
+            encodeChars(n);
+            pos += n;
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        ensureOpen();
+        if (csq instanceof StringBuilder sb) {
+            for (int pos = 0; pos < sb.length(); ) {
+                int n = Math.min(chars.length, sb.length() - pos);
+                sb.getChars(pos, pos + n, chars, 0);
+                encodeChars(n);
+                pos += n;
+            }
+        } else {
+            String s = String.valueOf(csq);
+            write(s, 0, s.length());
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) { return; }
+
+        try {
+            leftover.flip();
+            encode(leftover, true);
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    private void encodeChars(int len) throws IOException {
+        charBuffer.clear();
+        charBuffer.limit(len);
+        encode(charBuffer);
+    }
+
+    private void encode(CharBuffer in) throws IOException {
+        // complete surrogate pair from the previous write
+        if (leftover.position() > 0) {
+            while (leftover.hasRemaining() && in.hasRemaining()) {
+                leftover.put(in.get());
+            }
+            leftover.flip();
+            encode(leftover, false);
+            leftover.compact();
+        }
+
+        encode(in, false);
+
+        if (in.hasRemaining()) {
+            leftover.put(in);
+        }
+    }
+
+    private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(in, bytes, endOfInput);
+            if (result.isUnderflow()) { return; }
+            if (result.isOverflow()) {
+                writeBytes();
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) { throw new IOException("Writer closed"); }
+    }
+}
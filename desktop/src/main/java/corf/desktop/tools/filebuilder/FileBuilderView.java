@@ -95,7 +95,7 @@ public final class FileBuilderView extends VBox implements View<FileBuilderView,
         generateBtn.disableProperty().bind(Observables.or(
             model.selectedTemplateProperty().isNull(),
             model.ongoingProperty(),
-            Observables.isBlank(model.csvTextProperty())
+            Observables.and(Observables.isBlank(model.csvTextProperty()), model.csvFileProperty().isNull())
         ));
         generateBtn.setOnAction(e -> showSaveDialog());
 
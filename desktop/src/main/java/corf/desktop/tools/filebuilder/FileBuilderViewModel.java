@@ -18,9 +18,13 @@ import corf.base.event.ActionEvent;
 import corf.base.event.Events;
 import corf.base.event.Notification;
 import corf.base.exception.AppException;
+import corf.base.io.Compression;
 import corf.base.io.FileSystemUtils;
 import corf.base.preferences.CompletionRegistry;
 import corf.base.text.CSV;
+import corf.base.text.CSVFile;
+import corf.base.text.CSVFormatException;
+import corf.base.text.CSVSource;
 import corf.desktop.EventID;
 import corf.desktop.i18n.DM;
 import corf.desktop.tools.common.Param;
@@ -72,13 +76,22 @@ public final class FileBuilderViewModel implements Initializable, ViewModel {
     ReplacementCheckResult validate() {
         var template = new Template(Objects.requireNonNull(getSelectedTemplate(), "Selected template must not be null!"));
         template.setParams(getTemplateParams());
-        return Generator.validate(template, CSV.from(csvText.get()));
+        try {
+            return Generator.validate(template, getCsvSource());
+        } catch (CSVFormatException e) {
+            return ReplacementCheckResult.malformedCsv(e);
+        }
     }
 
     private @Nullable Path getParentPath(@Nullable Path path) {
         return path != null ? FileSystemUtils.getParentPath(path.toFile()) : Env.HOME_DIR;
     }
 
+    private CSVSource getCsvSource() {
+        Path path = csvFile.get();
+        return path != null ? new CSVFile(path) : CSV.from(csvText.get());
+    }
+
     // ComboBox is bugged! Do not try to update list items partially. You'll run into issues
     // with duplicated items and dropdown resize. The only working solution is to fully
     // reload list content and restore selection after that.
@@ -146,6 +159,10 @@ public final class FileBuilderViewModel implements Initializable, ViewModel {
     private final StringProperty csvText = new SimpleStringProperty();
     public StringProperty csvTextProperty() { return csvText; }
 
+    // if specified, CSV data is streamed from the file, text area content is ignored
+    private final ObjectProperty<Path> csvFile = new SimpleObjectProperty<>();
+    public ObjectProperty<Path> csvFileProperty() { return csvFile; }
+
     private final ReadOnlyBooleanWrapper ongoing = new ReadOnlyBooleanWrapper(false);
     public ReadOnlyBooleanProperty ongoingProperty() { return ongoing.getReadOnlyProperty(); }
 
@@ -161,6 +178,10 @@ public final class FileBuilderViewModel implements Initializable, ViewModel {
 
     private final ToggleGroup saveModeGroup = new ToggleGroup();
     public ToggleGroup getSaveModeGroup() { return saveModeGroup; }
+
+    // only applicable to file output, clipboard content is never compressed
+    private final ObjectProperty<Compression> compression = new SimpleObjectProperty<>(Compression.NONE);
+    public ObjectProperty<Compression> compressionProperty() { return compression; }
     //@formatter:on
 
     ///////////////////////////////////////////////////////////////////////////
@@ -187,10 +208,22 @@ public final class FileBuilderViewModel implements Initializable, ViewModel {
         var template = new Template(Objects.requireNonNull(getSelectedTemplate(), "template"));
         template.setParams(getTemplateParams());
 
-        var csv = CSV.from(csvText.get());
+        CSVSource csv;
+        try {
+            csv = getCsvSource();
+        } catch (CSVFormatException e) {
+            Events.fire(Notification.error(ReplacementCheckResult.malformedCsvMessage(e.getRow(), e.getColumn()), e));
+            return;
+        }
         SaveMode saveMode = (SaveMode) saveModeGroup.getSelectedToggle().getUserData();
+        // appended data must be compressed the same way as the existing file content
+        Compression outputCompression = switch (saveMode) {
+            case NEW_FILE -> Objects.requireNonNullElse(compression.get(), Compression.NONE);
+            case APPEND_FILE -> Compression.forFile(getAppendFile());
+            case CLIPBOARD -> Compression.NONE;
+        };
         var outputPath = switch (saveMode) {
-            case NEW_FILE -> getNewFile();
+            case NEW_FILE -> outputCompression.withExtension(getNewFile());
             case APPEND_FILE -> getAppendFile();
             case CLIPBOARD -> FileSystemUtils.createTempFile();
         };
@@ -199,7 +232,9 @@ public final class FileBuilderViewModel implements Initializable, ViewModel {
                 template.getEncoding().getCharset(),
                 template.getLineSeparator().getCharacters(),
                 template.getEncoding().requiresBOM(),
-                saveMode == SaveMode.APPEND_FILE
+                saveMode == SaveMode.APPEND_FILE,
+                Runtime.getRuntime().availableProcessors(),
+                outputCompression
         );
 
         var generator = new Generator(template, csv, outputPath.toFile(), options);
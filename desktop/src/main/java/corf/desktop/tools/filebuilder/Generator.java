@@ -2,34 +2,57 @@ package corf.desktop.tools.filebuilder;
 
 import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.Nullable;
 import corf.base.exception.AppException;
-import corf.base.text.CSV;
+import corf.base.io.Compression;
+import corf.base.text.CSVFormatException;
+import corf.base.text.CSVReader;
+import corf.base.text.CSVSource;
 import corf.base.text.Encoding;
-import corf.base.text.LineSeparator;
 import corf.base.text.PlaceholderReplacer;
 import corf.desktop.i18n.DM;
+import corf.desktop.tools.common.ParamTable;
 import corf.desktop.tools.common.ReplacementCheckResult;
+import corf.desktop.tools.common.RowTemplate;
 import corf.desktop.tools.common.TemplateWorker;
 
-import java.io.*;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static corf.base.i18n.I18n.t;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 final class Generator implements TemplateWorker, Runnable {
 
     public static final int MAX_CSV_SIZE = 100_000;
+    static final int CHUNK_SIZE = 1024;
+    static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
 
     private final Template template;
-    private final CSV csv;
+    private final CSVSource csv;
     private final File outputFile;
     private final Options options;
 
-    public Generator(Template template, CSV csv, File outputFile, Options options) {
+    public Generator(Template template, CSVSource csv, File outputFile, Options options) {
         this.template = Objects.requireNonNull(template, "template");
         this.csv = Objects.requireNonNull(csv, "csv");
         this.outputFile = Objects.requireNonNull(outputFile, "file");
@@ -38,9 +61,12 @@ final class Generator implements TemplateWorker, Runnable {
 
     @Override
     public void run() {
-        try (var outputStream = new FileOutputStream(outputFile, options.append());
-             var streamWriter = new OutputStreamWriter(outputStream, options.charset());
-             var out = new BufferedWriter(streamWriter)) {
+        var openOptions = options.append() ?
+                new OpenOption[] { CREATE, WRITE, APPEND } :
+                new OpenOption[] { CREATE, WRITE, TRUNCATE_EXISTING };
+
+        try (var channel = FileChannel.open(outputFile.toPath(), openOptions);
+             var out = new ChannelWriter(compress(channel), options.charset())) {
 
             generate(out);
         } catch (Exception e) {
@@ -48,61 +74,164 @@ final class Generator implements TemplateWorker, Runnable {
         }
     }
 
+    // Compressed data is written as a separate stream even in append mode.
+    // Both gzip and bzip2 decompress concatenated streams as a single file.
+    private WritableByteChannel compress(FileChannel channel) throws IOException {
+        if (options.compression() == Compression.NONE) { return channel; }
+
+        var fileStream = new BufferedOutputStream(Channels.newOutputStream(channel), COMPRESSION_BUFFER_SIZE);
+        return Channels.newChannel(options.compression().compress(fileStream));
+    }
+
     // package private for unit tests
     void generate(Writer out) throws Exception {
-        var replacements = new HashMap<String, String>();
-        var params = template.getParams();
+        try (var rows = csv.open()) {
+            generate(out, rows);
+        }
+    }
+
+    private void generate(Writer out, CSVReader rows) throws Exception {
+        var params = new ParamTable(template.getParams());
+        // constant params are resolved only once and shared between all rows
+        boolean resolveEveryRow = params.hasAutoGenerated();
 
         // write BOM for new files if specified
         if (options.bom() && !options.append()) {
             out.write(Encoding.BOM);
         }
 
-        String pattern = StringUtils.trim(template.getPattern());
+        // template is the same for all rows, so placeholders are bound only once
+        RowTemplate pattern = RowTemplate.compile(StringUtils.trim(template.getPattern()), params);
         String footer = null;
         String delimiter = StringUtils.isNotEmpty(template.getDelimiter()) ? template.getDelimiter() : null;
-        int csvSize = Math.min(csv.length(), MAX_CSV_SIZE);
-
-        for (int rowNum = 0; rowNum < csvSize; rowNum++) {
-            String[] row = csv.get(rowNum);
-            boolean lastRow = rowNum == csvSize - 1;
+        // in-memory CSV size is limited, streaming source is processed entirely
+        int csvSize = TemplateWorker.isInMemory(csv) ? Math.min(csv.length(), MAX_CSV_SIZE) : Integer.MAX_VALUE;
+
+        // rendered chunks that are waiting to be written, in the order of CSV rows
+        var pending = new ArrayDeque<Future<StringBuilder>>();
+        ForkJoinPool pool = null;
+
+        try {
+            int rowNum = 0;
+            @Nullable String[] paramValues = null;
+
+            while (rowNum < csvSize && rows.hasNext()) {
+                int chunkStart = rowNum;
+                int chunkSize = Math.min(CHUNK_SIZE, csvSize - rowNum);
+                var chunkRows = new String[chunkSize][];
+                var chunkParams = new String[chunkSize][];
+
+                // Reading CSV and resolving params is sequential, because both are stateful.
+                // Auto-generated params MUST be updated at EVERY iteration, in the row order.
+                int n = 0;
+                while (n < chunkSize && rows.hasNext()) {
+                    chunkRows[n] = rows.next();
+
+                    if (paramValues == null || resolveEveryRow) {
+                        params.resolve();
+                        paramValues = params.snapshot();
+                    }
+                    chunkParams[n] = paramValues;
+
+                    if (rowNum == 0) {
+                        // header (only named params can be replaced)
+                        if (StringUtils.isNotBlank(template.getHeader())) {
+                            var header = new StringBuilder();
+                            appendLine(header, RowTemplate.compile(template.getHeader(), params).render(), null);
+                            out.append(header);
+                        }
+
+                        // footer (only named params can be replaced)
+                        if (StringUtils.isNotBlank(template.getFooter())) {
+                            footer = RowTemplate.compile(template.getFooter(), params).render();
+                            // write after the last row ...
+                        }
+                    }
+
+                    n++;
+                    rowNum++;
+                }
 
-            // auto-generated named params MUST be updated at EVERY iteration
-            TemplateWorker.putParamReplacements(replacements, params);
+                // streaming source size is unknown until the last row
+                boolean lastChunk = rowNum == csvSize || !rows.hasNext();
+                var chunk = new Chunk(
+                        chunkStart,
+                        n == chunkSize ? chunkRows : Arrays.copyOf(chunkRows, n),
+                        n == chunkSize ? chunkParams : Arrays.copyOf(chunkParams, n),
+                        lastChunk
+                );
+
+                // small input is rendered in place, there's no reason to start threads
+                if (pool == null && (lastChunk || options.parallelism() <= 1)) {
+                    out.append(renderChunk(chunk, pattern, delimiter));
+                    continue;
+                }
 
-            if (rowNum == 0) {
-                // header (replace BEFORE putting index and csv placeholders)
-                if (StringUtils.isNotBlank(template.getHeader())) {
-                    String header = PlaceholderReplacer.replace(template.getHeader(), replacements);
-                    write(out, header, null);
+                if (pool == null) {
+                    pool = new ForkJoinPool(options.parallelism());
                 }
+                pending.add(pool.submit(() -> renderChunk(chunk, pattern, delimiter)));
 
-                // footer (replace BEFORE putting index and csv placeholders)
-                if (StringUtils.isNotBlank(template.getFooter())) {
-                    footer = PlaceholderReplacer.replace(template.getFooter(), replacements);
-                    // write after the last row ...
+                // limit the number of chunks in memory, in case rendering is faster than writing
+                while (pending.size() >= options.parallelism() * 2) {
+                    out.append(await(pending.remove()));
                 }
             }
 
-            TemplateWorker.putIndexReplacements(replacements, rowNum);
-            TemplateWorker.putCsvReplacements(replacements, row);
-
-            var formattedLine = PlaceholderReplacer.replace(pattern, replacements);
-            write(out, formattedLine, delimiter != null && !lastRow ? delimiter : null);
+            while (!pending.isEmpty()) {
+                out.append(await(pending.remove()));
+            }
+        } finally {
+            if (pool != null) { pool.shutdownNow(); }
         }
 
         if (StringUtils.isNotBlank(footer)) {
-            write(out, footer, null);
+            var sb = new StringBuilder();
+            appendLine(sb, footer, null);
+            out.append(sb);
+        }
+    }
+
+    private StringBuilder renderChunk(Chunk chunk, RowTemplate pattern, @Nullable String delimiter) {
+        var out = new StringBuilder(chunk.rows().length * 64);
+        var line = new StringBuilder();
+
+        for (int i = 0; i < chunk.rows().length; i++) {
+            boolean lastRow = chunk.last() && i == chunk.rows().length - 1;
+
+            line.setLength(0);
+            pattern.render(chunk.rows()[i], chunk.startIndex() + i, chunk.paramValues()[i], line);
+            appendLine(out, line, delimiter != null && !lastRow ? delimiter : null);
+        }
+
+        return out;
+    }
+
+    private static StringBuilder await(Future<StringBuilder> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return ExceptionUtils.rethrow(e.getCause());
+        }
+    }
+
+    public static ReplacementCheckResult validate(Template template, CSVSource csv) {
+        try (var rows = csv.open()) {
+            return validate(template, csv, rows);
+        } catch (CSVFormatException e) {
+            return ReplacementCheckResult.malformedCsv(e);
+        } catch (IOException e) {
+            throw new AppException(t(DM.MGG_UNABLE_TO_LOAD_DATA_FROM_FILE), e);
         }
     }
 
-    public static ReplacementCheckResult validate(Template template, CSV csv) {
+    private static ReplacementCheckResult validate(Template template, CSVSource csv, CSVReader rows) {
         var replacements = new HashMap<String, String>();
         var params = SetUtils.emptyIfNull(template.getParams());
         var check = new ReplacementCheckResult.Builder();
 
-        // verify max size
-        if (csv.length() > MAX_CSV_SIZE) {
+        // verify max size, only applicable to in-memory CSV
+        if (TemplateWorker.isInMemory(csv) && csv.length() > MAX_CSV_SIZE) {
             check.setSizeThresholdExceeded(csv.length(), MAX_CSV_SIZE);
         }
 
@@ -118,10 +247,10 @@ final class Generator implements TemplateWorker, Runnable {
 
         int firstRowCellCount = 0, maxCellCount = 0;
         String firstRowAfterFormatting = "";
-        int csvSize = Math.min(csv.length(), MAX_CSV_SIZE);
 
-        for (int rowNum = 0; rowNum < csvSize; rowNum++) {
-            String[] row = csv.get(rowNum);
+        // streaming CSV can be arbitrary large, so only the leading rows are validated
+        for (int rowNum = 0; rowNum < MAX_CSV_SIZE && rows.hasNext(); rowNum++) {
+            String[] row = rows.next();
 
             // unresolved placeholder validation can be performed for the first line only
             if (rowNum == 0) {
@@ -153,25 +282,82 @@ final class Generator implements TemplateWorker, Runnable {
         return check.build();
     }
 
-    private void write(Writer writer, String s, @Nullable String delimiter) throws IOException {
-        writer.write(ensureLineSeparator(StringUtils.trim(s), options.lineSeparator()));
-        if (delimiter != null) { writer.write(delimiter); }
-        writer.write(options.lineSeparator());
+    private void appendLine(StringBuilder out, CharSequence s, @Nullable String delimiter) {
+        // trim without creating a new string
+        int start = 0, end = s.length();
+        while (start < end && s.charAt(start) <= ' ') { start++; }
+        while (end > start && s.charAt(end - 1) <= ' ') { end--; }
+
+        appendWithLineSeparator(out, s, start, end, options.lineSeparator());
+        if (delimiter != null) { out.append(delimiter); }
+        out.append(options.lineSeparator());
+    }
+
+    /** Appends text replacing all line breaks with the specified line separator. */
+    static void appendWithLineSeparator(StringBuilder out, CharSequence text, int start, int end, String lineSeparator) {
+        int lf = indexOf(text, '\n', start, end);
+
+        // most lines have no line breaks at all, so they're copied as is
+        if (lf < 0) {
+            out.append(text, start, end);
+            return;
+        }
+
+        int pos = start;
+        while (lf >= 0) {
+            // CRLF or LF
+            int lineEnd = lf > pos && text.charAt(lf - 1) == '\r' ? lf - 1 : lf;
+            out.append(text, pos, lineEnd).append(lineSeparator);
+            pos = lf + 1;
+            lf = indexOf(text, '\n', pos, end);
+        }
+        out.append(text, pos, end);
     }
 
-    private String ensureLineSeparator(String text, String lineSeparator) {
-        return String.join(lineSeparator, text.split(LineSeparator.LINE_SPLIT_PATTERN));
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) { return i; }
+        }
+        return -1;
     }
 
     ///////////////////////////////////////////////////////////////////////////
 
-    record Options(Charset charset, String lineSeparator, boolean bom, boolean append) {
-
-        Options(Charset charset, String lineSeparator, boolean bom, boolean append) {
+    /**
+     * Generator options.
+     *
+     * @param bom         write BOM to the beginning of the new file, it's never
+     *                    written in append mode, even for compressed output
+     * @param parallelism the number of threads used to render CSV rows,
+     *                    1 means rows are rendered sequentially
+     * @param compression output file compression
+     */
+    record Options(Charset charset,
+                   String lineSeparator,
+                   boolean bom,
+                   boolean append,
+                   int parallelism,
+                   Compression compression) {
+
+        Options(Charset charset,
+                String lineSeparator,
+                boolean bom,
+                boolean append,
+                int parallelism,
+                Compression compression) {
             this.charset = Objects.requireNonNullElse(charset, StandardCharsets.UTF_8);
             this.lineSeparator = Objects.requireNonNullElse(lineSeparator, System.lineSeparator());
             this.bom = bom;
             this.append = append;
+            this.parallelism = Math.max(parallelism, 1);
+            this.compression = Objects.requireNonNullElse(compression, Compression.NONE);
+        }
+
+        Options(Charset charset, String lineSeparator, boolean bom, boolean append) {
+            this(charset, lineSeparator, bom, append, 1, Compression.NONE);
         }
     }
+
+    /** Consecutive CSV rows with the param values resolved for each row. */
+    private record Chunk(int startIndex, String[][] rows, String[][] paramValues, boolean last) { }
 }
@@ -3,21 +3,26 @@ package corf.desktop.tools.filebuilder;
 import atlantafx.base.controls.Spacer;
 import atlantafx.base.theme.Styles;
 import javafx.beans.binding.Bindings;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
+import javafx.geometry.Pos;
 import javafx.scene.Cursor;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.OverrunStyle;
 import javafx.scene.control.RadioButton;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
 import org.kordamp.ikonli.javafx.FontIcon;
 import org.kordamp.ikonli.material2.Material2OutlinedAL;
 import corf.base.desktop.Dialogs;
 import corf.base.desktop.controls.Message;
 import corf.base.desktop.controls.ModalDialog;
+import corf.base.io.Compression;
 import corf.desktop.i18n.DM;
 import corf.desktop.layout.Recommends;
 import corf.desktop.tools.common.ReplacementCheckResult;
@@ -48,6 +53,9 @@ final class SaveDialog extends ModalDialog {
     RadioButton clipboardRadio;
     Label clipboardLabel;
 
+    Label compressionLabel;
+    ComboBox<Compression> compressionChoice;
+
     Button applyBtn;
     Button closeBtn;
 
@@ -128,8 +136,33 @@ final class SaveDialog extends ModalDialog {
         choiceGrid.add(appendFileLabel, 1, 5);
         choiceGrid.add(appendFileNameLabel, 1, 6);
 
+        // ~
+
+        compressionLabel = new Label(t(DM.FILE_BUILDER_COMPRESSION));
+
+        compressionChoice = new ComboBox<>(FXCollections.observableArrayList(Compression.values()));
+        compressionChoice.setPrefWidth(150);
+        compressionChoice.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Compression compression) {
+                if (compression == null) { return ""; }
+                return compression != Compression.NONE ?
+                        compression.name().toLowerCase() + " (" + compression.getExtension() + ")" :
+                        t(DM.FILE_BUILDER_NO_COMPRESSION);
+            }
+
+            @Override
+            public Compression fromString(String s) {
+                return Compression.NONE;
+            }
+        });
+
+        var compressionBox = new HBox(Recommends.FORM_INLINE_SPACING, compressionLabel, compressionChoice);
+        compressionBox.setAlignment(Pos.CENTER_LEFT);
+        compressionBox.setPadding(new Insets(Recommends.CONTENT_SPACING, 0, 0, 0));
+
         var body = new VBox();
-        body.getChildren().addAll(messageBox, choiceGrid);
+        body.getChildren().addAll(messageBox, choiceGrid, compressionBox);
         body.setPrefWidth(DIALOG_WIDTH);
 
         // == FOOTER ==
@@ -178,6 +211,11 @@ final class SaveDialog extends ModalDialog {
             model.appendFileProperty().set(file.toPath());
         });
 
+        compressionChoice.valueProperty().bindBidirectional(model.compressionProperty());
+        // clipboard content can't be compressed and appended file compression is defined by its extension
+        compressionChoice.disableProperty().bind(newFileRadio.selectedProperty().not());
+        compressionLabel.disableProperty().bind(newFileRadio.selectedProperty().not());
+
         applyBtn.setOnAction(e -> {
             model.generateCommand().run();
             close();
@@ -22,6 +22,8 @@ import corf.desktop.i18n.DM;
 import java.io.File;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 
@@ -45,9 +47,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
 
     @Override
     public void init() {
-        filter.addListener((obs, old, val) -> templates.getFilteredList().setPredicate(
-                val != null ? template -> isTemplateMatchesFilter(val, template) : NO_FILTER
-        ));
+        filter.addListener((obs, old, val) -> applyFilter(val));
 
         templates.getSortedList().setComparator(Template::compareTo);
         reloadTemplates(null, true);
@@ -58,6 +58,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
         setShouldUpdateEditor(updateEditor);
 
         templates.getItems().setAll(templateRepository.getAll());
+        applyFilter(filter.get());
         usedTemplateNames.clear();
         usedTemplateNames.addAll(templateRepository.getNames());
         selectTemplate(templateToSelect);
@@ -93,6 +94,17 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
         }
     }
 
+    private void applyFilter(@Nullable String filter) {
+        if (StringUtils.isBlank(filter)) {
+            templates.getFilteredList().setPredicate(NO_FILTER);
+            return;
+        }
+
+        // name index is queried once per filter change instead of testing each template name
+        Set<UUID> matchedIds = templateRepository.findIdsByName(filter);
+        templates.getFilteredList().setPredicate(template -> matchedIds.contains(template.getId()));
+    }
+
     private boolean isTemplateMatchesFilter(@Nullable String filter, @Nullable Template template) {
         if (filter == null || template == null) { return true; }
         var s = filter.trim().toLowerCase();
@@ -155,7 +167,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
         // set all mandatory template properties
         final Template template = Template.create(generateTemplateName(TEMPLATE_NAME_PREFIX), "Hello ${name}!");
 
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.add(template);
                     templateRepository.saveToDisk();
                 }))
@@ -188,7 +200,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
                 template.getName() + " (copy)";
         template.setName(generateTemplateName(namePrefix));
 
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.add(template);
                     templateRepository.saveToDisk();
                 }))
@@ -235,7 +247,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
 
     private void removeTemplate() {
         final Template template = selectedTemplate.get();
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.removeById(template.getId());
                     templateRepository.saveToDisk();
                 }))
@@ -255,7 +267,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
 
     private void importTemplate(File inputFile) {
         Env.setLastVisitedDir(inputFile);
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.importFromFile(inputFile);
                     templateRepository.saveToDisk();
                 }))
@@ -1,10 +1,14 @@
 package corf.desktop.tools.httpsender;
 
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.Nullable;
+import corf.base.common.NumberUtils;
 import corf.base.text.LineSeparator;
 import corf.base.security.UsernamePasswordCredentials;
 import corf.base.net.ApacheHttpClient;
@@ -12,96 +16,221 @@ import corf.base.net.HttpConstants.AuthScheme;
 import corf.base.net.HttpConstants.Headers;
 import corf.base.preferences.Proxy;
 import corf.base.text.PlaceholderReplacer;
-import corf.base.text.CSV;
+import corf.base.text.CSVSource;
 import corf.desktop.tools.common.ReplacementCheckResult;
+import corf.desktop.tools.common.TemplateWorker;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
 
 final class Executor extends Task<ObservableList<LogRecord>> {
 
+    private static final System.Logger LOGGER = System.getLogger(Executor.class.getName());
+
     static final String HEADER_KEY_VALUE_SEPARATOR = ":";
+    static final int UNKNOWN_SIZE = -1;
 
     private final Template template;
-    private final CSV csv;
+    private final CSVSource csv;
+    private volatile int rowCount;
+    private final Map<String, String> httpHeaders;
     private final ObservableList<LogRecord> log;
     private final Options options;
-    private final ApacheHttpClient.Builder httpBuilder;
-    private final ExecutorQueue queue;
+    private final AtomicInteger processedRows = new AtomicInteger(0);
+    private final @Nullable RateLimiter rateLimiter;
+    private final ReadOnlyIntegerWrapper plannedRequestCount = new ReadOnlyIntegerWrapper(0);
 
-    public Executor(Template template, CSV csv, ObservableList<LogRecord> log, Options options) {
+    public Executor(Template template, CSVSource csv, ObservableList<LogRecord> log, Options options) {
         this.template = Objects.requireNonNull(template, "template");
         this.csv = Objects.requireNonNull(csv, "csv");
         this.log = Objects.requireNonNull(log, "log");
         this.options = Objects.requireNonNull(options, "options");
 
-        var httpHeaders = new HashMap<>(parseHttpHeaders(template.getHeaders()));
-
-        this.httpBuilder = ApacheHttpClient.builder()
-                .timeouts((int) TimeUnit.SECONDS.toMillis(template.getWaitTimeout()))
-                .ignoreCookies()
-                .trustAllCertificates();
+        // in-memory CSV size is limited, streaming source is processed entirely,
+        // but counting its rows requires a full file scan, which is done by the task itself
+        if (TemplateWorker.isInMemory(csv)) {
+            rowCount = Math.min(csv.length(), ExecutorQueue.MAX_CSV_SIZE);
+            plannedRequestCount.set(ExecutorQueue.size(template, rowCount));
+        } else {
+            rowCount = UNKNOWN_SIZE;
+        }
 
-        // add auth headers (if applicable), so they will be present in every request
-        configureAuth(httpHeaders);
+        httpHeaders = new HashMap<>(parseHttpHeaders(template.getHeaders()));
 
-        // configure http proxy, if present
-        if (options.proxy() != null) {
-            httpBuilder.proxy(options.proxy());
+        // Since it's allowed to specify HTTP headers manually as string, user can add auth headers as well.
+        // However, auth dialog has higher priority. If the latter, we must remove user headers here,
+        // because Apache HTTP client doesn't support overriding for such cases.
+        if (isAuthEnabled()) {
+            httpHeaders.entrySet().removeIf(e -> Headers.AUTHORIZATION.equalsIgnoreCase(e.getKey()));
         }
 
-        queue = new ExecutorQueue(template, csv, httpHeaders);
+        var rateLimit = options.rateLimit();
+        rateLimiter = rateLimit != null ? new RateLimiter(rateLimit.requestsPerSecond(), rateLimit.burst()) : null;
     }
 
     @Override
-    protected ObservableList<LogRecord> call() {
-        var httpClient = httpBuilder.build();
+    protected ObservableList<LogRecord> call() throws Exception {
+        int concurrency = options.concurrency();
+
+        // all workers share the same client and the connection pool, thus
+        // connections are kept alive and re-used between subsequent requests
+        if (rowCount == UNKNOWN_SIZE) { countRowsAsync(); }
+
+        try (var rows = csv.open(); var httpClient = createHttpClient()) {
+            int limit = rowCount != UNKNOWN_SIZE ? rowCount : Integer.MAX_VALUE;
+            var queue = new ExecutorQueue(template, rows, limit, httpHeaders);
+
+            if (concurrency == 1) {
+                processQueue(queue, httpClient);
+                logPoolStats(httpClient);
+                return log;
+            }
 
-        while (queue.hasNext()) {
+            // every worker takes requests from the same queue until it's exhausted,
+            // so there's no more than N requests in flight at any given time
+            var workers = Executors.newFixedThreadPool(concurrency);
+            try {
+                var futures = new ArrayList<Future<?>>(concurrency);
+                for (int i = 0; i < concurrency; i++) {
+                    futures.add(workers.submit(() -> processQueue(queue, httpClient)));
+                }
+
+                for (var future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        ExceptionUtils.rethrow(e.getCause());
+                    }
+                }
+            } finally {
+                // interrupts remaining workers if the task has been canceled or any of the workers failed
+                workers.shutdownNow();
+            }
+
+            logPoolStats(httpClient);
+        }
+
+        return log;
+    }
+
+    private void processQueue(ExecutorQueue queue, ApacheHttpClient httpClient) {
+        while (true) {
             // stop if task has been canceled
-            if (isCancelled()) { break; }
+            if (isCancelled() || Thread.currentThread().isInterrupted()) { break; }
 
-            var index = queue.getIndex();
-            var startTime = System.currentTimeMillis();
+            // in rate limiting mode request is sent as soon as the permit is available
+            if (rateLimiter != null && !acquirePermit()) { break; }
 
-            var request = queue.next();
-            var response = httpClient.execute(request);
+            var entry = queue.poll();
+            if (entry == null) { break; }
 
+            var startTime = System.currentTimeMillis();
+            var response = httpClient.execute(entry.request());
             var endTime = System.currentTimeMillis();
-            var processedRows = queue.getIndex() - index;
-            var logRecord = new LogRecord(index, processedRows, request, response, endTime - startTime);
+
+            var logRecord = new LogRecord(entry.index(), entry.rowCount(), entry.request(), response, endTime - startTime);
 
             Platform.runLater(() -> log.add(logRecord));
-            updateProgress(queue.getIndex(), csv.length());
+            // progress is indeterminate until the streaming source rows are counted
+            updateProgress(processedRows.addAndGet(entry.rowCount()), rowCount);
 
             // timeout before sending next request
-            if (queue.hasNext()) {
+            if (rateLimiter == null && queue.hasNext()) {
                 sleepSilently(options.pollTimeout());
             }
         }
+    }
 
-        return log;
+    // Counts rows concurrently with processing, so that sending requests doesn't wait
+    // for the full file scan. Only affects the reported progress.
+    private void countRowsAsync() {
+        var counter = new Thread(() -> {
+            try {
+                int count = csv.length();
+                rowCount = count;
+                Platform.runLater(() -> plannedRequestCount.set(ExecutorQueue.size(template, count)));
+            } catch (RuntimeException e) {
+                // malformed rows will be also reported by the task itself
+                LOGGER.log(WARNING, "Unable to count CSV rows", e);
+            }
+        }, "csv-row-counter");
+        counter.setDaemon(true);
+        counter.start();
     }
 
-    private void configureAuth(Map<String, String> httpHeaders) {
-        if (options.authScheme() == null || options.credentials() == null) { return; }
+    private void logPoolStats(ApacheHttpClient httpClient) {
+        LOGGER.log(DEBUG, "Connection pool stats: " + httpClient.getPoolStats());
+    }
 
-        // Since it's allowed to specify HTTP headers manually as string, user can add auth headers as well.
-        // However, auth dialog has higher priority. If the latter, we must remove user headers here,
-        // because Apache HTTP client doesn't support overriding for such cases.
-        httpHeaders.entrySet().removeIf(e -> Headers.AUTHORIZATION.equalsIgnoreCase(e.getKey()));
+    private boolean acquirePermit() {
+        try {
+            Objects.requireNonNull(rateLimiter).acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Changes the rate limit of the running task. Has no effect unless
+     * the task has been started in rate limiting mode.
+     */
+    public void setRateLimit(RateLimit rateLimit) {
+        Objects.requireNonNull(rateLimit, "rateLimit");
+        if (rateLimiter != null) {
+            rateLimiter.setRate(rateLimit.requestsPerSecond(), rateLimit.burst());
+        }
+    }
+
+    public boolean isRateLimited() {
+        return rateLimiter != null;
+    }
+
+    private ApacheHttpClient createHttpClient() {
+        var httpBuilder = ApacheHttpClient.builder()
+                .timeouts((int) TimeUnit.SECONDS.toMillis(template.getWaitTimeout()))
+                .ignoreCookies()
+                .trustAllCertificates()
+                .connectionPool(ApacheHttpClient.PoolOptions.forConcurrency(options.concurrency()));
+
+        // add auth headers (if applicable), so they will be present in every request
+        configureAuth(httpBuilder);
+
+        // configure http proxy, if present
+        if (options.proxy() != null) {
+            httpBuilder.proxy(options.proxy());
+        }
+
+        return httpBuilder.build();
+    }
+
+    private boolean isAuthEnabled() {
+        return options.authScheme() != null && options.credentials() != null;
+    }
+
+    private void configureAuth(ApacheHttpClient.Builder httpBuilder) {
+        if (!isAuthEnabled()) { return; }
 
         // placeholders use % sign that makes whole URL invalid
         String safeString = PlaceholderReplacer.removePlaceholders(template.getUri());
         if (options.authScheme() == AuthScheme.BASIC) {
             httpBuilder.basicAuth(
-                    options.credentials().toPasswordAuthentication(),
+                    Objects.requireNonNull(options.credentials()).toPasswordAuthentication(),
                     removeUriPath(URI.create(safeString)),
                     true
             );
@@ -141,42 +270,76 @@ final class Executor extends Task<ObservableList<LogRecord>> {
         return headers;
     }
 
-    public static ReplacementCheckResult validate(Template template, CSV csv) {
+    public static ReplacementCheckResult validate(Template template, CSVSource csv) {
         return ExecutorQueue.validate(template, csv);
     }
 
+    /**
+     * Returns the number of requests to be sent, or zero if it's not known yet.
+     * The value is updated on the FX thread when streaming source rows are counted.
+     */
+    public ReadOnlyIntegerProperty plannedRequestCountProperty() {
+        return plannedRequestCount.getReadOnlyProperty();
+    }
+
     public int getPlannedRequestCount() {
-        return queue.size();
+        return plannedRequestCount.get();
     }
 
     ///////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Executor options.
+     *
+     * @param pollTimeout timeout between two subsequent requests (of the same worker),
+     *                    ignored if rate limit is specified
+     * @param concurrency max number of requests that can be sent simultaneously
+     * @param rateLimit   max request rate, shared between all workers
+     * @param proxy       proxy settings
+     * @param authScheme  auth scheme, if authentication is required
+     * @param credentials auth credentials, if authentication is required
+     */
     record Options(Duration pollTimeout,
+                   int concurrency,
+                   @Nullable RateLimit rateLimit,
                    @Nullable Proxy proxy,
                    @Nullable AuthScheme authScheme,
                    @Nullable UsernamePasswordCredentials credentials) {
 
+        public static final int MAX_CONCURRENCY = 32;
+
         Options(Duration pollTimeout,
+                int concurrency,
+                @Nullable RateLimit rateLimit,
                 @Nullable Proxy proxy,
                 @Nullable AuthScheme authScheme,
                 @Nullable UsernamePasswordCredentials credentials) {
 
             this.pollTimeout = Objects.requireNonNullElse(pollTimeout, Duration.ofMillis(200));
+            this.concurrency = NumberUtils.ensureRange(concurrency, 1, MAX_CONCURRENCY);
+            this.rateLimit = rateLimit;
             this.proxy = proxy;
             this.authScheme = authScheme;
             this.credentials = credentials;
         }
 
-        public static Options simple(int pollTimeout, @Nullable Proxy proxy) {
-            return new Options(Duration.ofMillis(pollTimeout), proxy, null, null);
+        public Options withRateLimit(@Nullable RateLimit rateLimit) {
+            return new Options(pollTimeout, concurrency, rateLimit, proxy, authScheme, credentials);
+        }
+
+        public static Options simple(int pollTimeout, int concurrency, @Nullable Proxy proxy) {
+            return new Options(Duration.ofMillis(pollTimeout), concurrency, null, proxy, null, null);
         }
 
         public static Options forBasicAuth(int pollTimeout,
+                                           int concurrency,
                                            @Nullable Proxy proxy,
                                            String username,
                                            String password) {
             return new Options(
                     Duration.ofMillis(pollTimeout),
+                    concurrency,
+                    null,
                     proxy,
                     AuthScheme.BASIC,
                     UsernamePasswordCredentials.of(
@@ -186,4 +349,22 @@ final class Executor extends Task<ObservableList<LogRecord>> {
             );
         }
     }
+
+    /**
+     * Request rate limit.
+     *
+     * @param requestsPerSecond max sustained request rate
+     * @param burst             max number of requests that can be sent at once
+     *                          after the period of inactivity
+     */
+    record RateLimit(int requestsPerSecond, int burst) {
+
+        public static final int MAX_RATE = 1000;
+        public static final int MAX_BURST = 100;
+
+        RateLimit(int requestsPerSecond, int burst) {
+            this.requestsPerSecond = NumberUtils.ensureRange(requestsPerSecond, 1, MAX_RATE);
+            this.burst = NumberUtils.ensureRange(burst, 1, MAX_BURST);
+        }
+    }
 }
@@ -1,122 +1,163 @@
 package corf.desktop.tools.httpsender;
 
 import corf.base.common.NumberUtils;
+import corf.base.exception.AppException;
 import corf.base.net.HttpClient;
 import corf.base.text.CSV;
+import corf.base.text.CSVFormatException;
+import corf.base.text.CSVReader;
+import corf.base.text.CSVSource;
 import corf.base.text.PlaceholderReplacer;
-import corf.desktop.tools.common.Param;
+import corf.desktop.i18n.DM;
+import corf.desktop.tools.common.ParamTable;
 import corf.desktop.tools.common.ReplacementCheckResult;
+import corf.desktop.tools.common.RowTemplate;
 import corf.desktop.tools.common.TemplateWorker;
-import corf.desktop.tools.httpsender.Template.Batch;
+import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.TreeMap;
 import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nullable;
 
+import static corf.base.i18n.I18n.t;
+
 final class ExecutorQueue implements Iterator<HttpClient.Request>, TemplateWorker {
 
     static final int MAX_CSV_SIZE = 100_000;
 
     private final Template template;
-    private final CSV csv;
+    private final CSVReader rows;
     private final Map<String, String> baseHttpHeaders;
 
     private final int csvSize;
     private final int batchSize;
-    private final Map<String, String> replacements;
-    private final Set<Param> params;
+    private final ParamTable params;
+
+    // templates are the same for all rows, so placeholders are bound only once
+    private final RowTemplate uriTemplate;
+    private final RowTemplate bodyTemplate;
+    private final RowTemplate batchStartTemplate;
+    private final RowTemplate batchEndTemplate;
+    private final Map<String, RowTemplate> headerTemplates;
+    private final StringBuilder bodyBuffer = new StringBuilder();
 
     // index is always incremented by 1, it doesn't depend on batch size
     private int index = 0;
     private int processedCount = 0;
 
     public ExecutorQueue(Template template, CSV csv, Map<String, String> httpHeaders) {
+        this(template, csv.open(), Math.min(csv.length(), MAX_CSV_SIZE), httpHeaders);
+    }
+
+    /**
+     * Creates a queue that reads CSV rows sequentially, so the whole CSV
+     * doesn't have to be loaded into memory. The caller is responsible for
+     * closing the reader.
+     *
+     * @param rows     CSV rows reader
+     * @param rowCount number of rows to be processed
+     */
+    public ExecutorQueue(Template template, CSVReader rows, int rowCount, Map<String, String> httpHeaders) {
         this.template = Objects.requireNonNull(template, "template");
-        this.csv = Objects.requireNonNull(csv, "csv");
+        this.rows = Objects.requireNonNull(rows, "rows");
         this.baseHttpHeaders = Objects.requireNonNullElse(httpHeaders, Collections.emptyMap());
 
-        csvSize = Math.min(csv.length(), MAX_CSV_SIZE);
+        csvSize = rowCount;
 
         // batch size is limited by row count
-        batchSize = NumberUtils.ensureRange(template.getBatch().getSize(), 1, csv.length());
+        batchSize = NumberUtils.ensureRange(template.getBatch().getSize(), 1, rowCount);
 
-        replacements = new HashMap<>();
-        params = template.getParams();
+        params = new ParamTable(template.getParams());
+        uriTemplate = RowTemplate.compile(template.getUri(), params);
+        bodyTemplate = RowTemplate.compile(template.getBody(), params);
+        batchStartTemplate = RowTemplate.compile(template.getBatch().getStart(), params);
+        batchEndTemplate = RowTemplate.compile(template.getBatch().getEnd(), params);
+
+        headerTemplates = new TreeMap<>();
+        baseHttpHeaders.forEach((name, value) -> headerTemplates.put(name, RowTemplate.compile(value, params)));
     }
 
     @Override
-    public boolean hasNext() {
-        return processedCount < csvSize;
+    public synchronized boolean hasNext() {
+        return processedCount < csvSize && rows.hasNext();
+    }
+
+    /**
+     * Atomically takes the next request along with the CSV rows range it was
+     * created from. Unlike {@link #next()} this method is safe to be called by
+     * multiple workers, which consume the same queue concurrently.
+     *
+     * @return the next queue entry or {@code null} if the queue is exhausted
+     */
+    public synchronized @Nullable Entry poll() {
+        if (!hasNext()) { return null; }
+
+        int startIndex = index;
+        var request = next();
+        return new Entry(startIndex, index - startIndex, request);
     }
 
     @Override
-    public HttpClient.Request next() {
+    public synchronized HttpClient.Request next() {
         String uri, body;
-        var httpHeaders = new TreeMap<>(baseHttpHeaders);
+        Map<String, String> httpHeaders;
         int processedRows;
 
         if (!template.isBatchMode()) {
-            String[] row = csv.get(index);
+            String[] row = rows.next();
 
-            TemplateWorker.putParamReplacements(replacements, params);
-            TemplateWorker.putCsvReplacements(replacements, row);
-            TemplateWorker.putIndexReplacements(replacements, index);
+            params.resolve();
 
             // URI, HTTP headers and body are allowed to contain placeholders
-            uri = PlaceholderReplacer.replace(template.getUri(), replacements);
-            body = PlaceholderReplacer.replace(template.getBody(), replacements);
-            replaceHttpHeaders(httpHeaders, replacements);
+            uri = uriTemplate.render(row, index);
+            body = bodyTemplate.render(row, index);
+            httpHeaders = renderHttpHeaders(row, index);
 
             processedRows = 1;
             index++;
         } else {
-            int batchEndIndex = Math.min(index + batchSize, csv.length());
-            String[][] batchCsvRange = csv.getDataRange(index, batchEndIndex);
-            String[] batchBodyArray = new String[batchCsvRange.length];
+            String[][] batchCsvRange = nextBatch();
 
             // In batch mode URI and HTTP headers are not allowed to contain CSV
             // or index placeholders, because they would be identical for multiple
             // CSV rows. So, we ONLY REPLACE NAMED PARAMS here.
-            TemplateWorker.putParamReplacements(replacements, params);
-            uri = PlaceholderReplacer.replace(template.getUri(), replacements);
-            replaceHttpHeaders(httpHeaders, replacements);
+            params.resolve();
+            uri = uriTemplate.render();
+            httpHeaders = renderHttpHeaders(null, index);
+
+            // batch wrapper is allowed to contain params placeholders (e.g. for API key),
+            // it must be rendered before params are updated for the next batch items
+            bodyBuffer.setLength(0);
+            batchStartTemplate.render(null, index, bodyBuffer);
+            String batchEnd = batchEndTemplate.render();
+            String separator = StringUtils.defaultString(template.getBatch().getSeparator());
 
             // only payload can contain CSV or index placeholders
-            var batchReplacements = new HashMap<>(replacements);
             for (int batchIndex = 0; batchIndex < batchCsvRange.length; batchIndex++) {
                 String[] row = batchCsvRange[batchIndex];
 
                 // auto-generated named params MUST be updated at EVERY iteration,
-                // skipping the first iteration, because we already put param
-                // replacements once (for URI/headers)
+                // skipping the first iteration, because we already resolved
+                // params once (for URI/headers)
                 if (batchIndex > 0) {
-                    TemplateWorker.putParamReplacements(batchReplacements, params);
+                    params.resolve();
+                    bodyBuffer.append(separator);
                 }
 
-                TemplateWorker.putCsvReplacements(batchReplacements, row);
-                TemplateWorker.putIndexReplacements(batchReplacements, index);
-
-                batchBodyArray[batchIndex] = PlaceholderReplacer.replace(template.getBody(), batchReplacements);
+                bodyTemplate.render(row, index, bodyBuffer);
 
                 index++;
             }
 
-            Batch batch = template.getBatch();
-
-            // batch wrapper is allowed to contain params placeholders (e.g. for API key)
-            String batchStart = PlaceholderReplacer.replace(batch.getStart(), replacements);
-            String batchEnd = PlaceholderReplacer.replace(batch.getEnd(), replacements);
-
-            body = batchStart
-                + String.join(StringUtils.defaultString(batch.getSeparator()), batchBodyArray)
-                + batchEnd;
+            bodyBuffer.append(batchEnd);
+            body = bodyBuffer.toString();
             processedRows = batchCsvRange.length;
         }
 
@@ -128,29 +169,60 @@ final class ExecutorQueue implements Iterator<HttpClient.Request>, TemplateWorke
         return new HttpClient.Request(template.getMethod(), URI.create(uri), httpHeaders, body);
     }
 
-    public int getIndex() {
+    public synchronized int getIndex() {
         return index;
     }
 
     public int size() {
-        int len = csv.length();
+        return size(csvSize, batchSize);
+    }
+
+    /** Returns the number of requests required to process given number of CSV rows. */
+    public static int size(Template template, int rowCount) {
+        return size(rowCount, NumberUtils.ensureRange(template.getBatch().getSize(), 1, rowCount));
+    }
+
+    private static int size(int len, int batchSize) {
         return batchSize <= 1 ? len : len / batchSize + ((len % batchSize > 0) ? 1 : 0);
     }
 
-    private void replaceHttpHeaders(Map<String, String> headers,
-                                    Map<String, String> replacements) {
-        for (var entry : headers.entrySet()) {
-            entry.setValue(PlaceholderReplacer.replace(entry.getValue(), replacements));
+    private String[][] nextBatch() {
+        int count = Math.min(batchSize, csvSize - processedCount);
+        var batch = new String[count][];
+
+        int i = 0;
+        while (i < count && rows.hasNext()) {
+            batch[i++] = rows.next();
+        }
+
+        return i == count ? batch : Arrays.copyOf(batch, i);
+    }
+
+    private Map<String, String> renderHttpHeaders(@Nullable String[] row, int index) {
+        var headers = new TreeMap<String, String>();
+        for (var entry : headerTemplates.entrySet()) {
+            headers.put(entry.getKey(), entry.getValue().render(row, index));
+        }
+        return headers;
+    }
+
+    public static ReplacementCheckResult validate(Template template, CSVSource csv) {
+        try (var rows = csv.open()) {
+            return validate(template, csv, rows);
+        } catch (CSVFormatException e) {
+            return ReplacementCheckResult.malformedCsv(e);
+        } catch (IOException e) {
+            throw new AppException(t(DM.MGG_UNABLE_TO_LOAD_DATA_FROM_FILE), e);
         }
     }
 
-    public static ReplacementCheckResult validate(Template template, CSV csv) {
+    private static ReplacementCheckResult validate(Template template, CSVSource csv, CSVReader rows) {
         var replacements = new HashMap<String, String>();
         var params = SetUtils.emptyIfNull(template.getParams());
         var check = new ReplacementCheckResult.Builder();
 
-        // verify max size
-        if (csv.length() > MAX_CSV_SIZE) {
+        // verify max size, only applicable to in-memory CSV
+        if (TemplateWorker.isInMemory(csv) && csv.length() > MAX_CSV_SIZE) {
             check.setSizeThresholdExceeded(csv.length(), MAX_CSV_SIZE);
         }
 
@@ -159,10 +231,10 @@ final class ExecutorQueue implements Iterator<HttpClient.Request>, TemplateWorke
         check.setContainsBlankValues(blankParamValuesDetected);
 
         int firstRowCellCount = 0, maxCellCount = 0;
-        int csvSize = Math.min(csv.length(), MAX_CSV_SIZE);
 
-        for (int rowNum = 0; rowNum < csvSize; rowNum++) {
-            String[] row = csv.get(rowNum);
+        // streaming CSV can be arbitrary large, so only the leading rows are validated
+        for (int rowNum = 0; rowNum < MAX_CSV_SIZE && rows.hasNext(); rowNum++) {
+            String[] row = rows.next();
 
             // unresolved placeholder validation can be performed for the first line only
             if (rowNum == 0) {
@@ -203,4 +275,15 @@ final class ExecutorQueue implements Iterator<HttpClient.Request>, TemplateWorke
             check.addInvalidLine(formattedLine);
         }
     }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The request to be sent.
+     *
+     * @param index    index of the first CSV row used to create the request
+     * @param rowCount number of CSV rows used to create the request
+     * @param request  the request itself
+     */
+    record Entry(int index, int rowCount, HttpClient.Request request) { }
 }
@@ -137,7 +137,7 @@ public final class HttpSenderView extends VBox implements View<HttpSenderView, H
         startBtn.disableProperty().bind(Observables.or(
                 model.selectedTemplateProperty().isNull(),
                 model.ongoingProperty(),
-                Observables.isBlank(model.csvTextProperty())
+                Observables.and(Observables.isBlank(model.csvTextProperty()), model.csvFileProperty().isNull())
         ));
 
         stopBtn.setOnAction(e -> stop());
@@ -21,6 +21,9 @@ import corf.base.exception.AppException;
 import corf.base.preferences.CompletionRegistry;
 import corf.base.preferences.SharedPreferences;
 import corf.base.text.CSV;
+import corf.base.text.CSVFile;
+import corf.base.text.CSVFormatException;
+import corf.base.text.CSVSource;
 import corf.base.text.LineSeparator;
 import corf.desktop.EventID;
 import corf.desktop.i18n.DM;
@@ -31,6 +34,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
@@ -80,6 +84,9 @@ public final class HttpSenderViewModel implements Initializable, ViewModel {
 
         log.getItems().addListener(new LogStatListener());
 
+        rateLimit.addListener((obs, old, val) -> updateRateLimit());
+        rateBurst.addListener((obs, old, val) -> updateRateLimit());
+
         logErrorsOnly.addListener((obs, old, val) -> {
             if (val != null) {
                 log.getFilteredList().setPredicate(request -> !val || !request.succeeded());
@@ -90,7 +97,29 @@ public final class HttpSenderViewModel implements Initializable, ViewModel {
     ReplacementCheckResult validate() {
         var template = new Template(Objects.requireNonNull(getSelectedTemplate(), "Selected template must not be null!"));
         template.setParams(getTemplateParams());
-        return Executor.validate(template, CSV.from(csvText.get()));
+        try {
+            return Executor.validate(template, getCsvSource());
+        } catch (CSVFormatException e) {
+            return ReplacementCheckResult.malformedCsv(e);
+        }
+    }
+
+    private Executor.RateLimit getRateLimit() {
+        return new Executor.RateLimit(
+                Objects.requireNonNullElse(rateLimit.get(), 1),
+                Objects.requireNonNullElse(rateBurst.get(), 1)
+        );
+    }
+
+    private void updateRateLimit() {
+        if (executor != null && executor.isRunning() && executor.isRateLimited()) {
+            executor.setRateLimit(getRateLimit());
+        }
+    }
+
+    private CSVSource getCsvSource() {
+        Path path = csvFile.get();
+        return path != null ? new CSVFile(path) : CSV.from(csvText.get());
     }
 
     // ComboBox is bugged! Do not try to update list items partially. You'll run into issues
@@ -145,6 +174,10 @@ public final class HttpSenderViewModel implements Initializable, ViewModel {
     private final StringProperty csvText = new SimpleStringProperty();
     public StringProperty csvTextProperty() { return csvText; }
 
+    // if specified, CSV data is streamed from the file, text area content is ignored
+    private final ObjectProperty<Path> csvFile = new SimpleObjectProperty<>();
+    public ObjectProperty<Path> csvFileProperty() { return csvFile; }
+
     // the value is bound to the task runningProperty()
     private final ReadOnlyBooleanWrapper ongoing = new ReadOnlyBooleanWrapper();
     public ReadOnlyBooleanProperty ongoingProperty() { return ongoing.getReadOnlyProperty(); }
@@ -161,6 +194,19 @@ public final class HttpSenderViewModel implements Initializable, ViewModel {
     private final IntegerProperty pollTimeout = new SimpleIntegerProperty();
     public IntegerProperty pollTimeoutProperty() { return pollTimeout; }
 
+    private final IntegerProperty concurrency = new SimpleIntegerProperty(1);
+    public IntegerProperty concurrencyProperty() { return concurrency; }
+
+    private final BooleanProperty useRateLimit = new SimpleBooleanProperty();
+    public BooleanProperty useRateLimitProperty() { return useRateLimit; }
+
+    // rate limit can be changed while task is running
+    private final ObjectProperty<Integer> rateLimit = new SimpleObjectProperty<>(10);
+    public ObjectProperty<Integer> rateLimitProperty() { return rateLimit; }
+
+    private final ObjectProperty<Integer> rateBurst = new SimpleObjectProperty<>(1);
+    public ObjectProperty<Integer> rateBurstProperty() { return rateBurst; }
+
     private final ChangeList<LogRecord> log = new ChangeList<>();
     public ObservableList<LogRecord> getFilteredLog() { return log.getFilteredList(); }
     public ObservableList<LogRecord> getFullLog() { return log.getItems(); }
@@ -245,10 +291,20 @@ public final class HttpSenderViewModel implements Initializable, ViewModel {
         var template = new Template(Objects.requireNonNull(getSelectedTemplate(), "template"));
         template.setParams(getTemplateParams());
 
-        var csv = CSV.from(csvText.get());
+        CSVSource csv;
+        try {
+            csv = getCsvSource();
+        } catch (CSVFormatException e) {
+            Events.fire(Notification.error(ReplacementCheckResult.malformedCsvMessage(e.getRow(), e.getColumn()), e));
+            return;
+        }
         var options = useBasicAuth.get()
-                ? Options.forBasicAuth(pollTimeout.get(), preferences.getProxy(), username.get(), password.get())
-                : Options.simple(pollTimeout.get(), preferences.getProxy());
+                ? Options.forBasicAuth(pollTimeout.get(), concurrency.get(), preferences.getProxy(), username.get(), password.get())
+                : Options.simple(pollTimeout.get(), concurrency.get(), preferences.getProxy());
+
+        if (useRateLimit.get()) {
+            options = options.withRateLimit(getRateLimit());
+        }
 
         executor = new Executor(template, csv, log.getItems(), options);
 
@@ -256,6 +312,10 @@ public final class HttpSenderViewModel implements Initializable, ViewModel {
         Observables.rebind(ongoing, executor.runningProperty());
         log.getItems().clear(); // this will also set logStat value to LogStat.EMPTY
         logStat.set(new ProgressCounter(executor.getPlannedRequestCount(), 0, 0));
+        executor.plannedRequestCountProperty().addListener((obs, old, val) -> {
+            var stat = Objects.requireNonNullElse(logStat.get(), ProgressCounter.EMPTY);
+            logStat.set(stat.withTotal(val.intValue()));
+        });
 
         executor.setOnFailed(event -> {
             var exception = event.getSource().getException();
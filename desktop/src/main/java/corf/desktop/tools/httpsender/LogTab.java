@@ -2,6 +2,7 @@ package corf.desktop.tools.httpsender;
 
 import atlantafx.base.controls.Spacer;
 import atlantafx.base.theme.Tweaks;
+import atlantafx.base.util.IntegerStringConverter;
 import javafx.beans.binding.Bindings;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
@@ -47,6 +48,8 @@ final class LogTab extends VBox {
     TableView<LogRecord> logTable;
     Lazy<LogRecordDialog> logRecordDialog;
     CheckBox errorsOnlyCheck;
+    HBox rateLimitBox;
+    Spinner<Integer> rateLimitSpinner;
     Button exportBtn;
 
     private final HttpSenderView view;
@@ -102,13 +105,23 @@ final class LogTab extends VBox {
 
         errorsOnlyCheck = new CheckBox(t(DM.HTTP_SENDER_SHOW_UNSUCCESSFUL_REQUESTS_ONLY));
 
+        // allows to adjust rate limit while the task is running
+        rateLimitSpinner = new Spinner<>(1, Executor.RateLimit.MAX_RATE, 10);
+        rateLimitSpinner.getStyleClass().add(SMALL);
+        rateLimitSpinner.setPrefWidth(100);
+        rateLimitSpinner.setEditable(true);
+        IntegerStringConverter.createFor(rateLimitSpinner);
+
+        rateLimitBox = new HBox(Recommends.FORM_INLINE_SPACING, new Label(t(DM.HTTP_SENDER_REQUESTS_PER_SECOND)), rateLimitSpinner);
+        rateLimitBox.setAlignment(Pos.CENTER_LEFT);
+
         exportBtn = new Button(t(DM.ACTION_EXPORT));
         exportBtn.getStyleClass().add(FLAT);
 
-        var optionsBox = new HBox();
+        var optionsBox = new HBox(Recommends.FORM_INLINE_SPACING);
         optionsBox.setPadding(new Insets(Recommends.SUB_ITEM_MARGIN, 0, 0, 0));
         optionsBox.setAlignment(Pos.CENTER_LEFT);
-        optionsBox.getChildren().addAll(errorsOnlyCheck, new Spacer(), exportBtn);
+        optionsBox.getChildren().addAll(errorsOnlyCheck, new Spacer(), rateLimitBox, exportBtn);
 
         // ~
 
@@ -137,6 +150,10 @@ final class LogTab extends VBox {
 
         errorsOnlyCheck.selectedProperty().bindBidirectional(model.logErrorsOnlyProperty());
 
+        rateLimitSpinner.getValueFactory().valueProperty().bindBidirectional(model.rateLimitProperty());
+        rateLimitBox.visibleProperty().bind(model.ongoingProperty().and(model.useRateLimitProperty()));
+        rateLimitBox.managedProperty().bind(rateLimitBox.visibleProperty());
+
         exportBtn.setOnAction(e -> exportLog());
         exportBtn.disableProperty().bind(Observables.or(
                 Bindings.isEmpty(model.getFullLog()),
@@ -109,6 +109,7 @@ final class ParamsCard extends VBox {
         });
 
         csvText.textProperty().bindBidirectional(model.csvTextProperty());
+        csvText.fileProperty().bindBidirectional(model.csvFileProperty());
 
         var template = model.getSelectedTemplate();
         paramList.setItems(template != null ? template.getParams() : null);
@@ -10,12 +10,17 @@ public record ProgressCounter(int total, int success, int failed) {
         }
     }
 
+    /** Returns the progress value or -1 (indeterminate), if the total count isn't known yet. */
     public double getProgress() {
-        return (success + failed) / (double) total;
+        return total > 0 ? (success + failed) / (double) total : -1;
     }
 
     public boolean isZero() {
-        return total == 0;
+        return total == 0 && success == 0 && failed == 0;
+    }
+
+    public ProgressCounter withTotal(int total) {
+        return new ProgressCounter(total, success, failed);
     }
 
     public ProgressCounter incrementSuccessCount() {
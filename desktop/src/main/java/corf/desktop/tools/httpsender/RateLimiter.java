@@ -0,0 +1,77 @@
+package corf.desktop.tools.httpsender;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter. The bucket is refilled at the constant rate of
+ * {@code permitsPerSecond} and can hold up to {@code burst} tokens, so that
+ * send rate doesn't depend on response latency. Limiter is thread-safe and
+ * its rate can be changed at any time, even if some threads are waiting
+ * for a permit.
+ */
+final class RateLimiter {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private double permitsPerSecond;
+    private double maxPermits;
+
+    // Stored permits count can be negative, which means that some
+    // permits were reserved in advance and must be paid back first.
+    private double storedPermits;
+    private long lastRefillTime;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        setRate(permitsPerSecond, burst);
+        this.storedPermits = maxPermits;
+        this.lastRefillTime = System.nanoTime();
+    }
+
+    /**
+     * Updates the rate. Permits that have been accumulated so far are
+     * calculated using the previous rate.
+     */
+    public synchronized void setRate(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive.");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst size must be at least 1.");
+        }
+
+        if (this.permitsPerSecond > 0) {
+            refill(System.nanoTime());
+        }
+
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = burst;
+        this.storedPermits = Math.min(storedPermits, maxPermits);
+    }
+
+    public synchronized double getRate() {
+        return permitsPerSecond;
+    }
+
+    /** Blocks until a permit is available. */
+    public void acquire() throws InterruptedException {
+        long waitTime = reserve();
+        if (waitTime > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitTime);
+        }
+    }
+
+    /** Takes a permit immediately and returns the time (in nanos) the caller has to wait before using it. */
+    synchronized long reserve() {
+        refill(System.nanoTime());
+        storedPermits -= 1;
+        return storedPermits >= 0 ? 0 : (long) (-storedPermits / permitsPerSecond * NANOS_PER_SECOND);
+    }
+
+    private void refill(long now) {
+        if (now > lastRefillTime) {
+            double newPermits = (now - lastRefillTime) * permitsPerSecond / NANOS_PER_SECOND;
+            storedPermits = Math.min(maxPermits, storedPermits + newPermits);
+            lastRefillTime = now;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package corf.desktop.tools.httpsender;
 import atlantafx.base.controls.Spacer;
 import atlantafx.base.controls.ToggleSwitch;
 import atlantafx.base.theme.Styles;
+import atlantafx.base.util.IntegerStringConverter;
 import corf.base.desktop.controls.HorizontalForm;
 import corf.base.desktop.controls.Message;
 import corf.base.desktop.controls.ModalDialog;
@@ -10,11 +11,13 @@ import corf.base.desktop.controls.RevealablePasswordField;
 import corf.desktop.i18n.DM;
 import corf.desktop.layout.Recommends;
 import corf.desktop.tools.common.ReplacementCheckResult;
+import corf.desktop.tools.httpsender.Executor.RateLimit;
 import javafx.beans.binding.Bindings;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
+import javafx.scene.control.Spinner;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
@@ -37,6 +40,11 @@ final class StartDialog extends ModalDialog {
     RevealablePasswordField passwordText;
     Slider pollTimeoutSlider;
     Label pollTimeoutLabel;
+    Slider concurrencySlider;
+    Label concurrencyLabel;
+    ToggleSwitch enableRateLimitToggle;
+    Spinner<Integer> rateLimitSpinner;
+    Spinner<Integer> rateBurstSpinner;
     Button runBtn;
     Button closeBtn;
 
@@ -89,9 +97,50 @@ final class StartDialog extends ModalDialog {
 
         var pollTimeoutBox = new VBox(Recommends.FORM_VGAP, pollTitleBox, pollTimeoutSlider);
 
+        // == CONCURRENCY ==
+
+        var concurrencyTitleLabel = new Label(t(DM.HTTP_SENDER_CONCURRENT_REQUESTS));
+        concurrencyTitleLabel.getStyleClass().add(TEXT_CAPTION);
+
+        concurrencyLabel = new Label();
+        concurrencyLabel.getStyleClass().addAll(TEXT_SUBTLE, TEXT_SMALL);
+
+        concurrencySlider = new Slider(1, Executor.Options.MAX_CONCURRENCY, 1);
+        concurrencySlider.setBlockIncrement(1);
+        concurrencySlider.setMajorTickUnit(1);
+        concurrencySlider.setMinorTickCount(0);
+        concurrencySlider.setSnapToTicks(true);
+
+        var concurrencyTitleBox = new HBox(concurrencyTitleLabel, new Spacer(), concurrencyLabel);
+        concurrencyTitleBox.setAlignment(Pos.CENTER_LEFT);
+
+        var concurrencyBox = new VBox(Recommends.FORM_VGAP, concurrencyTitleBox, concurrencySlider);
+
+        // == RATE LIMIT ==
+
+        enableRateLimitToggle = new ToggleSwitch(t(DM.HTTP_SENDER_LIMIT_REQUEST_RATE));
+        enableRateLimitToggle.getStyleClass().add(TEXT_CAPTION);
+
+        rateLimitSpinner = new Spinner<>(1, RateLimit.MAX_RATE, 10);
+        rateLimitSpinner.setPrefWidth(120);
+        rateLimitSpinner.setEditable(true);
+        IntegerStringConverter.createFor(rateLimitSpinner);
+
+        rateBurstSpinner = new Spinner<>(1, RateLimit.MAX_BURST, 1);
+        rateBurstSpinner.setPrefWidth(120);
+        rateBurstSpinner.setEditable(true);
+        IntegerStringConverter.createFor(rateBurstSpinner);
+
+        var rateLimitBox = new HorizontalForm();
+        rateLimitBox.setHgap(Recommends.FORM_HGAP);
+        rateLimitBox.setVgap(Recommends.FORM_VGAP);
+        rateLimitBox.add(enableRateLimitToggle, 0, 0, GridPane.REMAINING, 1);
+        rateLimitBox.add(t(DM.HTTP_SENDER_REQUESTS_PER_SECOND), true, rateLimitSpinner);
+        rateLimitBox.add(t(DM.HTTP_SENDER_BURST_SIZE), true, rateBurstSpinner);
+
         // == BODY ==
 
-        var body = new VBox(messageBox, authBox, pollTimeoutBox);
+        var body = new VBox(messageBox, authBox, pollTimeoutBox, concurrencyBox, rateLimitBox);
         body.setSpacing(Recommends.CONTENT_SPACING);
         body.setPrefWidth(DIALOG_WIDTH);
 
@@ -134,12 +183,31 @@ final class StartDialog extends ModalDialog {
             pollTimeoutLabel.setText(String.format("%.1fs", roundedVal / 1000.0));
         });
 
+        concurrencySlider.valueProperty().bindBidirectional(model.concurrencyProperty());
+        concurrencySlider.valueProperty().addListener((obs, old, val) -> {
+            var roundedVal = Math.round(val.doubleValue());
+            model.concurrencyProperty().setValue(roundedVal);
+            concurrencyLabel.setText(String.valueOf(roundedVal));
+        });
+
+        enableRateLimitToggle.selectedProperty().bindBidirectional(model.useRateLimitProperty());
+
+        rateLimitSpinner.getValueFactory().valueProperty().bindBidirectional(model.rateLimitProperty());
+        rateLimitSpinner.disableProperty().bind(enableRateLimitToggle.selectedProperty().not());
+
+        rateBurstSpinner.getValueFactory().valueProperty().bindBidirectional(model.rateBurstProperty());
+        rateBurstSpinner.disableProperty().bind(enableRateLimitToggle.selectedProperty().not());
+
+        // poll timeout is ignored in rate limiting mode
+        pollTimeoutSlider.disableProperty().bind(enableRateLimitToggle.selectedProperty());
+
         runBtn.setOnAction(e -> run());
         runBtn.disableProperty().bind(valid.not());
 
         closeBtn.setOnAction(e -> close());
 
         pollTimeoutSlider.setValue(1000);
+        concurrencyLabel.setText(String.valueOf(model.concurrencyProperty().get()));
 
         messageBox.managedProperty().bind(Bindings.size(messageBox.getChildren()).greaterThan(0));
     }
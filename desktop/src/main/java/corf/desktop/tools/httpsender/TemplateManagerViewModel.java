@@ -23,6 +23,8 @@ import corf.desktop.i18n.DM;
 import java.io.File;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 
@@ -46,9 +48,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
 
     @Override
     public void init() {
-        filter.addListener((obs, old, val) -> templates.getFilteredList().setPredicate(
-                val != null ? template -> isTemplateMatchesFilter(val, template) : NO_FILTER
-        ));
+        filter.addListener((obs, old, val) -> applyFilter(val));
 
         templates.getSortedList().setComparator(Template::compareTo);
         reloadTemplates(null, true);
@@ -59,6 +59,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
         setShouldUpdateEditor(updateEditor);
 
         templates.getItems().setAll(templateRepository.getAll());
+        applyFilter(filter.get());
         usedTemplateNames.clear();
         usedTemplateNames.addAll(templateRepository.getNames());
         selectTemplate(templateToSelect);
@@ -94,6 +95,17 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
         }
     }
 
+    private void applyFilter(@Nullable String filter) {
+        if (StringUtils.isBlank(filter)) {
+            templates.getFilteredList().setPredicate(NO_FILTER);
+            return;
+        }
+
+        // name index is queried once per filter change instead of testing each template name
+        Set<UUID> matchedIds = templateRepository.findIdsByName(filter);
+        templates.getFilteredList().setPredicate(template -> matchedIds.contains(template.getId()));
+    }
+
     private boolean isTemplateMatchesFilter(@Nullable String filter, @Nullable Template template) {
         if (filter == null || template == null) { return true; }
         var s = filter.trim().toLowerCase();
@@ -160,7 +172,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
                 Method.POST
         );
 
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.add(template);
                     templateRepository.saveToDisk();
                 }))
@@ -193,7 +205,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
                 template.getName() + " (copy)";
         template.setName(generateTemplateName(namePrefix));
 
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.add(template);
                     templateRepository.saveToDisk();
                 }))
@@ -240,7 +252,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
 
     private void removeTemplate() {
         final Template template = selectedTemplate.get();
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.removeById(template.getId());
                     templateRepository.saveToDisk();
                 }))
@@ -260,7 +272,7 @@ final class TemplateManagerViewModel implements Initializable, ViewModel {
 
     private void importTemplate(File inputFile) {
         Env.setLastVisitedDir(inputFile);
-        Async.with(() -> templateRepository.beginTransaction(false).rollbackOnException(() -> {
+        Async.with(() -> templateRepository.beginTransaction().rollbackOnException(() -> {
                     templateRepository.importFromFile(inputFile);
                     templateRepository.saveToDisk();
                 }))
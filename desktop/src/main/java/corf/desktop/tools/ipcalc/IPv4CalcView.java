@@ -83,6 +83,7 @@ public final class IPv4CalcView extends VBox implements View<IPv4CalcView, IPv4C
         tabs.getTabs().setAll(
                 new HostInfoTab(model),
                 new NetworkSplitTab(model),
+                new RangeOperationsTab(model),
                 new NetmasksTab(model)
         );
         VBox.setVgrow(tabs, Priority.ALWAYS);
@@ -103,8 +104,8 @@ public final class IPv4CalcView extends VBox implements View<IPv4CalcView, IPv4C
 
     @Override
     public void init() {
-        tabs.setTabMinWidth(TOOL_WIDTH / 3.0 - 60);
-        tabs.setTabMaxWidth(TOOL_WIDTH / 3.0 - 60);
+        tabs.setTabMinWidth(TOOL_WIDTH / 4.0 - 45);
+        tabs.setTabMaxWidth(TOOL_WIDTH / 4.0 - 45);
 
         ipConverterBtn.setOnAction(e -> showConverterDialog());
 
@@ -1,11 +1,14 @@
 package corf.desktop.tools.ipcalc;
 
 import backbonefx.mvvm.ConsumerCommand;
+import backbonefx.mvvm.RunnableCommand;
 import backbonefx.mvvm.ViewModel;
 import jakarta.inject.Inject;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -16,8 +19,10 @@ import corf.base.desktop.Async;
 import corf.base.event.Events;
 import corf.base.event.Notification;
 import corf.base.exception.AppException;
+import corf.base.net.IPv4Cidr;
 import corf.base.net.IPv4Host;
 import corf.base.net.IPv4Network;
+import corf.base.net.IPv4RangeSet;
 import corf.desktop.i18n.DM;
 
 import java.io.*;
@@ -26,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.PrimitiveIterator;
 import java.util.concurrent.ExecutorService;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -37,6 +43,8 @@ public class IPv4CalcViewModel implements ViewModel {
     static final String DEFAULT_IP = "192.168.0.1";
     static final int DEFAULT_NETMASK = 24;
     static final List<NetworkInfo> NETMASKS = createNetmaskList();
+    // a /8 network, about 230 MB of text
+    static final long MAX_HOSTS_TO_EXPORT = 1L << 24;
 
     private final ExecutorService executorService;
 
@@ -91,6 +99,18 @@ public class IPv4CalcViewModel implements ViewModel {
             return null;
         }
     }, ipv4String, netmaskInfo);
+
+    private final StringProperty rangeInputA = new SimpleStringProperty("");
+    public StringProperty rangeInputAProperty() { return rangeInputA; }
+
+    private final StringProperty rangeInputB = new SimpleStringProperty("");
+    public StringProperty rangeInputBProperty() { return rangeInputB; }
+
+    private final ObjectProperty<RangeOperation> rangeOperation = new SimpleObjectProperty<>(RangeOperation.AGGREGATE);
+    public ObjectProperty<RangeOperation> rangeOperationProperty() { return rangeOperation; }
+
+    private final ReadOnlyObjectWrapper<IPv4RangeSet> rangeResult = new ReadOnlyObjectWrapper<>();
+    public ReadOnlyObjectProperty<IPv4RangeSet> rangeResultProperty() { return rangeResult.getReadOnlyProperty(); }
     // @formatter:on
 
     ///////////////////////////////////////////////////////////////////////////
@@ -109,7 +129,7 @@ public class IPv4CalcViewModel implements ViewModel {
     private void exportAllHostsInNetwork(File outputFile) {
         final var network = networkInfoProperty().get();
 
-        if (network.getUsableHostCount() > Math.pow(2, 16)) {
+        if (network.getUsableHostCount() > MAX_HOSTS_TO_EXPORT) {
             Events.fire(Notification.warning(t(DM.TPL_MSG_LIST_IS_TOO_LARGE_TO_EXPORT)));
             return;
         }
@@ -118,14 +138,14 @@ public class IPv4CalcViewModel implements ViewModel {
             try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(outputFile), UTF_8);
                  BufferedWriter out = new BufferedWriter(writer)) {
 
-                network.getAllHosts().forEach(ip -> {
-                    try {
-                        out.write(ip);
-                        out.write("\n");
-                    } catch (IOException e) {
-                        throw new AppException(t(DM.MGG_UNABLE_TO_SAVE_DATA_TO_FILE), e);
-                    }
-                });
+                // hosts are iterated as primitives and formatted to the reusable buffer
+                var sb = new StringBuilder(16);
+                PrimitiveIterator.OfInt it = network.getAllHosts().iterator();
+                while (it.hasNext()) {
+                    sb.setLength(0);
+                    IPv4Cidr.appendAddress(sb, it.nextInt()).append('\n');
+                    out.append(sb);
+                }
             } catch (IOException e) {
                 throw new AppException(t(DM.MGG_UNABLE_TO_SAVE_DATA_TO_FILE), e);
             }
@@ -137,32 +157,48 @@ public class IPv4CalcViewModel implements ViewModel {
                 .start(executorService);
     }
 
+    // == calculateRangesCommand ==
+
+    public RunnableCommand calculateRangesCommand() { return calculateRanges; }
+
+    private final RunnableCommand calculateRanges = new RunnableCommand(
+            this::calculateRanges,
+            Bindings.createBooleanBinding(() -> StringUtils.isNotBlank(rangeInputA.get()), rangeInputA)
+    );
+
+    private void calculateRanges() {
+        String inputA = rangeInputA.get();
+        String inputB = StringUtils.defaultString(rangeInputB.get());
+        RangeOperation operation = rangeOperation.get();
+
+        // parsing and sorting is O(n log n), but input may be large, so keep it off the FX thread
+        Async.with(() -> {
+                    IPv4RangeSet a = RangeOperation.parse(inputA);
+                    IPv4RangeSet b = operation.isBinary() ? RangeOperation.parse(inputB) : IPv4RangeSet.empty();
+                    return operation.apply(a, b);
+                })
+                .setOnSucceeded(rangeResult::set)
+                .setOnFailed(e -> {
+                    rangeResult.set(null);
+                    Events.fire(Notification.error(e));
+                })
+                .start(executorService);
+    }
+
     // == exportSplitTableCommand ==
 
-    public ConsumerCommand<Pair<File, List<NetworkInfo>>> exportSplitTableCommand() { return exportSplitTable; }
+    public ConsumerCommand<Pair<File, SubnetList>> exportSplitTableCommand() { return exportSplitTable; }
 
-    private final ConsumerCommand<Pair<File, List<NetworkInfo>>> exportSplitTable = new ConsumerCommand<>(this::exportSplitTable);
+    private final ConsumerCommand<Pair<File, SubnetList>> exportSplitTable = new ConsumerCommand<>(this::exportSplitTable);
 
-    private void exportSplitTable(Pair<File, List<NetworkInfo>> export) {
+    private void exportSplitTable(Pair<File, SubnetList> export) {
         File outputFile = export.getKey();
-        List<NetworkInfo> items = export.getValue();
+        SubnetList subnets = export.getValue();
 
         Runnable runnable = () -> {
             try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(outputFile), UTF_8);
                  BufferedWriter out = new BufferedWriter(writer)) {
-
-                out.write("Network Address;Start Host;End Host;Broadcast\n");
-
-                for (var network : items) {
-                    out.write(network.getNetworkAddress());
-                    out.write(";");
-                    out.write(network.getMinHost());
-                    out.write(";");
-                    out.write(network.getMaxHost());
-                    out.write(";");
-                    out.write(network.getBroadcast());
-                    out.write("\n");
-                }
+                subnets.writeTo(out);
             } catch (Exception e) {
                 throw new AppException(t(DM.MGG_UNABLE_TO_SAVE_DATA_TO_FILE), e);
             }
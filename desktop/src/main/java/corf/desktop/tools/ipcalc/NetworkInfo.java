@@ -2,6 +2,7 @@ package corf.desktop.tools.ipcalc;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nullable;
+import corf.base.net.IPv4Cidr;
 import corf.base.net.IPv4Network;
 
 import java.util.ArrayList;
@@ -9,14 +10,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 import static corf.base.net.IPv4Network.LINK_LOCAL_PREFIX_LEN;
 import static corf.desktop.tools.ipcalc.IPv4CalcViewModel.NUMBER_FORMAT;
 
 public final class NetworkInfo {
 
-    static final int MAX_SUBNET_BITS_TO_SPLIT = 15; // 2 ^ 14 subnets = 16384
+    // 2 ^ 24 subnets = 16777216, subnets are computed on demand, see SubnetList
+    static final int MAX_SUBNET_BITS_TO_SPLIT = 24;
 
     private final IPv4Network network;
 
@@ -76,8 +78,12 @@ public final class NetworkInfo {
         return network.getNetmask().reverseBytes().toString();
     }
 
-    public Stream<String> getAllHosts() {
-        return network.stream().map(String::valueOf);
+    public IntStream getAllHosts() {
+        return IPv4Cidr.hosts(getAddress(), getPrefixLength());
+    }
+
+    public int getAddress() {
+        return network.getHostAddress().intValue();
     }
 
     public BitUsage getBitUsage(int subnetBitCount) {
@@ -98,15 +104,13 @@ public final class NetworkInfo {
 
         return findPairsOfGivenSum(network.getTrailingBitCount()).stream()
                 .map(pair -> new SplitOption(pair[0], pair[1]))
-                // limit max number create subnets to split, otherwise we'd need to store 2^30 objects
+                // limit max number of subnets to split, to keep the table navigable
                 .filter(variant -> variant.subnetBitCount() <= MAX_SUBNET_BITS_TO_SPLIT)
                 .collect(Collectors.toList());
     }
 
-    public List<NetworkInfo> split(int subnetBitCount) {
-        return network.split(subnetBitCount).stream()
-                .map(NetworkInfo::new)
-                .collect(Collectors.toList());
+    public SubnetList split(int subnetBitCount) {
+        return new SubnetList(network, subnetBitCount);
     }
 
     public List<String> getExtraInfo() {
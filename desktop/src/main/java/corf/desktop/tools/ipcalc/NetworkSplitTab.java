@@ -47,6 +47,7 @@ final class NetworkSplitTab extends Tab {
     Button exportBtn;
 
     private final IPv4CalcViewModel model;
+    private @Nullable SubnetList subnets;
 
     public NetworkSplitTab(IPv4CalcViewModel model) {
         super();
@@ -115,13 +116,15 @@ final class NetworkSplitTab extends Tab {
 
                 bitUsageLabel.setValue(netInfo.getBitUsage(val.subnetBitCount()));
 
-                List<NetworkInfo> networks = netInfo.split(val.subnetBitCount());
-                splitTable.setItems(FXCollections.observableArrayList(networks));
+                // rows are computed on demand, only the visible ones are ever created
+                subnets = netInfo.split(val.subnetBitCount());
+                splitTable.setItems(FXCollections.observableList(subnets));
 
                 exportBtn.setDisable(false);
             } else {
                 bitUsageLabel.setValue(null);
-                splitTable.getItems().clear();
+                subnets = null;
+                splitTable.setItems(FXCollections.observableArrayList());
                 exportBtn.setDisable(true);
             }
         });
@@ -156,6 +159,10 @@ final class NetworkSplitTab extends Tab {
         broadcastCol.setMinWidth(150);
         broadcastCol.setPrefWidth(150);
 
+        // the items list is read-only and computed by index, thus it can't be sorted
+        List.of(indexColumn, networkCol, minHostCol, maxHostCol, broadcastCol)
+                .forEach(column -> column.setSortable(false));
+
         var table = new TableView<NetworkInfo>();
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         table.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
@@ -180,9 +187,9 @@ final class NetworkSplitTab extends Tab {
                 .initialFileName("subnets.txt")
                 .build()
                 .showSaveDialog(getTabPane().getScene().getWindow());
-        if (outputFile == null || splitTable.getItems().isEmpty()) { return; }
+        if (outputFile == null || subnets == null || subnets.isEmpty()) { return; }
 
-        model.exportSplitTableCommand().execute(ImmutablePair.of(outputFile, splitTable.getItems()));
+        model.exportSplitTableCommand().execute(ImmutablePair.of(outputFile, subnets));
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,63 @@
+package corf.desktop.tools.ipcalc;
+
+import corf.base.net.IPv4RangeSet;
+
+import java.util.function.BinaryOperator;
+
+enum RangeOperation {
+
+    AGGREGATE("Aggregate A", (a, b) -> a),
+    UNION("A ∪ B", IPv4RangeSet::union),
+    INTERSECTION("A ∩ B", IPv4RangeSet::intersection),
+    DIFFERENCE("A − B", IPv4RangeSet::difference),
+    // B is contained in A if the result is empty
+    NOT_CONTAINED("B not in A", (a, b) -> b.difference(a));
+
+    private final String title;
+    private final BinaryOperator<IPv4RangeSet> operator;
+
+    RangeOperation(String title, BinaryOperator<IPv4RangeSet> operator) {
+        this.title = title;
+        this.operator = operator;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public boolean isBinary() {
+        return this != AGGREGATE;
+    }
+
+    public IPv4RangeSet apply(IPv4RangeSet a, IPv4RangeSet b) {
+        return operator.apply(a, b);
+    }
+
+    /**
+     * Parses multi-line input. Items are separated by new lines, commas or semicolons,
+     * blank lines and comments (starting with '#') are ignored.
+     *
+     * @throws IllegalArgumentException if any item has invalid format
+     */
+    public static IPv4RangeSet parse(String text) {
+        var builder = IPv4RangeSet.builder();
+
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int comment = line.indexOf('#');
+            if (comment >= 0) { line = line.substring(0, comment); }
+
+            for (String item : line.split("[,;]")) {
+                if (item.isBlank()) { continue; }
+                try {
+                    builder.add(item);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + (i + 1) + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,159 @@
+package corf.desktop.tools.ipcalc;
+
+import javafx.beans.binding.Bindings;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+import org.jetbrains.annotations.Nullable;
+import corf.base.desktop.ExtraStyles;
+import corf.base.desktop.OS;
+import corf.base.net.IPv4RangeSet;
+import corf.desktop.i18n.DM;
+import corf.desktop.layout.Recommends;
+
+import java.util.Arrays;
+
+import static atlantafx.base.theme.Styles.*;
+import static corf.base.i18n.I18n.t;
+import static corf.desktop.tools.ipcalc.IPv4CalcViewModel.NUMBER_FORMAT;
+
+final class RangeOperationsTab extends Tab {
+
+    private static final String INPUT_PROMPT = """
+            10.0.0.0/8
+            192.168.1.1
+            172.16.0.1-172.16.0.100""";
+
+    TextArea inputAText;
+    TextArea inputBText;
+    ComboBox<RangeOperation> operationChoice;
+    Button applyBtn;
+    Label summaryLabel;
+    TextArea resultText;
+    Button copyBtn;
+
+    private final IPv4CalcViewModel model;
+
+    public RangeOperationsTab(IPv4CalcViewModel model) {
+        super();
+        this.model = model;
+
+        createView();
+        init();
+    }
+
+    private void createView() {
+        inputAText = createInputText();
+        inputBText = createInputText();
+
+        var inputBox = new HBox(
+                Recommends.FORM_HGAP,
+                createInputBox("A", inputAText),
+                createInputBox("B", inputBText)
+        );
+        VBox.setVgrow(inputBox, Priority.ALWAYS);
+
+        operationChoice = new ComboBox<>(FXCollections.observableArrayList(RangeOperation.values()));
+        operationChoice.setMinWidth(150);
+        operationChoice.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(@Nullable RangeOperation operation) {
+                return operation != null ? operation.getTitle() : "";
+            }
+
+            @Override
+            public @Nullable RangeOperation fromString(String s) {
+                return Arrays.stream(RangeOperation.values())
+                        .filter(operation -> operation.getTitle().equals(s))
+                        .findFirst()
+                        .orElse(null);
+            }
+        });
+
+        applyBtn = new Button(t(DM.ACTION_APPLY));
+        applyBtn.getStyleClass().add(ACCENT);
+        applyBtn.setDefaultButton(true);
+
+        summaryLabel = new Label();
+        summaryLabel.getStyleClass().add(TEXT_SUBTLE);
+
+        var operationBox = new HBox(Recommends.FORM_INLINE_SPACING, operationChoice, applyBtn, summaryLabel);
+        operationBox.setAlignment(Pos.CENTER_LEFT);
+        operationBox.setPadding(new Insets(Recommends.SUB_ITEM_MARGIN, 0, Recommends.SUB_ITEM_MARGIN, 0));
+
+        resultText = new TextArea();
+        resultText.setEditable(false);
+        resultText.getStyleClass().add(ExtraStyles.MONOSPACE);
+        VBox.setVgrow(resultText, Priority.ALWAYS);
+
+        copyBtn = new Button(t(DM.ACTION_COPY_ALL));
+        copyBtn.getStyleClass().add(FLAT);
+
+        var copyBox = new HBox(copyBtn);
+        copyBox.setAlignment(Pos.CENTER_RIGHT);
+        copyBox.setPadding(new Insets(Recommends.SUB_ITEM_MARGIN, 0, 0, 0));
+
+        var root = new VBox(inputBox, operationBox, new Label(t(DM.RESULT)), resultText, copyBox);
+        root.setPadding(new Insets(Recommends.CONTENT_SPACING, 0, 0, 0));
+        root.setMaxHeight(IPv4CalcView.TAB_HEIGHT);
+
+        setText(t(DM.IPV4CALC_RANGE_OPERATIONS));
+        setContent(root);
+    }
+
+    private void init() {
+        inputAText.textProperty().bindBidirectional(model.rangeInputAProperty());
+        inputBText.textProperty().bindBidirectional(model.rangeInputBProperty());
+        operationChoice.valueProperty().bindBidirectional(model.rangeOperationProperty());
+
+        inputBText.disableProperty().bind(Bindings.createBooleanBinding(
+                () -> operationChoice.getValue() == null || !operationChoice.getValue().isBinary(),
+                operationChoice.valueProperty()
+        ));
+
+        applyBtn.setOnAction(e -> model.calculateRangesCommand().run());
+        applyBtn.disableProperty().bind(Bindings.not(model.calculateRangesCommand().executableProperty()));
+
+        model.rangeResultProperty().addListener((obs, old, val) -> updateResult(val));
+
+        copyBtn.setOnAction(e -> OS.setClipboard(resultText.getText()));
+        copyBtn.disableProperty().bind(resultText.textProperty().isEmpty());
+    }
+
+    private void updateResult(@Nullable IPv4RangeSet result) {
+        if (result == null) {
+            resultText.setText(null);
+            summaryLabel.setText(null);
+            return;
+        }
+
+        resultText.setText(String.join("\n", result.toCidrList()));
+        summaryLabel.setText(
+                NUMBER_FORMAT.format(result.cidrCount()) + " CIDR, "
+                        + NUMBER_FORMAT.format(result.addressCount()) + " IP"
+        );
+    }
+
+    private TextArea createInputText() {
+        var textArea = new TextArea();
+        textArea.setPromptText(INPUT_PROMPT);
+        textArea.setPrefRowCount(8);
+        textArea.getStyleClass().add(ExtraStyles.MONOSPACE);
+        VBox.setVgrow(textArea, Priority.ALWAYS);
+        return textArea;
+    }
+
+    private VBox createInputBox(String title, TextArea textArea) {
+        var titleLabel = new Label(title);
+        titleLabel.getStyleClass().addAll(TEXT_BOLD, TEXT_MUTED);
+
+        var box = new VBox(Recommends.SUB_ITEM_MARGIN, titleLabel, textArea);
+        HBox.setHgrow(box, Priority.ALWAYS);
+        return box;
+    }
+}
@@ -0,0 +1,83 @@
+package corf.desktop.tools.ipcalc;
+
+import corf.base.net.IPv4Cidr;
+import corf.base.net.IPv4Network;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static corf.base.net.IPv4Network.LINK_LOCAL_PREFIX_LEN;
+
+/**
+ * Read-only list of the subnets the network is split to. Subnets aren't stored,
+ * each element is computed on demand by its index, so that the list size doesn't
+ * affect memory consumption. It's intended to back the virtualised table view.
+ */
+final class SubnetList extends AbstractList<NetworkInfo> implements RandomAccess {
+
+    static final String CSV_HEADER = "Network Address;Start Host;End Host;Broadcast";
+
+    private final IPv4Network network;
+    private final int subnetBitCount;
+    private final int size;
+
+    public SubnetList(IPv4Network network, int subnetBitCount) {
+        this.network = Objects.requireNonNull(network, "network");
+        this.subnetBitCount = subnetBitCount;
+
+        long count = IPv4Cidr.subnetCount(network.getPrefixLength(), subnetBitCount);
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many subnets: " + count);
+        }
+        this.size = (int) count;
+    }
+
+    @Override
+    public NetworkInfo get(int index) {
+        Objects.checkIndex(index, size);
+        return new NetworkInfo(network.getSubnet(subnetBitCount, index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getSubnetPrefixLength() {
+        return network.getPrefixLength() + subnetBitCount;
+    }
+
+    /**
+     * Writes all subnets in CSV format. Rows are generated one by one from
+     * primitives, without creating {@link NetworkInfo} objects.
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+
+        int address = network.getHostAddress().intValue();
+        int prefixLength = network.getPrefixLength();
+        var sb = new StringBuilder(64);
+        for (int i = 0; i < size; i++) {
+            sb.setLength(0);
+            appendRow(sb, IPv4Cidr.subnet(address, prefixLength, subnetBitCount, i));
+            out.append(sb);
+        }
+    }
+
+    private void appendRow(StringBuilder sb, int subnet) {
+        int prefixLength = getSubnetPrefixLength();
+        // same as NetworkInfo, /31 and /32 have neither network address nor broadcast
+        boolean hasBroadcast = prefixLength < LINK_LOCAL_PREFIX_LEN;
+
+        if (hasBroadcast) { IPv4Cidr.appendAddress(sb, subnet); }
+        sb.append(';');
+        IPv4Cidr.appendAddress(sb, IPv4Cidr.minHost(subnet, prefixLength)).append(';');
+        IPv4Cidr.appendAddress(sb, IPv4Cidr.maxHost(subnet, prefixLength)).append(';');
+        if (hasBroadcast) { IPv4Cidr.appendAddress(sb, IPv4Cidr.lastAddress(subnet, prefixLength)); }
+        sb.append('\n');
+    }
+}
@@ -20,13 +20,12 @@ import corf.base.desktop.controls.ModalDialog;
 import corf.base.event.Events;
 import corf.base.event.Notification;
 import corf.base.exception.AppException;
+import corf.base.text.PasswordGenerator;
 import corf.desktop.i18n.DM;
 import corf.desktop.layout.Recommends;
 
 import java.io.File;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 
@@ -36,7 +35,7 @@ import static corf.base.i18n.I18n.t;
 final class BulkDialog extends ModalDialog {
 
     private static final int MIN_COUNT = 100;
-    private static final int MAX_COUNT = 10_000;
+    private static final int MAX_COUNT = 1_000_000;
     private static final int DEFAULT_COUNT = 100;
     private static final int STEP = MIN_COUNT;
     private static final int DIALOG_WIDTH = 600;
@@ -113,22 +112,15 @@ final class BulkDialog extends ModalDialog {
         fileBtn.setOnAction(e -> exportToFile());
     }
 
-    private List<String> generate() {
-        var count = (int) countSlider.valueProperty().get();
-        var passwords = new ArrayList<String>(count);
-
-        for (int i = 0; i < count; i++) {
-            passwords.add(generator.generate());
-        }
-
-        return passwords;
-    }
-
     private void exportToClipboard() {
         close();
 
-        Async.with(this::generate)
-                .setOnSucceeded(passwords -> OS.setClipboard(String.join("\n", passwords)))
+        // settings must be captured on the FX thread
+        var count = (int) countSlider.getValue();
+        var source = generator.createSource();
+
+        Async.with(() -> PasswordGenerator.bulk(count, source))
+                .setOnSucceeded(OS::setClipboard)
                 .setOnFailed(e -> Events.fire(Notification.error(e)))
                 .start(executorService);
     }
@@ -144,10 +136,12 @@ final class BulkDialog extends ModalDialog {
 
         close();
 
+        var count = (int) countSlider.getValue();
+        var source = generator.createSource();
+
         Async.with(() -> {
-                    List<String> passwords = generate();
-                    try {
-                        Files.writeString(outputFile.toPath(), String.join("\n", passwords));
+                    try (var out = Files.newBufferedWriter(outputFile.toPath())) {
+                        PasswordGenerator.bulk(count, source, out);
                     } catch (Exception e) {
                         throw new AppException(t(DM.MGG_UNABLE_TO_SAVE_DATA_TO_FILE), e);
                     }
@@ -12,6 +12,7 @@ import javafx.scene.control.ToggleGroup;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.util.Pair;
+import corf.base.text.PasswordGenerator;
 import corf.desktop.i18n.DM;
 import corf.desktop.layout.Recommends;
 
@@ -30,6 +31,17 @@ interface Generator {
 
     String generate();
 
+    /**
+     * Returns generator with the current settings for the bulk mode. It's called from
+     * the FX thread, but the result is used from multiple worker threads, so that
+     * implementations should capture settings rather than read them from controls.
+     * The default implementation delegates to {@link #generate()}, which is only safe
+     * for generators without any settings.
+     */
+    default PasswordGenerator.Source createSource() {
+        return (sb, random) -> sb.append(generate());
+    }
+
     Node getView();
 
     EventBus getEventBus();
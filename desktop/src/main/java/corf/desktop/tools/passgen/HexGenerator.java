@@ -41,6 +41,13 @@ final class HexGenerator implements Generator {
         return PasswordGenerator.hex(len);
     }
 
+    @Override
+    public PasswordGenerator.Source createSource() {
+        var len = view.initialized() ? (int) lengthSlider.getValue() : DEFAULT_LENGTH;
+        char[] alphabet = PasswordGenerator.toCharArray(PasswordGenerator.HEX);
+        return (sb, random) -> PasswordGenerator.appendRandom(sb, len, alphabet, random);
+    }
+
     @Override
     public Node getView() {
         return view.get();
@@ -9,6 +9,7 @@ import javafx.scene.control.ToggleGroup;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.util.Pair;
+import org.jetbrains.annotations.Nullable;
 import corf.base.common.Initializer;
 import corf.base.common.Lazy;
 import corf.base.text.PasswordGenerator;
@@ -42,20 +43,34 @@ final class KatakanaGenerator implements Generator {
 
     @Override
     public String generate() {
-        var len = view.initialized() ? (int) lengthSlider.getValue() : DEFAULT_LENGTH;
-        boolean lowercase = false, capitalize = false, uppercase = false;
+        return generate(getLength(), getLetterCase());
+    }
+
+    @Override
+    public PasswordGenerator.Source createSource() {
+        // read controls here, on the FX thread
+        var len = getLength();
+        var letterCase = getLetterCase();
+        return (sb, random) -> sb.append(generate(len, letterCase));
+    }
 
+    private int getLength() {
+        return view.initialized() ? (int) lengthSlider.getValue() : DEFAULT_LENGTH;
+    }
+
+    private @Nullable String getLetterCase() {
         if (view.initialized()
                 && caseToggleGroup.getSelectedToggle() != null
                 && caseToggleGroup.getSelectedToggle().getUserData() instanceof String type) {
-            if (UPPERCASE.equals(type)) { uppercase = true; }
-            if (TITLECASE.equals(type)) { capitalize = true; }
-            if (LOWERCASE.equals(type)) { lowercase = true; }
+            return type;
         }
+        return null;
+    }
 
-        var password = PasswordGenerator.katakana(len, capitalize);
-        if (lowercase) { password = password.toLowerCase(); }
-        if (uppercase) { password = password.toUpperCase(); }
+    private static String generate(int len, @Nullable String letterCase) {
+        var password = PasswordGenerator.katakana(len, TITLECASE.equals(letterCase));
+        if (LOWERCASE.equals(letterCase)) { password = password.toLowerCase(); }
+        if (UPPERCASE.equals(letterCase)) { password = password.toUpperCase(); }
 
         return password;
     }
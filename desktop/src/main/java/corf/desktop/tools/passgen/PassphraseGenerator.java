@@ -8,6 +8,7 @@ import javafx.scene.control.ToggleGroup;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.util.Pair;
+import org.jetbrains.annotations.Nullable;
 import corf.base.common.Initializer;
 import corf.base.common.Lazy;
 import corf.base.desktop.controls.HorizontalForm;
@@ -17,10 +18,8 @@ import corf.desktop.layout.Recommends;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static corf.base.i18n.I18n.t;
@@ -41,7 +40,7 @@ final class PassphraseGenerator implements Generator {
     private ToggleGroup caseToggleGroup;
 
     private final Lazy<VBox> view = new Lazy<>(this::createView);
-    private final List<String> dictionary = new ArrayList<>();
+    private @Nullable List<String> dictionary;
 
     private final EventBus eventBus;
 
@@ -56,22 +55,40 @@ final class PassphraseGenerator implements Generator {
 
     @Override
     public String generate() {
-        var len = view.initialized() ? (int) lengthSlider.getValue() : DEFAULT_LENGTH;
-        var sep = view.initialized() ? separatorField.getText() : DEFAULT_SEPARATOR;
-        boolean lowercase = false, capitalize = false, uppercase = false;
-        loadDictionary();
+        return generate(getLength(), getSeparator(), getLetterCase(), getDictionary());
+    }
 
+    @Override
+    public PasswordGenerator.Source createSource() {
+        // read controls and load dictionary here, on the FX thread
+        var len = getLength();
+        var sep = getSeparator();
+        var letterCase = getLetterCase();
+        var dict = getDictionary();
+        return (sb, random) -> sb.append(generate(len, sep, letterCase, dict));
+    }
+
+    private int getLength() {
+        return view.initialized() ? (int) lengthSlider.getValue() : DEFAULT_LENGTH;
+    }
+
+    private String getSeparator() {
+        return view.initialized() ? Objects.requireNonNullElse(separatorField.getText(), "") : DEFAULT_SEPARATOR;
+    }
+
+    private @Nullable String getLetterCase() {
         if (view.initialized()
                 && caseToggleGroup.getSelectedToggle() != null
                 && caseToggleGroup.getSelectedToggle().getUserData() instanceof String type) {
-            if (UPPERCASE.equals(type)) { uppercase = true; }
-            if (TITLECASE.equals(type)) { capitalize = true; }
-            if (LOWERCASE.equals(type)) { lowercase = true; }
+            return type;
         }
+        return null;
+    }
 
-        var password = PasswordGenerator.passphrase(len, sep, dictionary, capitalize);
-        if (lowercase) { password = password.toLowerCase(); }
-        if (uppercase) { password = password.toUpperCase(); }
+    private static String generate(int len, String sep, @Nullable String letterCase, List<String> dict) {
+        var password = PasswordGenerator.passphrase(len, sep, dict, TITLECASE.equals(letterCase));
+        if (LOWERCASE.equals(letterCase)) { password = password.toLowerCase(); }
+        if (UPPERCASE.equals(letterCase)) { password = password.toUpperCase(); }
 
         return password;
     }
@@ -113,13 +130,14 @@ final class PassphraseGenerator implements Generator {
         return root;
     }
 
-    @SuppressWarnings("ReturnValueIgnored")
-    private void loadDictionary() {
-        if (dictionary.isEmpty()) {
+    // dictionary is immutable once loaded, so it can be shared with the bulk mode workers
+    private List<String> getDictionary() {
+        if (dictionary == null) {
             BufferedReader reader = new BufferedReader(
                     new InputStreamReader(Objects.requireNonNull(getClass().getResourceAsStream(DICT_PATH)), UTF_8)
             );
-            reader.lines().collect(Collectors.toCollection(() -> dictionary));
+            dictionary = reader.lines().toList();
         }
+        return dictionary;
     }
 }
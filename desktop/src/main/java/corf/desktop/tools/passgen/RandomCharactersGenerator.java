@@ -65,6 +65,16 @@ final class RandomCharactersGenerator implements Generator {
         return PasswordGenerator.random(len, characterSet);
     }
 
+    @Override
+    public PasswordGenerator.Source createSource() {
+        var len = view.initialized() ? (int) lengthSlider.getValue() : DEFAULT_LENGTH;
+        var characterSet = view.initialized() && !characters.isEmpty()
+                ? characters
+                : PasswordGenerator.ASCII_LOWER_UPPER_DIGITS;
+        char[] alphabet = PasswordGenerator.toCharArray(characterSet);
+        return (sb, random) -> PasswordGenerator.appendRandom(sb, len, alphabet, random);
+    }
+
     @Override
     public Node getView() {
         return view.get();
@@ -0,0 +1,165 @@
+package corf.desktop.tools.seqgen;
+
+import corf.base.collection.SequenceGenerator;
+import corf.base.collection.SequenceGenerator.Rule;
+import corf.base.text.CompiledTemplate;
+import corf.base.text.PlaceholderReplacer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Formats generated sequence using the specified pattern. The whole sequence
+ * is never held in memory, it's written to the output line by line, so that
+ * its size is only limited by the disk space.
+ */
+final class SequenceExporter {
+
+    static final String LINE_SEPARATOR = "\n";
+
+    // how often to report progress and check for cancellation
+    static final int PROGRESS_STEP = 10_000;
+
+    // only used by the map-based generator API, exporter formats raw values itself
+    static final BiFunction<String, Double, String> OUTPUT_CONVERTER = (id, v) -> String.valueOf(v.longValue());
+
+    private final SequenceGenerator<String, String> generator;
+
+    // Pattern resolved against the rules order: for every template segment
+    // there's either a literal text or the index of the rule to substitute,
+    // so lines are rendered from the raw values without building a map.
+    private final String[] literals;
+    private final int[] ruleIndexes;
+
+    @FunctionalInterface
+    interface ProgressListener {
+
+        void update(long done, long total);
+    }
+
+    public SequenceExporter(List<Rule<String>> rules, String pattern) {
+        this.generator = new SequenceGenerator<>(Objects.requireNonNull(rules, "rules"), OUTPUT_CONVERTER);
+
+        List<CompiledTemplate.Segment> segments = PlaceholderReplacer.compile(pattern).getSegments();
+        this.literals = new String[segments.size()];
+        this.ruleIndexes = new int[segments.size()];
+
+        List<Rule<String>> generatorRules = generator.getRules();
+        for (int i = 0; i < segments.size(); i++) {
+            ruleIndexes[i] = -1;
+            if (segments.get(i) instanceof CompiledTemplate.Literal literal) {
+                literals[i] = literal.text();
+            } else if (segments.get(i) instanceof CompiledTemplate.Escaped escaped) {
+                literals[i] = escaped.text();
+            } else if (segments.get(i) instanceof CompiledTemplate.Placeholder placeholder) {
+                ruleIndexes[i] = indexOf(generatorRules, placeholder.key());
+                if (ruleIndexes[i] < 0) {
+                    // missing keys are left unsubstituted
+                    var sb = new StringBuilder();
+                    placeholder.appendTo(sb);
+                    literals[i] = sb.toString();
+                }
+            }
+        }
+    }
+
+    /** Returns the number of lines in the sequence. */
+    public long size() {
+        return generator.size();
+    }
+
+    /** Returns the first lines of the sequence. */
+    public List<String> preview(int limit) {
+        var lines = new ArrayList<String>(Math.max(limit, 0));
+        if (limit <= 0) { return lines; }
+
+        var sb = new StringBuilder(256);
+        generator.visit(values -> {
+            sb.setLength(0);
+            render(values, sb);
+            lines.add(sb.toString());
+            return lines.size() < limit;
+        });
+        return lines;
+    }
+
+    /**
+     * Writes the whole sequence to the output. Output isn't closed.
+     *
+     * @return the number of lines written, it's less than the sequence size
+     *         if export has been cancelled
+     */
+    public long export(Writer out, ProgressListener progress, BooleanSupplier cancelled) throws IOException {
+        var lineWriter = new LineWriter(out, size(), progress, cancelled);
+        try {
+            generator.visit(lineWriter);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        out.flush();
+        progress.update(lineWriter.done, lineWriter.total);
+        return lineWriter.done;
+    }
+
+    private void render(double[] values, StringBuilder out) {
+        for (int i = 0; i < ruleIndexes.length; i++) {
+            if (ruleIndexes[i] >= 0) {
+                out.append((long) values[ruleIndexes[i]]);
+            } else {
+                out.append(literals[i]);
+            }
+        }
+    }
+
+    private static int indexOf(List<Rule<String>> rules, String id) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).id.equals(id)) { return i; }
+        }
+        return -1;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+
+    private final class LineWriter implements SequenceGenerator.ValuesVisitor {
+
+        private final Writer out;
+        private final long total;
+        private final ProgressListener progress;
+        private final BooleanSupplier cancelled;
+        private final StringBuilder sb = new StringBuilder(256);
+        private long done = 0;
+
+        public LineWriter(Writer out, long total, ProgressListener progress, BooleanSupplier cancelled) {
+            this.out = out;
+            this.total = total;
+            this.progress = progress;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public boolean visit(double[] values) {
+            if (done % PROGRESS_STEP == 0) {
+                if (cancelled.getAsBoolean()) { return false; }
+                progress.update(done, total);
+            }
+
+            sb.setLength(0);
+            if (done > 0) { sb.append(LINE_SEPARATOR); }
+            render(values, sb);
+            try {
+                out.append(sb);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done++;
+            return true;
+        }
+    }
+}
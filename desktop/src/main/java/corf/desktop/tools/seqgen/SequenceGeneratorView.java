@@ -3,18 +3,18 @@ package corf.desktop.tools.seqgen;
 import atlantafx.base.controls.Spacer;
 import backbonefx.di.Initializable;
 import corf.base.Env;
-import corf.base.collection.SequenceGenerator;
 import corf.base.collection.SequenceGenerator.Rule;
 import corf.base.desktop.*;
 import corf.base.desktop.controls.StringListView;
 import corf.base.event.Events;
 import corf.base.event.Notification;
 import corf.base.exception.AppException;
-import corf.base.text.PlaceholderReplacer;
+import corf.base.io.FileSystemUtils;
 import corf.desktop.i18n.DM;
 import corf.desktop.layout.Recommends;
 import jakarta.inject.Inject;
 import javafx.beans.binding.Bindings;
+import javafx.concurrent.Task;
 import javafx.collections.FXCollections;
 import javafx.geometry.HPos;
 import javafx.geometry.Orientation;
@@ -22,9 +22,11 @@ import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.*;
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
 import org.kordamp.ikonli.javafx.FontIcon;
 import org.kordamp.ikonli.material2.Material2MZ;
 import org.kordamp.ikonli.material2.Material2OutlinedMZ;
@@ -33,8 +35,6 @@ import java.io.File;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.function.BiFunction;
-import java.util.stream.Collectors;
 
 import static atlantafx.base.theme.Styles.*;
 import static corf.base.i18n.I18n.t;
@@ -44,14 +44,16 @@ public final class SequenceGeneratorView extends VBox
         implements Component<SequenceGeneratorView>, Initializable, Focusable {
 
     private static final int TOOL_WIDTH = 800;
-    private static final int MAX_TOTAL_RESULT_SIZE = 100_000;
-    private static final BiFunction<String, Double, String> OUTPUT_CONVERTER = (id, v) -> String.valueOf(v.longValue());
+    private static final int PREVIEW_SIZE = 1000;
     private static final String EXPORT_FILE_NAME = "sequence.txt";
 
     TextField patternText;
     Label lineCountLabel;
     StringListView generatedList;
+    Label previewLabel;
+    ProgressBar exportProgress;
     Button exportBtn;
+    Button cancelExportBtn;
     Button generateBtn;
 
     RuleInput inputA;
@@ -60,6 +62,8 @@ public final class SequenceGeneratorView extends VBox
     RuleInput inputD;
 
     private final ExecutorService executorService;
+    private @Nullable SequenceExporter exporter;
+    private @Nullable Task<Long> exportTask;
 
     @Inject
     @SuppressWarnings("NullAway.Init")
@@ -178,11 +182,26 @@ public final class SequenceGeneratorView extends VBox
         generatedList.getStyleClass().addAll(ExtraStyles.MONOSPACE, STRIPED, DENSE);
         generatedList.setPrefHeight(200);
 
+        previewLabel = new Label();
+        previewLabel.getStyleClass().addAll(SMALL, TEXT_MUTED);
+        previewLabel.setVisible(false);
+
+        exportProgress = new ProgressBar(0);
+        exportProgress.getStyleClass().add(SMALL);
+        exportProgress.setMaxWidth(Double.MAX_VALUE);
+        exportProgress.setVisible(false);
+        HBox.setHgrow(exportProgress, Priority.ALWAYS);
+
         exportBtn = new Button(t(DM.ACTION_EXPORT), new FontIcon(Material2OutlinedMZ.SAVE_ALT));
         exportBtn.getStyleClass().addAll(FLAT);
 
-        var exportBox = new HBox(exportBtn);
-        exportBox.setAlignment(Pos.TOP_RIGHT);
+        cancelExportBtn = new Button(t(DM.ACTION_CANCEL));
+        cancelExportBtn.getStyleClass().addAll(FLAT);
+        cancelExportBtn.setVisible(false);
+        cancelExportBtn.managedProperty().bind(cancelExportBtn.visibleProperty());
+
+        var exportBox = new HBox(10, previewLabel, exportProgress, cancelExportBtn, exportBtn);
+        exportBox.setAlignment(Pos.CENTER_RIGHT);
 
         return new VBox(
                 Recommends.CAPTION_MARGIN,
@@ -193,8 +212,6 @@ public final class SequenceGeneratorView extends VBox
 
     @Override
     public void init() {
-        lineCountLabel.textProperty().bind(generatedList.sizeProperty().asString());
-
         generateBtn.setOnAction(e -> generate());
         generateBtn.disableProperty().bind(Observables.or(
                 Observables.isBlank(patternText.textProperty()),
@@ -207,7 +224,15 @@ public final class SequenceGeneratorView extends VBox
         ));
 
         exportBtn.setOnAction(e -> export());
-        exportBtn.disableProperty().bind(generatedList.sizeProperty().isEqualTo(0));
+        exportBtn.disableProperty().bind(Observables.or(
+                generatedList.sizeProperty().isEqualTo(0),
+                exportProgress.visibleProperty()
+        ));
+
+        cancelExportBtn.visibleProperty().bind(exportProgress.visibleProperty());
+        cancelExportBtn.setOnAction(e -> {
+            if (exportTask != null) { exportTask.cancel(); }
+        });
 
         // set initial data
         patternText.setText("${A}/${B}");
@@ -245,23 +270,26 @@ public final class SequenceGeneratorView extends VBox
         if (inputD.isEnabled()) { rules.add(inputD.createRule()); }
         if (rules.isEmpty()) { return; }
 
-        if (SequenceGenerator.getExpectedSize(rules) > MAX_TOTAL_RESULT_SIZE) {
-            Events.fire(Notification.warning(t(DM.SEQGEN_MSG_SEQUENCE_SIZE_EXCEEDS_LIMIT, MAX_TOTAL_RESULT_SIZE)));
-            return;
-        }
-
-        Async.with(() -> {
-                    var generator = new SequenceGenerator<>(rules, OUTPUT_CONVERTER);
-                    return generator.generate().stream()
-                            .map(item -> PlaceholderReplacer.replace(pattern, item))
-                            .collect(Collectors.toList());
+        // only the preview is rendered, the whole sequence is generated on export
+        var newExporter = new SequenceExporter(rules, pattern);
+        Async.with(() -> newExporter.preview(PREVIEW_SIZE))
+                .setOnSucceeded(result -> {
+                    exporter = newExporter;
+                    generatedList.setItems(FXCollections.observableArrayList(result));
+
+                    long size = newExporter.size();
+                    lineCountLabel.setText(String.valueOf(size));
+                    previewLabel.setText(t(DM.SEQGEN_PREVIEW_LIMIT, PREVIEW_SIZE));
+                    previewLabel.setVisible(size > PREVIEW_SIZE);
                 })
-                .setOnSucceeded(result -> generatedList.setItems(FXCollections.observableArrayList(result)))
                 .setOnFailed(e -> Events.fire(Notification.error(e)))
                 .start(executorService);
     }
 
     private void export() {
+        final var currentExporter = exporter;
+        if (currentExporter == null) { return; }
+
         File outputFile = Dialogs.fileChooser()
                 .addFilter(t(DM.FILE_DIALOG_TEXT), "*.txt")
                 .initialDirectory(Env.getLastVisitedDir())
@@ -270,15 +298,42 @@ public final class SequenceGeneratorView extends VBox
                 .showSaveDialog(getWindow());
         if (outputFile == null) { return; }
 
-        Async.with(() -> {
-                    try {
-                        Files.writeString(outputFile.toPath(), String.join("\n", generatedList.getItems()));
-                    } catch (Exception e) {
-                        throw new AppException(t(DM.MGG_UNABLE_TO_SAVE_DATA_TO_FILE), e);
-                    }
-                })
-                .setOnSucceeded(nil -> Env.setLastVisitedDir(outputFile))
-                .setOnFailed(e -> Events.fire(Notification.error(e)))
-                .start(executorService);
+        var task = new Task<Long>() {
+            @Override
+            protected Long call() {
+                long count;
+                try (var out = Files.newBufferedWriter(outputFile.toPath())) {
+                    count = currentExporter.export(out, this::updateProgress, this::isCancelled);
+                } catch (Exception e) {
+                    throw new AppException(t(DM.MGG_UNABLE_TO_SAVE_DATA_TO_FILE), e);
+                }
+
+                // incomplete file is useless
+                if (isCancelled()) { FileSystemUtils.deleteFile(outputFile.toPath()); }
+                return count;
+            }
+        };
+
+        exportProgress.progressProperty().bind(task.progressProperty());
+        exportProgress.setVisible(true);
+
+        task.setOnSucceeded(e -> {
+            finishExport();
+            Env.setLastVisitedDir(outputFile);
+        });
+        task.setOnCancelled(e -> finishExport());
+        task.setOnFailed(e -> {
+            finishExport();
+            Events.fire(Notification.error(task.getException()));
+        });
+
+        exportTask = task;
+        executorService.execute(task);
+    }
+
+    private void finishExport() {
+        exportTask = null;
+        exportProgress.progressProperty().unbind();
+        exportProgress.setVisible(false);
     }
 }
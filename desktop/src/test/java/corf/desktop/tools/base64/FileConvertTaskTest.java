@@ -0,0 +1,56 @@
+package corf.desktop.tools.base64;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileConvertTaskTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testBinaryFileRoundTrip() throws Exception {
+        // bytes that are neither valid UTF-8 nor free of line breaks
+        byte[] data = new byte[StreamConverter.BUFFER_SIZE * 2 + 3];
+        new Random(42).nextBytes(data);
+        data[0] = '\n';
+        data[1] = (byte) 0xC3;
+
+        Path source = tempDir.resolve("data.bin");
+        Path encoded = tempDir.resolve("data.bin.b64");
+        Path decoded = tempDir.resolve("data.bin.bin");
+        Files.write(source, data);
+
+        // the view uses the basic codec by default
+        assertThat(convert(source, encoded, Codec.BASIC, true)).isTrue();
+        assertThat(Files.readAllBytes(encoded)).isEqualTo(Base64.getEncoder().encode(data));
+
+        assertThat(convert(encoded, decoded, Codec.BASIC, false)).isTrue();
+        assertThat(Files.readAllBytes(decoded)).isEqualTo(data);
+    }
+
+    @Test
+    public void testDecodeWrappedDump() throws Exception {
+        byte[] data = new byte[10_000];
+        new Random(42).nextBytes(data);
+
+        // the typical 76 columns dump with the trailing line break
+        Path source = tempDir.resolve("dump.b64");
+        Path decoded = tempDir.resolve("dump.bin");
+        Files.writeString(source, Base64.getMimeEncoder().encodeToString(data) + "\r\n");
+
+        assertThat(convert(source, decoded, Codec.BASIC, false)).isTrue();
+        assertThat(Files.readAllBytes(decoded)).isEqualTo(data);
+    }
+
+    private static boolean convert(Path source, Path target, Codec codec, boolean encode) throws Exception {
+        return FileConvertTask.convert(source, target, new StreamConverter(codec, encode), done -> { }, () -> false);
+    }
+}
@@ -0,0 +1,81 @@
+package corf.desktop.tools.base64;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Base64;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StreamConverterTest {
+
+    @Test
+    public void testStreamRoundTrip() throws Exception {
+        byte[] data = new byte[StreamConverter.BUFFER_SIZE * 3 + 17];
+        new Random(42).nextBytes(data);
+
+        for (Codec codec : Codec.values()) {
+            var encoded = new ByteArrayOutputStream();
+            assertThat(new StreamConverter(codec, true).convert(
+                    new ByteArrayInputStream(data), encoded, () -> { }, () -> false
+            )).isTrue();
+            assertThat(encoded.toByteArray()).isEqualTo(codec.getEncoder().encode(data));
+
+            // trailing line break is typical for files
+            encoded.write('\n');
+
+            var decoded = new ByteArrayOutputStream();
+            new StreamConverter(codec, false).convert(
+                    new ByteArrayInputStream(encoded.toByteArray()), decoded, () -> { }, () -> false
+            );
+            assertThat(decoded.toByteArray()).as(codec.name()).isEqualTo(data);
+        }
+    }
+
+    @Test
+    public void testStreamCancellation() throws Exception {
+        byte[] data = new byte[StreamConverter.BUFFER_SIZE * 3];
+        int[] calls = new int[1];
+
+        boolean completed = new StreamConverter(Codec.BASIC, true).convert(
+                new ByteArrayInputStream(data), new ByteArrayOutputStream(), () -> calls[0]++, () -> calls[0] > 0
+        );
+
+        assertThat(completed).isFalse();
+        assertThat(calls[0]).isEqualTo(1);
+    }
+
+    @Test
+    public void testConvertLines() throws Exception {
+        int count = StreamConverter.LINES_BATCH_SIZE * 2 + 5;
+        String text = IntStream.range(0, count)
+                .mapToObj(i -> (i % 100 == 0 ? "  \n" : "") + " line " + i + " ")
+                .collect(Collectors.joining("\r\n"));
+
+        var encoded = new StringWriter();
+        new StreamConverter(Codec.BASIC, true).convertLines(
+                new BufferedReader(new StringReader(text)), encoded, () -> { }, () -> false
+        );
+
+        String expected = IntStream.range(0, count)
+                .mapToObj(i -> Base64.getEncoder().encodeToString(("line " + i).getBytes(UTF_8)))
+                .collect(Collectors.joining("\n"));
+        assertThat(encoded.toString()).isEqualTo(expected);
+    }
+
+    @Test
+    public void testInvalidInput() {
+        assertThatThrownBy(() -> new StreamConverter(Codec.BASIC, false).convert(
+                new ByteArrayInputStream("not base64!".getBytes(UTF_8)), new ByteArrayOutputStream(), () -> { }, () -> false
+        )).isInstanceOf(IOException.class);
+
+        assertThatThrownBy(() -> new StreamConverter(Codec.BASIC, false).convertLines(
+                new BufferedReader(new StringReader("YQ==\nnot base64!")), new StringWriter(), () -> { }, () -> false
+        )).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package corf.desktop.tools.common;
+
+import org.junit.jupiter.api.Test;
+import corf.base.text.PlaceholderReplacer;
+import corf.desktop.tools.common.Param.Type;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RowTemplateTest {
+
+    static final String[] ROW = { "a", "b", "c" };
+    static final Set<Param> PARAMS = Set.of(
+            new Param("foo", Type.CONSTANT, null, "bar"),
+            new Param("_csv1", Type.CONSTANT, null, "shadowed"),
+            new Param("_csv5", Type.CONSTANT, null, "fallback")
+    );
+
+    @Test
+    public void testRenderMatchesReplacementMap() {
+        var params = new ParamTable(PARAMS);
+        params.resolve();
+
+        for (String pattern : List.of(
+                "${_csv0}-${_csv1}-${_csv2}",
+                "${_index0}/${_index1}",
+                "${foo} ${_csv5} ${_csv9} ${unknown}",
+                "\\${_csv0} ${_csv01}",
+                "${_index0}${_index0}"
+        )) {
+            var replacements = new HashMap<String, String>();
+            TemplateWorker.putParamReplacements(replacements, PARAMS);
+            TemplateWorker.putIndexReplacements(replacements, 7);
+            TemplateWorker.putCsvReplacements(replacements, ROW);
+
+            assertThat(RowTemplate.compile(pattern, params).render(ROW, 7))
+                    .as(pattern)
+                    .isEqualTo(PlaceholderReplacer.replace(pattern, replacements));
+        }
+    }
+
+    @Test
+    public void testRenderWithoutRowReplacesParamsOnly() {
+        var params = new ParamTable(PARAMS);
+        params.resolve();
+
+        var template = RowTemplate.compile("${foo} ${_csv0} ${_csv1} ${_index1}", params);
+        assertThat(template.render()).isEqualTo("bar ${_csv0} shadowed ${_index1}");
+
+        // same as PlaceholderReplacer with empty map
+        var noParams = new ParamTable(null);
+        assertThat(RowTemplate.compile("\\${foo}", noParams).render()).isEqualTo("\\${foo}");
+    }
+
+    @Test
+    public void testParamValuesCanBeUpdated() {
+        var param = new Param("foo", Type.CONSTANT, null, "1");
+        var params = new ParamTable(Set.of(param));
+        var template = RowTemplate.compile("${foo}:${_csv0}", params);
+        var sb = new StringBuilder();
+
+        params.resolve();
+        template.render(ROW, 0, sb);
+
+        param.setValue("2");
+        params.resolve();
+        template.render(ROW, 1, sb);
+
+        assertThat(sb.toString()).isEqualTo("1:a2:a");
+    }
+}
@@ -0,0 +1,51 @@
+package corf.desktop.tools.filebuilder;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChannelWriterTest {
+
+    static final String TEXT = "ascii, кириллица, 😀 emoji, ";
+
+    @Test
+    public void testOutputMatchesStringEncoding() throws Exception {
+        for (Charset charset : new Charset[] { UTF_8, UTF_16LE, ISO_8859_1 }) {
+            var bytes = new ByteArrayOutputStream();
+
+            // small buffer to force many flushes
+            try (var out = new ChannelWriter(Channels.newChannel(bytes), charset, 16)) {
+                out.write(TEXT);
+                out.append(new StringBuilder(TEXT).append(TEXT));
+                out.write(TEXT.toCharArray());
+                out.write('!');
+            }
+
+            assertThat(bytes.toByteArray())
+                    .as(charset.name())
+                    .isEqualTo((TEXT.repeat(4) + "!").getBytes(charset));
+        }
+    }
+
+    @Test
+    public void testSurrogatePairSplitBetweenWrites() throws Exception {
+        var bytes = new ByteArrayOutputStream();
+        String emoji = "😀";
+
+        try (var out = new ChannelWriter(Channels.newChannel(bytes), UTF_8, 16)) {
+            out.write(emoji.charAt(0));
+            out.write(emoji.charAt(1));
+            out.write("a" + emoji.charAt(0));
+            out.append(new StringBuilder().append(emoji.charAt(1)));
+        }
+
+        assertThat(bytes.toString(UTF_8)).isEqualTo(emoji + "a" + emoji);
+    }
+}
@@ -3,16 +3,21 @@ package corf.desktop.tools.filebuilder;
 import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 import corf.base.common.KeyValue;
+import corf.base.io.Compression;
 import corf.base.text.LineSeparator;
 import corf.base.io.FileSystemUtils;
 import corf.base.text.CSV;
+import corf.base.text.CSVFile;
 import corf.desktop.tools.common.Param;
 import corf.desktop.tools.common.Param.Type;
 import corf.desktop.tools.filebuilder.Generator.Options;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.StringWriter;
+import java.nio.file.Files;
 import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -127,6 +132,90 @@ public class GeneratorTest {
         assertThat(result[2]).isEqualTo("foo/2 bar/3");
     }
 
+    @Test
+    public void testFileOutput() throws Exception {
+        var template = Template.create("test", "${_csv0}\n${_csv1}");
+        var file = FileSystemUtils.createTempFile().toFile();
+        file.deleteOnExit();
+
+        var crlf = LineSeparator.WINDOWS.getCharacters();
+        new Generator(template, CSV.from("а,б"), file, new Options(UTF_8, crlf, true, false)).run();
+        new Generator(template, CSV.from("в,г"), file, new Options(UTF_8, crlf, true, true)).run();
+
+        // BOM must be written to the new file only
+        assertThat(Files.readString(file.toPath(), UTF_8)).isEqualTo("\uFEFFа\r\nб\r\nв\r\nг\r\n");
+
+        new Generator(template, CSV.from("д,е"), file, new Options(UTF_8, crlf, false, false)).run();
+        assertThat(Files.readString(file.toPath(), UTF_8)).isEqualTo("д\r\nе\r\n");
+    }
+
+    @Test
+    public void testCompressedFileOutput() throws Exception {
+        var template = Template.create("test", "${_csv0}");
+        var file = FileSystemUtils.createTempFile().toFile();
+        file.deleteOnExit();
+
+        var lf = LineSeparator.UNIX.getCharacters();
+        new Generator(template, CSV.from("a\nb"), file, new Options(UTF_8, lf, true, false, 1, Compression.GZIP)).run();
+        new Generator(template, CSV.from("c"), file, new Options(UTF_8, lf, true, true, 1, Compression.GZIP)).run();
+
+        // appended data is a separate gzip member, BOM is only written once
+        try (var in = new GZIPInputStream(new FileInputStream(file))) {
+            assertThat(new String(in.readAllBytes(), UTF_8)).isEqualTo("\uFEFFa\nb\nc\n");
+        }
+    }
+
+    @Test
+    public void testMalformedCsvReportedAsWarning() throws Exception {
+        var template = Template.create("test", "${_csv0}");
+        var file = FileSystemUtils.createTempFile();
+        file.toFile().deleteOnExit();
+
+        // text after closing quote
+        Files.writeString(file, "\"a\"b,c");
+
+        var check = Generator.validate(template, new CSVFile(file));
+        assertThat(check.passed()).isFalse();
+        assertThat(check.isMalformedCsv()).isTrue();
+    }
+
+    @Test
+    public void testParallelOutputIsOrdered() throws Exception {
+        var data = new StringBuilder();
+        for (int i = 0; i < Generator.CHUNK_SIZE * 5 + 7; i++) {
+            data.append(i).append(",").append(i * 2).append("\n");
+        }
+
+        var template = Template.create("test", "${_index1}: ${_csv0} ${_csv1} ${param}");
+        template.setHeader("header ${param}");
+        template.setFooter("footer ${param}");
+        template.setDelimiter(";");
+        template.setParams(Set.of(
+                new TestParam("param", Type.UUID, null, null)
+        ));
+
+        var sequential = new StringWriter();
+        new Generator(template, CSV.from(data.toString()), TMP_FILE, STANDARD_OPTS).generate(sequential);
+
+        // fresh param, so that auto-generated values start from zero again
+        template.setParams(Set.of(
+                new TestParam("param", Type.UUID, null, null)
+        ));
+
+        var parallelOpts = new Options(UTF_8, LineSeparator.UNIX.getCharacters(), false, false, 4, Compression.NONE);
+        var parallel = new StringWriter();
+        new Generator(template, CSV.from(data.toString()), TMP_FILE, parallelOpts).generate(parallel);
+
+        String[] result = parallel.toString().split(template.getLineSeparator().getCharacters());
+
+        assertThat(parallel.toString()).isEqualTo(sequential.toString());
+        assertThat(result).hasSize(Generator.CHUNK_SIZE * 5 + 7 + 2);
+        assertThat(result[0]).isEqualTo("header uuid/0");
+        assertThat(result[1]).isEqualTo("1: 0 0 uuid/0;");
+        assertThat(result[result.length - 2]).isEqualTo("5127: 5126 10252 uuid/5126");
+        assertThat(result[result.length - 1]).isEqualTo("footer uuid/0");
+    }
+
     ///////////////////////////////////////////////////////////////////////////
 
     public static class TestParam extends Param {
@@ -3,17 +3,25 @@ package corf.desktop.tools.httpsender;
 import org.apache.commons.collections4.IteratorUtils;
 import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import corf.base.common.KeyValue;
 import corf.base.net.HttpClient;
 import corf.base.text.CSV;
+import corf.base.text.CSVFile;
 import corf.desktop.tools.common.Param;
+import corf.desktop.tools.common.ReplacementCheckResult;
 import corf.desktop.tools.common.Param.Type;
 import corf.desktop.tools.httpsender.Template.Batch;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static corf.base.net.HttpConstants.Method.POST;
@@ -203,6 +211,49 @@ public class ExecutorQueueTest {
         assertThat(result.get(2).body()).isEqualTo("password/4 timestamp/4|password/5 timestamp/5");
     }
 
+    @Test
+    public void testConcurrentPollPreservesIndexes() throws Exception {
+        var template = Template.create("test", "http://127.0.0.1", POST);
+        template.setBody("${_index0}");
+        template.setBatch(new Batch(2, "", "", ";"));
+
+        var data = String.join("\n", Collections.nCopies(100, DATA));
+        var queue = new ExecutorQueue(template, CSV.from(data), Collections.emptyMap());
+        var result = new ConcurrentLinkedQueue<ExecutorQueue.Entry>();
+
+        var workers = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            workers.execute(() -> {
+                ExecutorQueue.Entry entry;
+                while ((entry = queue.poll()) != null) {
+                    result.add(entry);
+                }
+            });
+        }
+        workers.shutdown();
+        assertThat(workers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(result).hasSize(150);
+        assertThat(queue.poll()).isNull();
+        assertThat(result).allMatch(e -> e.rowCount() == 2);
+        assertThat(result).allMatch(e -> e.request().body().equals(e.index() + ";" + (e.index() + 1)));
+    }
+
+    @Test
+    public void testMalformedCsvReportedAsWarning(@TempDir Path tempDir) throws Exception {
+        var template = Template.create("test", "http://127.0.0.1", POST);
+        template.setBody("${_csv0}");
+
+        // unterminated quoted field
+        Path csvFile = tempDir.resolve("data.csv");
+        Files.writeString(csvFile, "10,11\n20,\"21\n");
+
+        var check = ExecutorQueue.validate(template, new CSVFile(csvFile));
+        assertThat(check.passed()).isFalse();
+        assertThat(check.isMalformedCsv()).isTrue();
+        assertThat(check.getWarnings()).containsExactly(ReplacementCheckResult.malformedCsvMessage(2, 4));
+    }
+
     ///////////////////////////////////////////////////////////////////////////
 
     public static class TestParam extends Param {
@@ -0,0 +1,40 @@
+package corf.desktop.tools.httpsender;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testBurstPermitsAreAvailableImmediately() {
+        var limiter = new RateLimiter(1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.reserve()).isZero();
+        }
+        assertThat(limiter.reserve()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testWaitTimeDependsOnRate() {
+        var limiter = new RateLimiter(10, 1);
+        limiter.reserve();
+
+        // one permit per 100ms
+        assertThat(limiter.reserve()).isBetween(TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100));
+
+        // previously reserved permit must be paid back first, so it's about 2 x 1s
+        limiter.setRate(1, 1);
+        assertThat(limiter.reserve()).isBetween(TimeUnit.MILLISECONDS.toNanos(1500), TimeUnit.MILLISECONDS.toNanos(2000));
+    }
+
+    @Test
+    public void testInvalidRateRejected() {
+        assertThatThrownBy(() -> new RateLimiter(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,37 @@
+package corf.desktop.tools.ipcalc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RangeOperationTest {
+
+    @Test
+    public void testParseIgnoresCommentsAndSeparators() {
+        var set = RangeOperation.parse("""
+                # office
+                10.0.0.0/24, 10.0.1.0/24;10.0.2.0/23
+
+                192.168.1.1 - 192.168.1.2 # printers
+                """);
+
+        assertThat(set.toCidrList()).containsExactly("10.0.0.0/22", "192.168.1.1/32", "192.168.1.2/32");
+    }
+
+    @Test
+    public void testParseReportsLineNumber() {
+        assertThatThrownBy(() -> RangeOperation.parse("10.0.0.0/8\n\n10.0.0.256"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Line 3:");
+    }
+
+    @Test
+    public void testNotContained() {
+        var a = RangeOperation.parse("10.0.0.0/8");
+
+        assertThat(RangeOperation.NOT_CONTAINED.apply(a, RangeOperation.parse("10.1.0.0/16")).isEmpty()).isTrue();
+        assertThat(RangeOperation.NOT_CONTAINED.apply(a, RangeOperation.parse("11.0.0.1")).toCidrList())
+                .containsExactly("11.0.0.1/32");
+    }
+}
@@ -0,0 +1,44 @@
+package corf.desktop.tools.ipcalc;
+
+import org.junit.jupiter.api.Test;
+import corf.base.net.IPv4Network;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SubnetListTest {
+
+    @Test
+    public void testSubnetsAreComputedByIndex() {
+        var subnets = new SubnetList(new IPv4Network("10.0.0.0/8"), 24);
+
+        assertThat(subnets).hasSize(1 << 24);
+        assertThat(subnets.get(0).getMinHost()).isEqualTo("10.0.0.0");
+        assertThat(subnets.get(1).getNetworkAddress()).isEmpty();
+        assertThat(subnets.get(257).getMinHost()).isEqualTo("10.0.1.1");
+        assertThat(subnets.get(subnets.size() - 1).getMaxHost()).isEqualTo("10.255.255.255");
+        assertThatThrownBy(() -> subnets.get(1 << 24)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testWriteToMatchesNetworkInfo() throws Exception {
+        for (int subnetBits : new int[] { 2, 5, 6 }) {
+            var subnets = new SubnetList(new IPv4Network("192.168.1.0/24"), subnetBits);
+
+            var expected = new StringBuilder(SubnetList.CSV_HEADER).append('\n');
+            for (NetworkInfo net : subnets) {
+                expected.append(net.getNetworkAddress()).append(';')
+                        .append(net.getMinHost()).append(';')
+                        .append(net.getMaxHost()).append(';')
+                        .append(net.getBroadcast()).append('\n');
+            }
+
+            var out = new StringWriter();
+            subnets.writeTo(out);
+
+            assertThat(out.toString()).isEqualTo(expected.toString());
+        }
+    }
+}
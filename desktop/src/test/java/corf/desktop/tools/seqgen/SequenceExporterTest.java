@@ -0,0 +1,65 @@
+package corf.desktop.tools.seqgen;
+
+import org.junit.jupiter.api.Test;
+import corf.base.collection.SequenceGenerator;
+import corf.base.collection.SequenceGenerator.Rule;
+import corf.base.text.PlaceholderReplacer;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SequenceExporterTest {
+
+    static SequenceExporter createExporter(int countA, int countB) {
+        return new SequenceExporter(List.of(
+                new Rule<>("A", 100, 1, countA),
+                new Rule<>("B", 0, 2, countB)
+        ), "${A}/${B}");
+    }
+
+    @Test
+    public void testExportWritesWholeSequence() throws Exception {
+        var exporter = createExporter(2, 3);
+        var out = new StringWriter();
+        var progress = new ArrayList<Long>();
+
+        long count = exporter.export(out, (done, total) -> progress.add(done), () -> false);
+
+        assertThat(count).isEqualTo(6);
+        assertThat(out.toString()).isEqualTo("100/0\n100/2\n100/4\n101/0\n101/2\n101/4");
+        assertThat(progress).containsExactly(0L, 6L);
+        assertThat(exporter.preview(2)).containsExactly("100/0", "100/2");
+    }
+
+    @Test
+    public void testExportCanBeCancelled() throws Exception {
+        var exporter = createExporter(1000, 1000);
+        var out = new StringWriter();
+        var progress = new ArrayList<Long>();
+
+        long count = exporter.export(out, (done, total) -> progress.add(done), () -> progress.size() > 2);
+
+        assertThat(exporter.size()).isEqualTo(1_000_000);
+        assertThat(count).isEqualTo(3L * SequenceExporter.PROGRESS_STEP);
+        assertThat(out.toString().split("\n")).hasSize(3 * SequenceExporter.PROGRESS_STEP);
+    }
+
+    @Test
+    public void testPreviewMatchesPlaceholderReplacer() {
+        var rules = List.of(
+                new Rule<>("A", 100, 1, 3),
+                new Rule<>("B", -5, 5, 4)
+        );
+        var pattern = "\\${A}=${A}, ${B}, ${C}";
+        var exporter = new SequenceExporter(rules, pattern);
+
+        var expected = new SequenceGenerator<>(rules, SequenceExporter.OUTPUT_CONVERTER).stream()
+                .map(values -> PlaceholderReplacer.replace(pattern, values))
+                .toList();
+        assertThat(exporter.preview(100)).isEqualTo(expected);
+        assertThat(exporter.preview(5)).isEqualTo(expected.subList(0, 5));
+    }
+}